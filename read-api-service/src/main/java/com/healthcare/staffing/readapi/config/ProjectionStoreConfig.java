@@ -0,0 +1,20 @@
+package com.healthcare.staffing.readapi.config;
+
+import com.healthcare.staffing.shared.projection.ProjectionStore;
+import com.healthcare.staffing.shared.projection.RedisProjectionStore;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+
+/**
+ * Serves the read API from the Redis projections that view-maintenance writes. The
+ * in-memory store is only for tests and benchmarks; there is no single-node wiring.
+ */
+@Configuration
+public class ProjectionStoreConfig {
+
+    @Bean
+    public ProjectionStore projectionStore(RedisTemplate<String, String> redisTemplate) {
+        return new RedisProjectionStore(redisTemplate);
+    }
+}
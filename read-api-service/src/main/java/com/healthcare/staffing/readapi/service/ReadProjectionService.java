@@ -3,28 +3,35 @@ package com.healthcare.staffing.readapi.service;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.staffing.shared.dto.BookingSummaryDto;
 import com.healthcare.staffing.shared.dto.EligibleCarerDto;
 import com.healthcare.staffing.shared.dto.EligibleShiftDto;
+import com.healthcare.staffing.shared.projection.ProjectionKeys;
+import com.healthcare.staffing.shared.projection.ProjectionStore;
+import com.healthcare.staffing.shared.projection.WrongKeyTypeException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 @Service
 public class ReadProjectionService {
     
-    private final RedisTemplate<String, String> redisTemplate;
+    private final ProjectionStore projectionStore;
     private final ObjectMapper objectMapper;
     
-    // Redis key prefixes - must match those in view-maintenance-service
-    private static final String AVAILABLE_SHIFTS_PREFIX = "AvailableShiftsPerCarer:";
-    private static final String ELIGIBLE_CARERS_PREFIX = "EligibleCarersPerShift:";
+    // How long a read of the pointer is reused before asking the store again
+    private static final long NAMESPACE_REFRESH_MILLIS = 1000;
+    
+    private volatile String activeNamespace = "";
+    private volatile long namespaceReadAt;
 
     @Autowired
-    public ReadProjectionService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
-        this.redisTemplate = redisTemplate;
+    public ReadProjectionService(ProjectionStore projectionStore, ObjectMapper objectMapper) {
+        this.projectionStore = projectionStore;
         this.objectMapper = objectMapper;
     }
 
@@ -32,15 +39,19 @@ public class ReadProjectionService {
      * Retrieves eligible shifts for a specific carer
      */
     public List<EligibleShiftDto> getEligibleShiftsForCarer(UUID carerId) {
-        String key = AVAILABLE_SHIFTS_PREFIX + carerId.toString();
-        String jsonValue = redisTemplate.opsForValue().get(key);
-        
-        if (jsonValue == null) {
-            return List.of(); // Return empty list if not found
-        }
+        String namespace = activeNamespace();
+        String key = namespace + ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId.toString();
         
         try {
-            return objectMapper.readValue(jsonValue, new TypeReference<List<EligibleShiftDto>>() {});
+            List<String> jsonValues = projectionStore.hashValues(key);
+            List<EligibleShiftDto> shifts = new ArrayList<>(jsonValues.size());
+            for (String jsonValue : jsonValues) {
+                shifts.add(objectMapper.readValue(jsonValue, EligibleShiftDto.class));
+            }
+            return joinBookingSummaries(namespace, shifts);
+        } catch (WrongKeyTypeException e) {
+            return joinBookingSummaries(namespace,
+                readLegacyList(key, new TypeReference<List<EligibleShiftDto>>() {}, carerId));
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to deserialize eligible shifts for carer: " + carerId, e);
         }
@@ -50,40 +61,55 @@ public class ReadProjectionService {
      * Retrieves eligible carers for a specific shift
      */
     public List<EligibleCarerDto> getEligibleCarersForShift(UUID shiftId) {
-        String key = ELIGIBLE_CARERS_PREFIX + shiftId.toString();
-        String jsonValue = redisTemplate.opsForValue().get(key);
-        
-        if (jsonValue == null) {
-            return List.of(); // Return empty list if not found
-        }
+        String key = activeNamespace() + ProjectionKeys.ELIGIBLE_CARERS_PREFIX + shiftId.toString();
         
         try {
-            return objectMapper.readValue(jsonValue, new TypeReference<List<EligibleCarerDto>>() {});
+            List<String> jsonValues = projectionStore.hashValues(key);
+            List<EligibleCarerDto> carers = new ArrayList<>(jsonValues.size());
+            for (String jsonValue : jsonValues) {
+                carers.add(objectMapper.readValue(jsonValue, EligibleCarerDto.class));
+            }
+            return carers;
+        } catch (WrongKeyTypeException e) {
+            return readLegacyList(key, new TypeReference<List<EligibleCarerDto>>() {}, shiftId);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to deserialize eligible carers for shift: " + shiftId, e);
         }
     }
 
     /**
-     * Checks if a specific carer-shift combination exists in projections
+     * Checks if a specific carer-shift combination exists in projections (HEXISTS)
      */
     public boolean isCarerEligibleForShift(UUID carerId, UUID shiftId) {
-        List<EligibleShiftDto> eligibleShifts = getEligibleShiftsForCarer(carerId);
-        return eligibleShifts.stream().anyMatch(shift -> shift.getBookingId().equals(shiftId));
+        try {
+            return projectionStore.hashHasKey(activeNamespace() + ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId.toString(),
+                shiftId.toString());
+        } catch (WrongKeyTypeException e) {
+            return getEligibleShiftsForCarer(carerId).stream()
+                .anyMatch(shift -> shift.getBookingId().equals(shiftId));
+        }
     }
 
     /**
-     * Gets the count of eligible shifts for a carer
+     * Gets the count of eligible shifts for a carer (HLEN)
      */
     public long getEligibleShiftsCount(UUID carerId) {
-        return getEligibleShiftsForCarer(carerId).size();
+        try {
+            return projectionStore.hashSize(activeNamespace() + ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId.toString());
+        } catch (WrongKeyTypeException e) {
+            return getEligibleShiftsForCarer(carerId).size();
+        }
     }
 
     /**
-     * Gets the count of eligible carers for a shift
+     * Gets the count of eligible carers for a shift (HLEN)
      */
     public long getEligibleCarersCount(UUID shiftId) {
-        return getEligibleCarersForShift(shiftId).size();
+        try {
+            return projectionStore.hashSize(activeNamespace() + ProjectionKeys.ELIGIBLE_CARERS_PREFIX + shiftId.toString());
+        } catch (WrongKeyTypeException e) {
+            return getEligibleCarersForShift(shiftId).size();
+        }
     }
 
     /**
@@ -147,4 +173,73 @@ public class ReadProjectionService {
             .sorted((c1, c2) -> Double.compare(c1.getDistanceKm(), c2.getDistanceKm()))
             .toList();
     }
+
+    /**
+     * Overlays each shift with its booking's shared summary (one MGET for all of them), so
+     * status and display changes made once per booking show up in every carer's view.
+     * Shifts whose booking has no summary keep the values copied into the entry.
+     */
+    private List<EligibleShiftDto> joinBookingSummaries(String namespace, List<EligibleShiftDto> shifts) {
+        if (shifts.isEmpty()) {
+            return shifts;
+        }
+        
+        List<String> keys = shifts.stream()
+            .map(shift -> namespace + ProjectionKeys.BOOKING_SUMMARY_PREFIX + shift.getBookingId())
+            .collect(Collectors.toList());
+        List<String> jsonValues = projectionStore.multiGet(keys);
+        for (int i = 0; i < shifts.size(); i++) {
+            String jsonValue = jsonValues.get(i);
+            if (jsonValue == null) {
+                continue;
+            }
+            
+            try {
+                BookingSummaryDto summary = objectMapper.readValue(jsonValue, BookingSummaryDto.class);
+                EligibleShiftDto shift = shifts.get(i);
+                shift.setShift(summary.getShift());
+                shift.setStartTime(summary.getStartTime());
+                shift.setEndTime(summary.getEndTime());
+                shift.setHourlyRate(summary.getHourlyRate());
+                shift.setSpecialRequirements(summary.getSpecialRequirements());
+                shift.setRequiredQualifications(summary.getRequiredQualifications());
+                shift.setStatus(summary.getStatus());
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to deserialize booking summary: " + shifts.get(i).getBookingId(), e);
+            }
+        }
+        return shifts;
+    }
+
+    /**
+     * The namespace to read projections from, re-read from the store at most once a second.
+     * Each request resolves it once, so its keys all come from the same namespace.
+     */
+    private String activeNamespace() {
+        long now = System.currentTimeMillis();
+        if (now - namespaceReadAt >= NAMESPACE_REFRESH_MILLIS) {
+            String namespace = projectionStore.get(ProjectionKeys.ACTIVE_NAMESPACE_KEY);
+            activeNamespace = namespace != null ? namespace : "";
+            namespaceReadAt = now;
+        }
+        return activeNamespace;
+    }
+
+    /**
+     * Reads a projection still stored as one JSON array, until view-maintenance-service
+     * has migrated it to the hash layout
+     */
+    private <T> List<T> readLegacyList(String key, TypeReference<List<T>> type, UUID id) {
+        String jsonValue = projectionStore.get(key);
+        
+        if (jsonValue == null) {
+            return List.of(); // Return empty list if not found
+        }
+        
+        try {
+            return objectMapper.readValue(jsonValue, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to deserialize legacy projection for: " + id, e);
+        }
+    }
 }
@@ -2,4 +2,8 @@ dependencies {
     implementation("com.fasterxml.jackson.core:jackson-databind:2.15.2")
     implementation("com.fasterxml.jackson.datatype:jackson-datatype-jsr310:2.15.2")
     implementation("jakarta.validation:jakarta.validation-api:3.0.2")
+    // RedisProjectionStore; the services using it bring spring-boot-starter-data-redis
+    compileOnly("org.springframework.data:spring-data-redis:3.2.0")
+    testImplementation("org.springframework.data:spring-data-redis:3.2.0")
+    testImplementation("io.lettuce:lettuce-core:6.2.4.RELEASE")
 }
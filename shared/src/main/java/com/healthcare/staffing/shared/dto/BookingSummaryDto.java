@@ -0,0 +1,63 @@
+package com.healthcare.staffing.shared.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The booking attributes that can change after a shift has been fanned out to carers.
+ * Stored once per booking and joined onto each {@link EligibleShiftDto} at read time,
+ * so a status or rate change is a single write however many carers can see the shift.
+ */
+public class BookingSummaryDto {
+    private UUID bookingId;
+    private String shift;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private BigDecimal hourlyRate;
+    private String specialRequirements;
+    private List<String> requiredQualifications;
+    private String status;
+
+    // Constructors
+    public BookingSummaryDto() {}
+
+    public BookingSummaryDto(UUID bookingId, String shift, LocalDateTime startTime, LocalDateTime endTime,
+                             BigDecimal hourlyRate, String specialRequirements,
+                             List<String> requiredQualifications, String status) {
+        this.bookingId = bookingId;
+        this.shift = shift;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.hourlyRate = hourlyRate;
+        this.specialRequirements = specialRequirements;
+        this.requiredQualifications = requiredQualifications;
+        this.status = status;
+    }
+
+    // Getters and Setters
+    public UUID getBookingId() { return bookingId; }
+    public void setBookingId(UUID bookingId) { this.bookingId = bookingId; }
+
+    public String getShift() { return shift; }
+    public void setShift(String shift) { this.shift = shift; }
+
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+
+    public BigDecimal getHourlyRate() { return hourlyRate; }
+    public void setHourlyRate(BigDecimal hourlyRate) { this.hourlyRate = hourlyRate; }
+
+    public String getSpecialRequirements() { return specialRequirements; }
+    public void setSpecialRequirements(String specialRequirements) { this.specialRequirements = specialRequirements; }
+
+    public List<String> getRequiredQualifications() { return requiredQualifications; }
+    public void setRequiredQualifications(List<String> requiredQualifications) { this.requiredQualifications = requiredQualifications; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
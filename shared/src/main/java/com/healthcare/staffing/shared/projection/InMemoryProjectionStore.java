@@ -0,0 +1,199 @@
+package com.healthcare.staffing.shared.projection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ProjectionStore} held in process, for read-api tests and benchmarks without a
+ * Redis server. It is not wired into any service: view-maintenance still writes the
+ * projections through its RedisTemplate, so a read API served from this store would
+ * never see them. Each key maps to a String, a concurrent map (hash) or a
+ * concurrent key set (set); values stay boxed strings, with no primitive collections. Writes go through {@link ConcurrentHashMap#compute}, so
+ * writes to one key are atomic and serialized while reads never block; reads return
+ * copies, like the replies of a Redis server.
+ */
+public class InMemoryProjectionStore implements ProjectionStore {
+
+    private final ConcurrentHashMap<String, Object> values = new ConcurrentHashMap<>();
+
+    @Override
+    public String get(String key) {
+        Object value = values.get(key);
+        if (value == null || value instanceof String) {
+            return (String) value;
+        }
+        throw new WrongKeyTypeException(key, null);
+    }
+
+    @Override
+    public List<String> multiGet(List<String> keys) {
+        List<String> result = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Object value = values.get(key);
+            result.add(value instanceof String string ? string : null);
+        }
+        return result;
+    }
+
+    @Override
+    public void set(String key, String value) {
+        values.put(key, value);
+    }
+
+    @Override
+    public String hashGet(String key, String field) {
+        Map<String, String> hash = hashOf(key, values.get(key));
+        return hash != null ? hash.get(field) : null;
+    }
+
+    @Override
+    public boolean hashHasKey(String key, String field) {
+        Map<String, String> hash = hashOf(key, values.get(key));
+        return hash != null && hash.containsKey(field);
+    }
+
+    @Override
+    public Set<String> hashKeys(String key) {
+        Map<String, String> hash = hashOf(key, values.get(key));
+        return hash != null ? new HashSet<>(hash.keySet()) : new HashSet<>();
+    }
+
+    @Override
+    public List<String> hashValues(String key) {
+        Map<String, String> hash = hashOf(key, values.get(key));
+        return hash != null ? new ArrayList<>(hash.values()) : new ArrayList<>();
+    }
+
+    @Override
+    public Map<String, String> hashEntries(String key) {
+        Map<String, String> hash = hashOf(key, values.get(key));
+        return hash != null ? new HashMap<>(hash) : new HashMap<>();
+    }
+
+    @Override
+    public long hashSize(String key) {
+        Map<String, String> hash = hashOf(key, values.get(key));
+        return hash != null ? hash.size() : 0;
+    }
+
+    @Override
+    public void hashPut(String key, String field, String value) {
+        hashPutAll(key, Map.of(field, value));
+    }
+
+    @Override
+    public void hashPutAll(String key, Map<String, String> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        values.compute(key, (k, value) -> {
+            Map<String, String> hash = hashOf(k, value);
+            if (hash == null) {
+                hash = new ConcurrentHashMap<>();
+            }
+            hash.putAll(entries);
+            return hash;
+        });
+    }
+
+    @Override
+    public long hashDelete(String key, Collection<String> fields) {
+        long[] removed = new long[1];
+        values.computeIfPresent(key, (k, value) -> {
+            Map<String, String> hash = hashOf(k, value);
+            for (String field : fields) {
+                if (hash.remove(field) != null) {
+                    removed[0]++;
+                }
+            }
+            return hash.isEmpty() ? null : hash;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public Set<String> members(String key) {
+        Set<String> set = setOf(key, values.get(key));
+        return set != null ? new HashSet<>(set) : new HashSet<>();
+    }
+
+    @Override
+    public boolean isMember(String key, String member) {
+        Set<String> set = setOf(key, values.get(key));
+        return set != null && set.contains(member);
+    }
+
+    @Override
+    public long addMembers(String key, Collection<String> members) {
+        if (members.isEmpty()) {
+            return 0;
+        }
+        long[] added = new long[1];
+        values.compute(key, (k, value) -> {
+            Set<String> set = setOf(k, value);
+            if (set == null) {
+                set = ConcurrentHashMap.newKeySet();
+            }
+            for (String member : members) {
+                if (set.add(member)) {
+                    added[0]++;
+                }
+            }
+            return set;
+        });
+        return added[0];
+    }
+
+    @Override
+    public long removeMembers(String key, Collection<String> members) {
+        long[] removed = new long[1];
+        values.computeIfPresent(key, (k, value) -> {
+            Set<String> set = setOf(k, value);
+            for (String member : members) {
+                if (set.remove(member)) {
+                    removed[0]++;
+                }
+            }
+            return set.isEmpty() ? null : set;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return values.containsKey(key);
+    }
+
+    @Override
+    public long delete(Collection<String> keys) {
+        long deleted = 0;
+        for (String key : keys) {
+            if (values.remove(key) != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, String> hashOf(String key, Object value) {
+        if (value == null || value instanceof Map) {
+            return (Map<String, String>) value;
+        }
+        throw new WrongKeyTypeException(key, null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Set<String> setOf(String key, Object value) {
+        if (value == null || value instanceof Set) {
+            return (Set<String>) value;
+        }
+        throw new WrongKeyTypeException(key, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.healthcare.staffing.shared.projection;
+
+/**
+ * Keys of the read model shared by view-maintenance-service, which writes it, and
+ * read-api-service, which serves it. Projections are hashes keyed by the referenced
+ * entity's ID (bookingId for AvailableShiftsPerCarer, carerId for EligibleCarersPerShift)
+ * with one JSON DTO per field; keys written before that layout hold a JSON array.
+ * Every key but the namespace pointer is prefixed with the active namespace.
+ */
+public final class ProjectionKeys {
+
+    public static final String AVAILABLE_SHIFTS_PREFIX = "AvailableShiftsPerCarer:";
+    public static final String ELIGIBLE_CARERS_PREFIX = "EligibleCarersPerShift:";
+
+    // One summary per booking with the attributes that change after fan-out (status, rate,
+    // shift name, ...), joined onto the shift entries at query time
+    public static final String BOOKING_SUMMARY_PREFIX = "BookingSummary:";
+
+    // Un-namespaced pointer to the key namespace the projections are currently read from,
+    // switched by a rebuild; "" (or absent) means un-prefixed keys
+    public static final String ACTIVE_NAMESPACE_KEY = "ProjectionNamespace";
+
+    private ProjectionKeys() {
+    }
+}
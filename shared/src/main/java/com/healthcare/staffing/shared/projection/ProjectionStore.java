@@ -0,0 +1,118 @@
+package com.healthcare.staffing.shared.projection;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Storage of the projections: string values, hashes and sets addressed by key, with the
+ * semantics of the Redis commands named on each method. As in Redis, a hash or set is
+ * removed with its last field or member, reading a missing key yields an empty result,
+ * and an operation on a key of another type raises {@link WrongKeyTypeException}.
+ * Implementations are thread-safe.
+ * <p>
+ * Only the read API goes through this interface. View-maintenance writes the projections
+ * with its own RedisTemplate, because it relies on TTLs, pipelines, WATCH/MULTI and Lua
+ * scripts that the interface does not model.
+ */
+public interface ProjectionStore {
+
+    // Strings
+
+    /**
+     * GET; null when the key is absent
+     */
+    String get(String key);
+
+    /**
+     * MGET; one value per key in order, null where absent or not a string
+     */
+    List<String> multiGet(List<String> keys);
+
+    /**
+     * SET, replacing whatever the key held
+     */
+    void set(String key, String value);
+
+    // Hashes
+
+    /**
+     * HGET; null when the key or field is absent
+     */
+    String hashGet(String key, String field);
+
+    /**
+     * HEXISTS
+     */
+    boolean hashHasKey(String key, String field);
+
+    /**
+     * HKEYS
+     */
+    Set<String> hashKeys(String key);
+
+    /**
+     * HVALS
+     */
+    List<String> hashValues(String key);
+
+    /**
+     * HGETALL
+     */
+    Map<String, String> hashEntries(String key);
+
+    /**
+     * HLEN
+     */
+    long hashSize(String key);
+
+    /**
+     * HSET of one field
+     */
+    void hashPut(String key, String field, String value);
+
+    /**
+     * HSET of many fields
+     */
+    void hashPutAll(String key, Map<String, String> entries);
+
+    /**
+     * HDEL; returns the number of fields removed
+     */
+    long hashDelete(String key, Collection<String> fields);
+
+    // Sets
+
+    /**
+     * SMEMBERS
+     */
+    Set<String> members(String key);
+
+    /**
+     * SISMEMBER
+     */
+    boolean isMember(String key, String member);
+
+    /**
+     * SADD; returns the number of members added
+     */
+    long addMembers(String key, Collection<String> members);
+
+    /**
+     * SREM; returns the number of members removed
+     */
+    long removeMembers(String key, Collection<String> members);
+
+    // Keys
+
+    /**
+     * EXISTS
+     */
+    boolean exists(String key);
+
+    /**
+     * DEL; returns the number of keys removed
+     */
+    long delete(Collection<String> keys);
+}
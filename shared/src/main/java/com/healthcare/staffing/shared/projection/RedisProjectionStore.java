@@ -0,0 +1,158 @@
+package com.healthcare.staffing.shared.projection;
+
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * {@link ProjectionStore} on Redis, one command per call. Keys are passed through the
+ * template's key serializer, so a namespaced template yields a namespaced store.
+ */
+public class RedisProjectionStore implements ProjectionStore {
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    public RedisProjectionStore(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public String get(String key) {
+        return execute(key, () -> redisTemplate.opsForValue().get(key));
+    }
+
+    @Override
+    public List<String> multiGet(List<String> keys) {
+        if (keys.isEmpty()) {
+            return List.of();
+        }
+        return redisTemplate.opsForValue().multiGet(keys);
+    }
+
+    @Override
+    public void set(String key, String value) {
+        redisTemplate.opsForValue().set(key, value);
+    }
+
+    @Override
+    public String hashGet(String key, String field) {
+        return execute(key, () -> hashOps().get(key, field));
+    }
+
+    @Override
+    public boolean hashHasKey(String key, String field) {
+        return execute(key, () -> hashOps().hasKey(key, field));
+    }
+
+    @Override
+    public Set<String> hashKeys(String key) {
+        return execute(key, () -> hashOps().keys(key));
+    }
+
+    @Override
+    public List<String> hashValues(String key) {
+        return execute(key, () -> hashOps().values(key));
+    }
+
+    @Override
+    public Map<String, String> hashEntries(String key) {
+        return execute(key, () -> hashOps().entries(key));
+    }
+
+    @Override
+    public long hashSize(String key) {
+        return execute(key, () -> hashOps().size(key));
+    }
+
+    @Override
+    public void hashPut(String key, String field, String value) {
+        execute(key, () -> {
+            hashOps().put(key, field, value);
+            return null;
+        });
+    }
+
+    @Override
+    public void hashPutAll(String key, Map<String, String> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        execute(key, () -> {
+            hashOps().putAll(key, entries);
+            return null;
+        });
+    }
+
+    @Override
+    public long hashDelete(String key, Collection<String> fields) {
+        if (fields.isEmpty()) {
+            return 0;
+        }
+        return execute(key, () -> hashOps().delete(key, fields.toArray()));
+    }
+
+    @Override
+    public Set<String> members(String key) {
+        return execute(key, () -> redisTemplate.opsForSet().members(key));
+    }
+
+    @Override
+    public boolean isMember(String key, String member) {
+        return execute(key, () -> redisTemplate.opsForSet().isMember(key, member));
+    }
+
+    @Override
+    public long addMembers(String key, Collection<String> members) {
+        if (members.isEmpty()) {
+            return 0;
+        }
+        return execute(key, () -> redisTemplate.opsForSet().add(key, members.toArray(new String[0])));
+    }
+
+    @Override
+    public long removeMembers(String key, Collection<String> members) {
+        if (members.isEmpty()) {
+            return 0;
+        }
+        return execute(key, () -> redisTemplate.opsForSet().remove(key, members.toArray()));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+    }
+
+    @Override
+    public long delete(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return 0;
+        }
+        Long deleted = redisTemplate.delete(keys);
+        return deleted != null ? deleted : 0;
+    }
+
+    private HashOperations<String, String, String> hashOps() {
+        return redisTemplate.opsForHash();
+    }
+
+    /**
+     * Runs a command against one key, translating WRONGTYPE replies
+     */
+    private <T> T execute(String key, Supplier<T> command) {
+        try {
+            return command.get();
+        } catch (RedisSystemException e) {
+            Throwable cause = e.getMostSpecificCause();
+            if (cause.getMessage() != null && cause.getMessage().startsWith("WRONGTYPE")) {
+                throw new WrongKeyTypeException(key, e);
+            }
+            throw e;
+        }
+    }
+}
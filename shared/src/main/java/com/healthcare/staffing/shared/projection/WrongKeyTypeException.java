@@ -0,0 +1,14 @@
+package com.healthcare.staffing.shared.projection;
+
+/**
+ * Raised when an operation targets a key holding another kind of value, like Redis'
+ * WRONGTYPE error; e.g. reading a projection as a hash while it still holds a JSON array
+ */
+public class WrongKeyTypeException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public WrongKeyTypeException(String key, Throwable cause) {
+        super("Operation against a key holding the wrong kind of value: " + key, cause);
+    }
+}
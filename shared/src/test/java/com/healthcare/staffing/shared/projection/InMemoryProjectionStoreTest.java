@@ -0,0 +1,9 @@
+package com.healthcare.staffing.shared.projection;
+
+class InMemoryProjectionStoreTest extends ProjectionStoreContractTest {
+
+    @Override
+    protected ProjectionStore createStore() {
+        return new InMemoryProjectionStore();
+    }
+}
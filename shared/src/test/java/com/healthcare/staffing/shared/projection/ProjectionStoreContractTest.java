@@ -0,0 +1,155 @@
+package com.healthcare.staffing.shared.projection;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Behaviour every {@link ProjectionStore} must share; each backend's test extends it.
+ * Keys carry a random prefix, so backends with shared state are not cleared between tests.
+ */
+abstract class ProjectionStoreContractTest {
+
+    protected ProjectionStore store;
+    protected String prefix;
+
+    protected abstract ProjectionStore createStore();
+
+    @BeforeEach
+    void setUpStore() {
+        store = createStore();
+        prefix = "test:" + UUID.randomUUID() + ":";
+    }
+
+    @Test
+    void strings_ShouldBeReadBackAndMissingKeysYieldNull() {
+        // Arrange
+        store.set(key("a"), "1");
+        store.set(key("a"), "2");
+        store.hashPut(key("hash"), "field", "value");
+
+        // Act & Assert
+        assertEquals("2", store.get(key("a")));
+        assertNull(store.get(key("missing")));
+        assertEquals(Arrays.asList("2", null, null), store.multiGet(List.of(key("a"), key("missing"), key("hash"))));
+        assertEquals(List.of(), store.multiGet(List.of()));
+    }
+
+    @Test
+    void hashes_ShouldSupportFieldLevelReadsAndWrites() {
+        // Arrange
+        String key = key("hash");
+        store.hashPutAll(key, Map.of("a", "1", "b", "2"));
+        store.hashPut(key, "c", "3");
+        store.hashPut(key, "a", "10");
+
+        // Act & Assert
+        assertEquals("10", store.hashGet(key, "a"));
+        assertNull(store.hashGet(key, "missing"));
+        assertTrue(store.hashHasKey(key, "b"));
+        assertFalse(store.hashHasKey(key, "missing"));
+        assertEquals(Set.of("a", "b", "c"), store.hashKeys(key));
+        assertEquals(Set.of("10", "2", "3"), Set.copyOf(store.hashValues(key)));
+        assertEquals(Map.of("a", "10", "b", "2", "c", "3"), store.hashEntries(key));
+        assertEquals(3, store.hashSize(key));
+    }
+
+    @Test
+    void hashDelete_ShouldCountRemovedFieldsAndDropEmptyHash() {
+        // Arrange
+        String key = key("hash");
+        store.hashPutAll(key, Map.of("a", "1", "b", "2"));
+
+        // Act
+        long removed = store.hashDelete(key, List.of("a", "missing"));
+        long removedLast = store.hashDelete(key, List.of("b"));
+
+        // Assert
+        assertEquals(1, removed);
+        assertEquals(1, removedLast);
+        assertFalse(store.exists(key));
+        assertEquals(0, store.hashDelete(key, List.of("b")));
+    }
+
+    @Test
+    void missingHash_ShouldReadAsEmpty() {
+        // Act & Assert
+        String key = key("missing");
+        assertTrue(store.hashKeys(key).isEmpty());
+        assertTrue(store.hashValues(key).isEmpty());
+        assertTrue(store.hashEntries(key).isEmpty());
+        assertEquals(0, store.hashSize(key));
+        assertFalse(store.hashHasKey(key, "field"));
+    }
+
+    @Test
+    void sets_ShouldCountChangesAndDropEmptySet() {
+        // Arrange
+        String key = key("set");
+
+        // Act & Assert
+        assertEquals(2, store.addMembers(key, List.of("a", "b")));
+        assertEquals(1, store.addMembers(key, List.of("b", "c")));
+        assertEquals(Set.of("a", "b", "c"), store.members(key));
+        assertTrue(store.isMember(key, "a"));
+        assertFalse(store.isMember(key, "missing"));
+        assertEquals(1, store.removeMembers(key, List.of("a", "missing")));
+        assertEquals(2, store.removeMembers(key, List.of("b", "c")));
+        assertFalse(store.exists(key));
+        assertTrue(store.members(key).isEmpty());
+    }
+
+    @Test
+    void delete_ShouldRemoveKeysOfAnyType() {
+        // Arrange
+        store.set(key("string"), "value");
+        store.hashPut(key("hash"), "field", "value");
+        store.addMembers(key("set"), List.of("member"));
+
+        // Act
+        long deleted = store.delete(List.of(key("string"), key("hash"), key("set"), key("missing")));
+
+        // Assert
+        assertEquals(3, deleted);
+        assertFalse(store.exists(key("string")));
+        assertFalse(store.exists(key("hash")));
+        assertFalse(store.exists(key("set")));
+    }
+
+    @Test
+    void operationsOnKeyOfAnotherType_ShouldThrowWrongKeyType() {
+        // Arrange
+        store.set(key("string"), "[]");
+        store.addMembers(key("set"), List.of("member"));
+
+        // Act & Assert
+        assertThrows(WrongKeyTypeException.class, () -> store.hashValues(key("string")));
+        assertThrows(WrongKeyTypeException.class, () -> store.hashSize(key("string")));
+        assertThrows(WrongKeyTypeException.class, () -> store.hashPut(key("set"), "field", "value"));
+        assertThrows(WrongKeyTypeException.class, () -> store.members(key("string")));
+        assertThrows(WrongKeyTypeException.class, () -> store.get(key("set")));
+    }
+
+    @Test
+    void set_ShouldReplaceKeyOfAnotherType() {
+        // Arrange
+        store.hashPut(key("key"), "field", "value");
+
+        // Act
+        store.set(key("key"), "value");
+
+        // Assert
+        assertEquals("value", store.get(key("key")));
+    }
+
+    protected String key(String name) {
+        return prefix + name;
+    }
+}
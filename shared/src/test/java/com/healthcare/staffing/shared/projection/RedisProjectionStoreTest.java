@@ -0,0 +1,38 @@
+package com.healthcare.staffing.shared.projection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Set;
+
+/**
+ * Runs the contract against a live Redis server, given by REDIS_HOST (and REDIS_PORT)
+ */
+@EnabledIfEnvironmentVariable(named = "REDIS_HOST", matches = ".+")
+class RedisProjectionStoreTest extends ProjectionStoreContractTest {
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+
+    @Override
+    protected ProjectionStore createStore() {
+        String port = System.getenv("REDIS_PORT");
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+            System.getenv("REDIS_HOST"), port != null ? Integer.parseInt(port) : 6379));
+        connectionFactory.afterPropertiesSet();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        return new RedisProjectionStore(redisTemplate);
+    }
+
+    @AfterEach
+    void tearDown() {
+        Set<String> keys = redisTemplate.keys(prefix + "*");
+        if (keys != null && !keys.isEmpty()) {
+            redisTemplate.delete(keys);
+        }
+        connectionFactory.destroy();
+    }
+}
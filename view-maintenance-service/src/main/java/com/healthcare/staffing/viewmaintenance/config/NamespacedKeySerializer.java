@@ -0,0 +1,46 @@
+package com.healthcare.staffing.viewmaintenance.config;
+
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.Supplier;
+
+/**
+ * String key serializer that places every key in a projection namespace by prefixing it,
+ * and strips the prefix from keys read back (SCAN). Applies to every key a template
+ * sends, script KEYS included, so the projection code never deals with namespaces.
+ * SCAN match patterns bypass the serializer and need {@link #namespaceOf} applied.
+ */
+public class NamespacedKeySerializer implements RedisSerializer<String> {
+
+    private final Supplier<String> namespace;
+
+    public NamespacedKeySerializer(Supplier<String> namespace) {
+        this.namespace = namespace;
+    }
+
+    /**
+     * The namespace keys of the template are currently written to, empty if not namespaced
+     */
+    public static String namespaceOf(RedisOperations<String, ?> operations) {
+        return operations.getKeySerializer() instanceof NamespacedKeySerializer serializer
+            ? serializer.namespace.get()
+            : "";
+    }
+
+    @Override
+    public byte[] serialize(String key) {
+        return key == null ? null : (namespace.get() + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String deserialize(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        String key = new String(bytes, StandardCharsets.UTF_8);
+        String prefix = namespace.get();
+        return key.startsWith(prefix) ? key.substring(prefix.length()) : key;
+    }
+}
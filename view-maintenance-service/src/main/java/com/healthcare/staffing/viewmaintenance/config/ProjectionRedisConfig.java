@@ -0,0 +1,33 @@
+package com.healthcare.staffing.viewmaintenance.config;
+
+import com.healthcare.staffing.viewmaintenance.service.ProjectionNamespace;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+@Configuration
+public class ProjectionRedisConfig {
+
+    /**
+     * The template the projections are maintained with; its keys follow the active
+     * projection namespace. Replaces the auto-configured StringRedisTemplate.
+     */
+    @Bean
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory connectionFactory,
+                                                   ProjectionNamespace projectionNamespace) {
+        return namespacedTemplate(connectionFactory, new NamespacedKeySerializer(projectionNamespace::getActive));
+    }
+
+    /**
+     * A template whose keys live in the given serializer's namespace
+     */
+    public static StringRedisTemplate namespacedTemplate(RedisConnectionFactory connectionFactory,
+                                                         NamespacedKeySerializer keySerializer) {
+        StringRedisTemplate template = new StringRedisTemplate();
+        template.setConnectionFactory(connectionFactory);
+        template.setKeySerializer(keySerializer);
+        template.afterPropertiesSet();
+        return template;
+    }
+}
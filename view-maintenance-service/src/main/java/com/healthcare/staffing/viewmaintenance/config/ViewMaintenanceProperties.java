@@ -0,0 +1,270 @@
+package com.healthcare.staffing.viewmaintenance.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "view-maintenance")
+public class ViewMaintenanceProperties {
+
+    private Eligibility eligibility = new Eligibility();
+    private FanOut fanOut = new FanOut();
+    private Consumer consumer = new Consumer();
+    private ProjectionWrites projectionWrites = new ProjectionWrites();
+    private LocalState localState = new LocalState();
+    private DataCache dataCache = new DataCache();
+    private Rebuild rebuild = new Rebuild();
+
+    public Eligibility getEligibility() {
+        return eligibility;
+    }
+
+    public void setEligibility(Eligibility eligibility) {
+        this.eligibility = eligibility;
+    }
+
+    public FanOut getFanOut() {
+        return fanOut;
+    }
+
+    public void setFanOut(FanOut fanOut) {
+        this.fanOut = fanOut;
+    }
+
+    public Consumer getConsumer() {
+        return consumer;
+    }
+
+    public void setConsumer(Consumer consumer) {
+        this.consumer = consumer;
+    }
+
+    public ProjectionWrites getProjectionWrites() {
+        return projectionWrites;
+    }
+
+    public void setProjectionWrites(ProjectionWrites projectionWrites) {
+        this.projectionWrites = projectionWrites;
+    }
+
+    public LocalState getLocalState() {
+        return localState;
+    }
+
+    public void setLocalState(LocalState localState) {
+        this.localState = localState;
+    }
+
+    public DataCache getDataCache() {
+        return dataCache;
+    }
+
+    public void setDataCache(DataCache dataCache) {
+        this.dataCache = dataCache;
+    }
+
+    public Rebuild getRebuild() {
+        return rebuild;
+    }
+
+    public void setRebuild(Rebuild rebuild) {
+        this.rebuild = rebuild;
+    }
+
+    public static class Eligibility {
+        private int verdictCacheMaxEntries = 100_000;
+        private int parallelism = 0;
+        private int parallelThreshold = 2_000;
+
+        public int getVerdictCacheMaxEntries() {
+            return verdictCacheMaxEntries;
+        }
+
+        public void setVerdictCacheMaxEntries(int verdictCacheMaxEntries) {
+            this.verdictCacheMaxEntries = verdictCacheMaxEntries;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getParallelThreshold() {
+            return parallelThreshold;
+        }
+
+        public void setParallelThreshold(int parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+        }
+    }
+
+    public static class FanOut {
+        private int loadChunkSize = 200;
+        private int writeChunkSize = 500;
+
+        public int getLoadChunkSize() {
+            return loadChunkSize;
+        }
+
+        public void setLoadChunkSize(int loadChunkSize) {
+            this.loadChunkSize = loadChunkSize;
+        }
+
+        public int getWriteChunkSize() {
+            return writeChunkSize;
+        }
+
+        public void setWriteChunkSize(int writeChunkSize) {
+            this.writeChunkSize = writeChunkSize;
+        }
+    }
+
+    public static class Consumer {
+        private boolean batchEnabled = false;
+        private int lanes = 4;
+        private long commitIntervalMs = 1000;
+
+        public boolean isBatchEnabled() {
+            return batchEnabled;
+        }
+
+        public void setBatchEnabled(boolean batchEnabled) {
+            this.batchEnabled = batchEnabled;
+        }
+
+        public int getLanes() {
+            return lanes;
+        }
+
+        public void setLanes(int lanes) {
+            this.lanes = lanes;
+        }
+
+        public long getCommitIntervalMs() {
+            return commitIntervalMs;
+        }
+
+        public void setCommitIntervalMs(long commitIntervalMs) {
+            this.commitIntervalMs = commitIntervalMs;
+        }
+    }
+
+    public static class ProjectionWrites {
+        private int maxAttempts = 5;
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+    }
+
+    public static class LocalState {
+        private boolean enabled = false;
+        private Snapshot snapshot = new Snapshot();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Snapshot getSnapshot() {
+            return snapshot;
+        }
+
+        public void setSnapshot(Snapshot snapshot) {
+            this.snapshot = snapshot;
+        }
+
+        public static class Snapshot {
+            private boolean enabled = false;
+            private String path = "data/view-maintenance-state.snapshot";
+            private Duration interval = Duration.ofMinutes(5);
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getPath() {
+                return path;
+            }
+
+            public void setPath(String path) {
+                this.path = path;
+            }
+
+            public Duration getInterval() {
+                return interval;
+            }
+
+            public void setInterval(Duration interval) {
+                this.interval = interval;
+            }
+        }
+    }
+
+    public static class DataCache {
+        private long maxEntries = 50_000;
+        private Duration ttl = Duration.ofSeconds(60);
+
+        public long getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(long maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    public static class Rebuild {
+        private int parallelism = 0;
+        private int maxEventsPerSecond = 0;
+        private boolean deleteOldNamespace = true;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxEventsPerSecond() {
+            return maxEventsPerSecond;
+        }
+
+        public void setMaxEventsPerSecond(int maxEventsPerSecond) {
+            this.maxEventsPerSecond = maxEventsPerSecond;
+        }
+
+        public boolean isDeleteOldNamespace() {
+            return deleteOldNamespace;
+        }
+
+        public void setDeleteOldNamespace(boolean deleteOldNamespace) {
+            this.deleteOldNamespace = deleteOldNamespace;
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.healthcare.staffing.viewmaintenance.controller;
+
+import com.healthcare.staffing.viewmaintenance.eventhandler.ProjectionRebuildService;
+import com.healthcare.staffing.viewmaintenance.eventhandler.RebuildStatus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/admin/projections/rebuild")
+public class ProjectionRebuildController {
+
+    private final ProjectionRebuildService projectionRebuildService;
+
+    @Autowired
+    public ProjectionRebuildController(ProjectionRebuildService projectionRebuildService) {
+        this.projectionRebuildService = projectionRebuildService;
+    }
+
+    /**
+     * Start rebuilding all projections into a new namespace, optionally throttled
+     */
+    @PostMapping
+    public ResponseEntity<RebuildStatus> startRebuild(
+            @RequestParam(value = "maxEventsPerSecond", required = false) Integer maxEventsPerSecond) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(projectionRebuildService.start(maxEventsPerSecond));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(projectionRebuildService.getStatus());
+        }
+    }
+
+    /**
+     * Get the progress of the current or last rebuild
+     */
+    @GetMapping
+    public ResponseEntity<RebuildStatus> getRebuildStatus() {
+        return ResponseEntity.ok(projectionRebuildService.getStatus());
+    }
+
+    /**
+     * Change the replay rate of the running rebuild; 0 removes the limit
+     */
+    @PutMapping("/throttle")
+    public ResponseEntity<RebuildStatus> throttleRebuild(@RequestParam("maxEventsPerSecond") int maxEventsPerSecond) {
+        return ResponseEntity.ok(projectionRebuildService.setMaxEventsPerSecond(maxEventsPerSecond));
+    }
+}
@@ -0,0 +1,200 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.healthcare.staffing.shared.events.booking.BookingCreated;
+import com.healthcare.staffing.shared.events.booking.BookingEvent;
+import com.healthcare.staffing.shared.events.carer.CarerEvent;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionFanOutWriter;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Consumes booking and carer events a poll at a time, drops the ones superseded within
+ * the poll and applies the rest. Events are grouped per booking/carer and each group runs
+ * on its {@link KeyedEventExecutor} lane, so one aggregate's events keep their Kafka order
+ * while a large fan-out no longer holds up unrelated aggregates. Enabled with
+ * view-maintenance.consumer.batch-enabled, in which case the single-record listeners stay stopped.
+ * <p>
+ * Bookings whose only event in the poll is their creation, typically a facility's rota
+ * published at once, are applied together on one lane as a single join with the carer roster.
+ * <p>
+ * Lanes share projection hashes: a booking's events write entries into carers' available
+ * shifts and a carer's into bookings' eligible carers. Every such write changes a single
+ * entry together with its reverse index member in one script, and the handlers never
+ * replace a whole hash, so concurrent lanes cannot lose each other's entries. What a lane
+ * cannot see is a change to the other side of an entry that another lane is applying at
+ * the same time, so the booking lanes of a poll run first and its carer lanes only once
+ * they have all completed: a booking's eligibility is then evaluated against carer data
+ * that does not change under it, and the other way round. Booking lanes that act on other
+ * bookings through a shared carer (booked, pullout) may still interleave with those
+ * bookings' own lanes; a single lane (lanes: 1) orders everything as the single-record
+ * listeners do.
+ */
+@Component
+@ConditionalOnProperty(prefix = "view-maintenance.consumer", name = "batch-enabled", havingValue = "true")
+public class BatchEventListener {
+    
+    private static final Logger log = LoggerFactory.getLogger(BatchEventListener.class);
+    
+    private static final String ROTA_LANE_KEY = "booking-rota";
+    
+    private final BookingEventHandler bookingEventHandler;
+    private final CarerEventHandler carerEventHandler;
+    private final KeyedEventExecutor keyedEventExecutor;
+    private final ProjectionFanOutWriter projectionFanOutWriter;
+    private final EventCoalescer eventCoalescer = new EventCoalescer();
+    private final long commitIntervalMs;
+
+    @Autowired
+    public BatchEventListener(BookingEventHandler bookingEventHandler, CarerEventHandler carerEventHandler,
+                              KeyedEventExecutor keyedEventExecutor, ProjectionFanOutWriter projectionFanOutWriter,
+                              ViewMaintenanceProperties properties) {
+        this.bookingEventHandler = bookingEventHandler;
+        this.carerEventHandler = carerEventHandler;
+        this.keyedEventExecutor = keyedEventExecutor;
+        this.projectionFanOutWriter = projectionFanOutWriter;
+        this.commitIntervalMs = properties.getConsumer().getCommitIntervalMs();
+    }
+
+    @KafkaListener(topics = {"booking-events", "carer-events"}, groupId = "view-maintenance-service",
+                   containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleEvents(List<ConsumerRecord<String, Object>> records, Consumer<?, ?> consumer) {
+        PartitionOffsetTracker offsetTracker = new PartitionOffsetTracker();
+        Map<String, List<ConsumerRecord<String, Object>>> recordsByKey = new LinkedHashMap<>();
+        for (ConsumerRecord<String, Object> record : records) {
+            TopicPartition partition = new TopicPartition(record.topic(), record.partition());
+            offsetTracker.register(partition, record.offset());
+            
+            String key = EventCoalescer.aggregateKey(record.value());
+            if (key == null) {
+                log.warn("Unhandled event type in batch: {}", record.value().getClass().getSimpleName());
+                offsetTracker.complete(partition, record.offset());
+            } else {
+                recordsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(record);
+            }
+        }
+        
+        List<CompletableFuture<Void>> bookingLanes = new ArrayList<>();
+        Map<String, Runnable> carerLanes = new LinkedHashMap<>();
+        List<BookingCreated> rota = new ArrayList<>();
+        List<ConsumerRecord<String, Object>> rotaRecords = new ArrayList<>();
+        int applied = 0;
+        for (Map.Entry<String, List<ConsumerRecord<String, Object>>> entry : recordsByKey.entrySet()) {
+            List<ConsumerRecord<String, Object>> keyRecords = entry.getValue();
+            List<Object> events = new ArrayList<>(keyRecords.size());
+            for (ConsumerRecord<String, Object> record : keyRecords) {
+                events.add(record.value());
+            }
+            List<Object> coalesced = eventCoalescer.coalesce(events);
+            applied += coalesced.size();
+            
+            if (coalesced.isEmpty()) {
+                // Created and cancelled within the poll: nothing to apply
+                completeAll(keyRecords, offsetTracker);
+                continue;
+            }
+            if (coalesced.size() == 1 && coalesced.get(0) instanceof BookingCreated created) {
+                // A booking with nothing after its creation in this poll joins the rota
+                rota.add(created);
+                rotaRecords.addAll(keyRecords);
+                continue;
+            }
+            // One unit of work per aggregate, so keys its events touch repeatedly are written once
+            Runnable task = () -> projectionFanOutWriter.runInUnitOfWork(
+                "EventBatch", () -> coalesced.forEach(this::applyEvent));
+            if (keyRecords.get(0).value() instanceof CarerEvent) {
+                carerLanes.put(entry.getKey(), task);
+            } else {
+                bookingLanes.add(submit(entry.getKey(), task, keyRecords, offsetTracker));
+            }
+        }
+        if (!rota.isEmpty()) {
+            // Bookings created together are joined with the carer roster in one pass
+            bookingLanes.add(submit(ROTA_LANE_KEY, () -> bookingEventHandler.applyBookingsCreated(rota),
+                rotaRecords, offsetTracker));
+        }
+        log.info("Received batch of {} events, applying {} after coalescing across {} aggregates ({} new bookings as a rota)",
+                records.size(), applied, recordsByKey.size(), rota.size());
+        
+        // Carer lanes start once every booking lane has completed; if one failed they are
+        // not run and their events are redelivered
+        CompletableFuture<Void> bookingPhase = allOf(bookingLanes);
+        List<CompletableFuture<Void>> lanes = new ArrayList<>(bookingLanes);
+        carerLanes.forEach((key, task) -> lanes.add(bookingPhase.thenCompose(
+            done -> submit(key, task, recordsByKey.get(key), offsetTracker))));
+        
+        awaitLanes(allOf(lanes), offsetTracker, consumer);
+    }
+
+    /**
+     * Runs the task on the key's lane; the offsets of its records only complete once it
+     * has been applied
+     */
+    private CompletableFuture<Void> submit(String key, Runnable task, List<ConsumerRecord<String, Object>> taskRecords,
+                                           PartitionOffsetTracker offsetTracker) {
+        return keyedEventExecutor.submit(key, task).thenRun(() -> completeAll(taskRecords, offsetTracker));
+    }
+
+    private static void completeAll(List<ConsumerRecord<String, Object>> taskRecords, PartitionOffsetTracker offsetTracker) {
+        taskRecords.forEach(record -> offsetTracker.complete(
+            new TopicPartition(record.topic(), record.partition()), record.offset()));
+    }
+
+    private static CompletableFuture<Void> allOf(List<CompletableFuture<Void>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+
+    private void awaitLanes(CompletableFuture<Void> allLanes, PartitionOffsetTracker offsetTracker,
+                            Consumer<?, ?> consumer) {
+        while (true) {
+            try {
+                allLanes.get(commitIntervalMs, TimeUnit.MILLISECONDS);
+                commit(offsetTracker, consumer);
+                return;
+            } catch (TimeoutException e) {
+                commit(offsetTracker, consumer);
+            } catch (ExecutionException e) {
+                // Keep the progress of the lanes that succeeded; the batch is redelivered from there
+                commit(offsetTracker, consumer);
+                throw new RuntimeException("Failed to apply event batch", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while applying event batch", e);
+            }
+        }
+    }
+
+    private void commit(PartitionOffsetTracker offsetTracker, Consumer<?, ?> consumer) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = offsetTracker.takeCommittableOffsets();
+        if (!offsets.isEmpty()) {
+            // Runs on the listener thread, which owns the consumer
+            consumer.commitSync(offsets);
+            log.debug("Committed offsets {}", offsets);
+        }
+    }
+
+    private void applyEvent(Object event) {
+        if (event instanceof BookingEvent) {
+            bookingEventHandler.applyEvent(event);
+        } else if (event instanceof CarerEvent) {
+            carerEventHandler.applyEvent(event);
+        }
+    }
+}
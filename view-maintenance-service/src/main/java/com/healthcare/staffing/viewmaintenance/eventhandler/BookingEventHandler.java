@@ -1,9 +1,14 @@
 package com.healthcare.staffing.viewmaintenance.eventhandler;
 
+import com.healthcare.staffing.shared.dto.BookingSummaryDto;
 import com.healthcare.staffing.shared.dto.EligibleCarerDto;
 import com.healthcare.staffing.shared.dto.EligibleShiftDto;
 import com.healthcare.staffing.shared.events.booking.*;
 import com.healthcare.staffing.viewmaintenance.service.EligibilityRulesEngine;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityVerdictCache;
+import com.healthcare.staffing.viewmaintenance.service.ParallelEligibilityEvaluator;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionFanOutWriter;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionUpdate;
 import com.healthcare.staffing.viewmaintenance.service.ViewProjectionService;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -13,9 +18,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 
 @Component
 public class BookingEventHandler {
@@ -23,20 +34,39 @@ public class BookingEventHandler {
     private static final Logger log = LoggerFactory.getLogger(BookingEventHandler.class);
     
     private final ViewProjectionService viewProjectionService;
-    private final EligibilityRulesEngine eligibilityRulesEngine;
+    private final EligibilityVerdictCache eligibilityVerdictCache;
+    private final ProjectionFanOutWriter projectionFanOutWriter;
+    private final ParallelEligibilityEvaluator parallelEligibilityEvaluator;
 
     @Autowired
     public BookingEventHandler(ViewProjectionService viewProjectionService,
-                              EligibilityRulesEngine eligibilityRulesEngine) {
+                              EligibilityVerdictCache eligibilityVerdictCache,
+                              ProjectionFanOutWriter projectionFanOutWriter,
+                              ParallelEligibilityEvaluator parallelEligibilityEvaluator) {
         this.viewProjectionService = viewProjectionService;
-        this.eligibilityRulesEngine = eligibilityRulesEngine;
+        this.eligibilityVerdictCache = eligibilityVerdictCache;
+        this.projectionFanOutWriter = projectionFanOutWriter;
+        this.parallelEligibilityEvaluator = parallelEligibilityEvaluator;
     }
-
-    @KafkaListener(topics = "booking-events", groupId = "view-maintenance-service")
+    
+    // Stays stopped when the batch listener consumes this topic instead
+    @KafkaListener(topics = "booking-events", groupId = "view-maintenance-service",
+                   autoStartup = "#{!${view-maintenance.consumer.batch-enabled:false}}")
     public void handleBookingEvent(ConsumerRecord<String, Object> record) {
         Object event = record.value();
         log.info("Received booking event: {} of type: {}", event, event.getClass().getSimpleName());
-        
+        applyEvent(event);
+    }
+
+    /**
+     * Applies one booking event to the projections; also used by the batch listener. The
+     * projection writes of all steps are buffered and flushed once per dirty key.
+     */
+    public void applyEvent(Object event) {
+        projectionFanOutWriter.runInUnitOfWork(event.getClass().getSimpleName(), () -> dispatch(event));
+    }
+
+    private void dispatch(Object event) {
         if (event instanceof BookingCreated) {
             handleBookingCreated((BookingCreated) event);
         } else if (event instanceof BookingModified) {
@@ -52,26 +82,49 @@ public class BookingEventHandler {
         }
     }
 
+    /**
+     * Applies bookings created together, such as a facility's weekly rota, as one join
+     * against the carer roster instead of one roster scan per booking. The carers of each
+     * grade are loaded once and evaluated against every new booking of that grade, and
+     * each carer's new entries are written to their available shifts with one script call
+     * when the unit of work flushes.
+     * Each event must be the only pending event for its booking.
+     */
+    public void applyBookingsCreated(List<BookingCreated> events) {
+        projectionFanOutWriter.runInUnitOfWork("BookingRota", () -> {
+            // Build side: the new bookings, hashed by grade
+            Map<String, List<EligibilityRulesEngine.BookingProjection>> bookingsByGrade = new LinkedHashMap<>();
+            for (BookingCreated event : events) {
+                EligibilityRulesEngine.BookingProjection booking = storeNewBooking(event);
+                if (booking.getGrade() == null) {
+                    // No carer matches a booking without a grade
+                    log.warn("Booking {} has no grade, no carers are eligible", booking.getBookingId());
+                    continue;
+                }
+                bookingsByGrade.computeIfAbsent(booking.getGrade(), grade -> new ArrayList<>()).add(booking);
+            }
+            
+            // Probe side: each grade's carers, loaded once for all bookings requiring it
+            ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("BookingRota");
+            bookingsByGrade.forEach((grade, bookings) -> {
+                List<Map<UUID, EligibilityRulesEngine.CarerProjection>> matches = joinCarersWithGrade(grade, bookings);
+                for (int i = 0; i < bookings.size(); i++) {
+                    EligibilityRulesEngine.BookingProjection booking = bookings.get(i);
+                    matches.get(i).forEach((carerId, carer) -> {
+                        writes.addCarerForShift(booking.getBookingId(), createEligibleCarerDto(carer, booking));
+                        addBookingToCarerAvailableShifts(writes, carerId, booking);
+                    });
+                }
+            });
+            writes.flush();
+        });
+        log.info("Applied rota of {} new bookings", events.size());
+    }
+
     private void handleBookingCreated(BookingCreated event) {
         log.info("Processing BookingCreated event for bookingId: {}", event.getBookingId());
         
-        // Create booking projection data
-        EligibilityRulesEngine.BookingProjection bookingProjection = 
-            new EligibilityRulesEngine.BookingProjection(
-                event.getBookingId(),
-                event.getFacilityId(),
-                event.getShift(),
-                event.getGrade(),
-                event.getHourlyRate(),
-                event.getRequiredQualifications(),
-                event.getLocation(),
-                event.getSpecialRequirements(),
-                event.getStartTime(),
-                event.getEndTime()
-            );
-        
-        // Store booking data
-        viewProjectionService.storeBookingData(event.getBookingId(), bookingProjection);
+        EligibilityRulesEngine.BookingProjection bookingProjection = storeNewBooking(event);
         log.info("Stored booking data for bookingId: {}", event.getBookingId());
         
         // Find all eligible carers for this new booking
@@ -79,23 +132,78 @@ public class BookingEventHandler {
         log.info("Updated eligibility projections for new booking: {}", event.getBookingId());
     }
 
+    private EligibilityRulesEngine.BookingProjection storeNewBooking(BookingCreated event) {
+        EligibilityRulesEngine.BookingProjection bookingProjection = bookingProjectionOf(event);
+        
+        // Store booking data and the shared summary the read side joins shift entries with
+        viewProjectionService.storeBookingData(event.getBookingId(), bookingProjection);
+        viewProjectionService.storeBookingSummary(createBookingSummary(bookingProjection, "OPEN"));
+        return bookingProjection;
+    }
+
+    static EligibilityRulesEngine.BookingProjection bookingProjectionOf(BookingCreated event) {
+        return new EligibilityRulesEngine.BookingProjection(
+            event.getBookingId(),
+            event.getFacilityId(),
+            event.getShift(),
+            event.getGrade(),
+            event.getHourlyRate(),
+            event.getRequiredQualifications(),
+            event.getLocation(),
+            event.getSpecialRequirements(),
+            event.getStartTime(),
+            event.getEndTime()
+        );
+    }
+
     private void handleBookingModified(BookingModified event) {
-        // Get existing booking data
-        EligibilityRulesEngine.BookingProjection existingBooking = 
-            viewProjectionService.getBookingData(event.getBookingId());
+        // Apply the changes as a compare-and-set, keeping the old values to work out the delta
+        UUID bookingId = event.getBookingId();
+        ProjectionUpdate<EligibilityRulesEngine.BookingProjection> update = 
+            viewProjectionService.updateBookingData(bookingId, booking -> updateBookingProjectionWithChanges(booking, event));
         
-        if (existingBooking == null) {
+        if (update == null) {
             return; // Booking not found, might be a race condition
         }
         
-        // Update booking data with changes
-        boolean significantChange = updateBookingProjectionWithChanges(existingBooking, event);
+        EligibilityRulesEngine.BookingProjection existingBooking = update.getCurrent();
+        String previousGrade = update.getPrevious().getGrade();
+        String previousLocation = update.getPrevious().getLocation();
+        List<String> previousRequiredQualifications = update.getPrevious().getRequiredQualifications();
+        java.time.LocalDateTime previousStart = update.getPrevious().getStartTime();
+        java.time.LocalDateTime previousEnd = update.getPrevious().getEndTime();
+        boolean timeChanged = !Objects.equals(previousStart, existingBooking.getStartTime()) 
+            || !Objects.equals(previousEnd, existingBooking.getEndTime());
+        
+        boolean sameRuleInputs = Objects.equals(previousGrade, existingBooking.getGrade())
+            && Objects.equals(previousLocation, existingBooking.getLocation());
+        RequirementChange requirementChange = 
+            compareRequirements(previousRequiredQualifications, existingBooking.getRequiredQualifications());
+        
+        if (!sameRuleInputs || requirementChange == RequirementChange.MIXED) {
+            // Grade or location moved, or requirements were swapped: recompute from scratch
+            updateEligibilityProjectionsForModifiedBooking(bookingId, existingBooking);
+        } else if (requirementChange == RequirementChange.FEWER) {
+            // Dropping a requirement can only add carers
+            addNewlyEligibleCarers(existingBooking);
+        } else if (requirementChange == RequirementChange.MORE) {
+            // Adding a requirement can only remove carers
+            removeNoLongerEligibleCarers(existingBooking);
+        }
+        
+        // Display fields reach every carer's entry through the shared summary
+        viewProjectionService.storeBookingSummary(createBookingSummary(existingBooking,
+            existingBooking.getAssignedCarerId() != null ? "BOOKED" : "OPEN"));
         
-        // If there were significant changes that affect eligibility, recalculate projections
-        if (significantChange) {
-            viewProjectionService.storeBookingData(event.getBookingId(), existingBooking);
-            updateEligibilityProjectionsForModifiedBooking(event.getBookingId(), existingBooking);
+        if (timeChanged && previousStart != null && previousEnd != null) {
+            EligibilityRulesEngine.BookingProjection previousWindow = new EligibilityRulesEngine.BookingProjection();
+            previousWindow.setBookingId(bookingId);
+            previousWindow.setStartTime(previousStart);
+            previousWindow.setEndTime(previousEnd);
+            applyTimeChange(existingBooking, previousWindow);
         }
+        log.info("Applied modifications to booking: {} (eligibility or time affected: {})", bookingId,
+                !sameRuleInputs || requirementChange != RequirementChange.SAME || timeChanged);
     }
 
     private void handleBookingCancelled(BookingCancelled event) {
@@ -108,15 +216,16 @@ public class BookingEventHandler {
         log.info("Event received - BookingId: {}, CarerId: {}, Timestamp: {}", 
                 event.getBookingId(), event.getCarerId(), java.time.LocalDateTime.now());
         
-        // Get the booking details to check time overlap
-        EligibilityRulesEngine.BookingProjection bookedBooking = 
-            viewProjectionService.getBookingData(event.getBookingId());
+        // Remember the assignment so later time changes know whose commitment moved
+        ProjectionUpdate<EligibilityRulesEngine.BookingProjection> update = viewProjectionService.updateBookingData(
+            event.getBookingId(), booking -> booking.setAssignedCarerId(event.getCarerId()));
         
-        if (bookedBooking == null) {
+        if (update == null) {
             log.warn("Booking data not found for booked booking: {} - Event processing aborted", 
                     event.getBookingId());
             return;
         }
+        EligibilityRulesEngine.BookingProjection bookedBooking = update.getCurrent();
         
         log.info("Booking details - Shift: '{}', Grade: '{}', Location: '{}', Time: {} to {}", 
                 bookedBooking.getShift(), bookedBooking.getGrade(), bookedBooking.getLocation(),
@@ -141,7 +250,7 @@ public class BookingEventHandler {
         
         // 2. Update the booking status to show it's no longer available
         log.info("Step 2: Updating booking status to 'BOOKED'...");
-        updateBookingStatusInProjections(event.getBookingId(), "BOOKED");
+        updateBookingStatusInProjections(bookedBooking, "BOOKED");
         
         // 3. CRITICAL: Remove the assigned carer from all OTHER bookings that overlap in time
         log.info("Step 3: Resolving time conflicts for assigned carer...");
@@ -171,13 +280,15 @@ public class BookingEventHandler {
         // When a carer pulls out, the booking becomes available again
         // AND the carer becomes available for other bookings that were previously conflicting
         
-        EligibilityRulesEngine.BookingProjection bookingProjection = 
-            viewProjectionService.getBookingData(event.getBookingId());
+        ProjectionUpdate<EligibilityRulesEngine.BookingProjection> update = 
+            viewProjectionService.updateBookingData(event.getBookingId(), booking -> booking.setAssignedCarerId(null));
         
-        if (bookingProjection != null) {
+        if (update != null) {
+            EligibilityRulesEngine.BookingProjection bookingProjection = update.getCurrent();
+            
             // 1. Make the booking available again for all eligible carers
             updateEligibilityProjectionsForNewBooking(event.getBookingId(), bookingProjection);
-            updateBookingStatusInProjections(event.getBookingId(), "OPEN");
+            updateBookingStatusInProjections(bookingProjection, "OPEN");
             
             // 2. CRITICAL: Restore the carer's eligibility for other bookings that were previously conflicting
             restoreCarerEligibilityAfterPullout(event.getCarerId(), bookingProjection);
@@ -189,40 +300,214 @@ public class BookingEventHandler {
 
     private void updateEligibilityProjectionsForNewBooking(UUID bookingId, 
                                                           EligibilityRulesEngine.BookingProjection booking) {
-        List<EligibleCarerDto> eligibleCarers = new ArrayList<>();
-        
-        // Get all carers and check eligibility
-        Set<String> carerIds = viewProjectionService.getAllCarerIds();
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("BookingEligibility");
         
-        for (String carerIdStr : carerIds) {
-            UUID carerId = UUID.fromString(carerIdStr);
-            EligibilityRulesEngine.CarerProjection carer = viewProjectionService.getCarerData(carerId);
+        forEachEligibleCarer(booking, (carerId, carer) -> {
+            // Added entry by entry rather than replacing the booking's hash, so entries
+            // written meanwhile by other lanes are kept
+            writes.addCarerForShift(bookingId, createEligibleCarerDto(carer, booking));
             
-            if (carer != null && eligibilityRulesEngine.isCarerEligibleForBooking(carer, booking)) {
-                // Add to eligible carers list
-                EligibleCarerDto eligibleCarer = createEligibleCarerDto(carer, booking);
-                eligibleCarers.add(eligibleCarer);
-                
-                // Add this booking to the carer's available shifts
-                addBookingToCarerAvailableShifts(carerId, booking);
+            // Add this booking to the carer's available shifts; a booked shift stays
+            // available to its assigned carer only
+            if (isOpenTo(booking, carerId)) {
+                addBookingToCarerAvailableShifts(writes, carerId, booking);
             }
+        });
+        
+        // Send both sides as one pipelined batch
+        writes.flush();
+    }
+
+    /**
+     * The carers eligible for each of the bookings of one grade, in the order of the
+     * bookings, loading the grade's carers or sweeping their roster rows only once
+     */
+    private List<Map<UUID, EligibilityRulesEngine.CarerProjection>> joinCarersWithGrade(
+            String grade, List<EligibilityRulesEngine.BookingProjection> bookings) {
+        if (viewProjectionService.hasCarerRoster()) {
+            return viewProjectionService.getEligibleCarers(bookings);
         }
         
-        // Update the eligible carers projection for this booking
-        viewProjectionService.updateEligibleCarersForShift(bookingId, eligibleCarers);
+        List<Map<UUID, EligibilityRulesEngine.CarerProjection>> matches = new ArrayList<>(bookings.size());
+        List<UUID> candidateIds = new ArrayList<>();
+        List<EligibilityRulesEngine.CarerProjection> candidates = new ArrayList<>();
+        viewProjectionService.forEachCarerWithGrade(grade, (carerId, carer) -> {
+            if (carer == null) {
+                // Carer data expired, drop the stale registry and index entries
+                viewProjectionService.unregisterCarerId(carerId, grade);
+            } else {
+                candidateIds.add(carerId);
+                candidates.add(carer);
+            }
+        });
+        
+        for (EligibilityRulesEngine.BookingProjection booking : bookings) {
+            Map<UUID, EligibilityRulesEngine.CarerProjection> eligibleCarers = new LinkedHashMap<>();
+            BitSet eligible = parallelEligibilityEvaluator.evaluate(booking, candidates);
+            for (int i = eligible.nextSetBit(0); i >= 0; i = eligible.nextSetBit(i + 1)) {
+                eligibleCarers.put(candidateIds.get(i), candidates.get(i));
+            }
+            matches.add(eligibleCarers);
+        }
+        return matches;
     }
 
     private void updateEligibilityProjectionsForModifiedBooking(UUID bookingId,
                                                                EligibilityRulesEngine.BookingProjection booking) {
-        // Remove this booking from all carer projections first
-        viewProjectionService.removeBookingProjections(bookingId);
+        // Remove this booking from the carer projections that reference it first
+        viewProjectionService.clearBookingEligibility(bookingId);
         
         // Then recalculate eligibility as if it's a new booking
         updateEligibilityProjectionsForNewBooking(bookingId, booking);
     }
 
-    private boolean updateBookingProjectionWithChanges(EligibilityRulesEngine.BookingProjection booking,
-                                                      BookingModified event) {
+    /**
+     * Evaluates only the grade candidates that are not already eligible for the booking.
+     * A booked shift lists them as eligible too, but stays in its assigned carer's
+     * available shifts only.
+     */
+    private void addNewlyEligibleCarers(EligibilityRulesEngine.BookingProjection booking) {
+        UUID bookingId = booking.getBookingId();
+        Set<UUID> currentCarerIds = viewProjectionService.getEligibleCarerIdsForShift(bookingId);
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("BookingModified");
+        
+        forEachEligibleCarer(booking, (carerId, carer) -> {
+            if (!currentCarerIds.contains(carerId)) {
+                writes.addCarerForShift(bookingId, createEligibleCarerDto(carer, booking));
+                if (isOpenTo(booking, carerId)) {
+                    addBookingToCarerAvailableShifts(writes, carerId, booking);
+                }
+            }
+        });
+        writes.flush();
+    }
+
+    /**
+     * Passes every carer eligible for the booking to the action. With the in-memory carer
+     * roster loaded that is one columnar sweep; otherwise the carers holding the required
+     * grade are loaded a chunk at a time, checked against the remaining rules in parallel,
+     * and passed on in roster order.
+     */
+    private void forEachEligibleCarer(EligibilityRulesEngine.BookingProjection booking,
+                                      BiConsumer<UUID, EligibilityRulesEngine.CarerProjection> action) {
+        if (viewProjectionService.hasCarerRoster()) {
+            viewProjectionService.getEligibleCarers(booking).forEach(action);
+            return;
+        }
+        
+        List<UUID> candidateIds = new ArrayList<>();
+        List<EligibilityRulesEngine.CarerProjection> candidates = new ArrayList<>();
+        viewProjectionService.forEachCarerWithGrade(booking.getGrade(), (carerId, carer) -> {
+            if (carer == null) {
+                // Carer data expired, drop the stale registry and index entries
+                viewProjectionService.unregisterCarerId(carerId, booking.getGrade());
+            } else {
+                candidateIds.add(carerId);
+                candidates.add(carer);
+            }
+        });
+        
+        BitSet eligible = parallelEligibilityEvaluator.evaluate(booking, candidates);
+        for (int i = eligible.nextSetBit(0); i >= 0; i = eligible.nextSetBit(i + 1)) {
+            action.accept(candidateIds.get(i), candidates.get(i));
+        }
+    }
+
+    /**
+     * Re-checks only the carers currently eligible for the booking and drops those that fail
+     */
+    private void removeNoLongerEligibleCarers(EligibilityRulesEngine.BookingProjection booking) {
+        UUID bookingId = booking.getBookingId();
+        Set<UUID> currentCarerIds = viewProjectionService.getEligibleCarerIdsForShift(bookingId);
+        Map<UUID, EligibilityRulesEngine.CarerProjection> carers = 
+            viewProjectionService.getCarerData(currentCarerIds);
+        
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("BookingModified");
+        for (UUID carerId : currentCarerIds) {
+            EligibilityRulesEngine.CarerProjection carer = carers.get(carerId);
+            if (carer == null || !eligibilityVerdictCache.isCarerEligibleForBooking(carer, booking)) {
+                removeCarerFromBookingEligibility(writes, carerId, bookingId);
+                removeBookingFromCarerAvailableShifts(writes, carerId, bookingId);
+            }
+        }
+        writes.flush();
+    }
+
+    /**
+     * Re-runs conflict checks after a booking moved in time, visiting only the bookings
+     * that share a day with the old or the new window and have a carer assigned
+     */
+    private void applyTimeChange(EligibilityRulesEngine.BookingProjection booking,
+                                 EligibilityRulesEngine.BookingProjection previousWindow) {
+        UUID bookingId = booking.getBookingId();
+        
+        if (booking.getAssignedCarerId() != null) {
+            // The assigned carer is freed from the old window and committed to the new one
+            restoreCarerEligibilityAfterPullout(booking.getAssignedCarerId(), previousWindow);
+            removeCarerFromConflictingBookings(booking.getAssignedCarerId(), booking);
+            return;
+        }
+        
+        // An open booking must exclude carers committed to shifts overlapping its new window
+        // and may take back carers whose commitments only overlapped the old one
+        Set<UUID> nearbyBookingIds = viewProjectionService.getBookingIdsInWindow(
+            booking.getStartTime(), booking.getEndTime());
+        nearbyBookingIds.addAll(viewProjectionService.getBookingIdsInWindow(
+            previousWindow.getStartTime(), previousWindow.getEndTime()));
+        nearbyBookingIds.remove(bookingId);
+        
+        Set<UUID> conflictingCarerIds = new HashSet<>();
+        Set<UUID> freedCarerIds = new HashSet<>();
+        for (EligibilityRulesEngine.BookingProjection other : 
+                viewProjectionService.getBookingData(nearbyBookingIds).values()) {
+            if (other.getAssignedCarerId() == null) {
+                continue;
+            }
+            if (hasTimeOverlap(booking, other)) {
+                conflictingCarerIds.add(other.getAssignedCarerId());
+            } else if (hasTimeOverlap(previousWindow, other)) {
+                freedCarerIds.add(other.getAssignedCarerId());
+            }
+        }
+        // A carer with another commitment still overlapping the new window stays excluded
+        freedCarerIds.removeAll(conflictingCarerIds);
+        
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("BookingModified");
+        for (UUID carerId : conflictingCarerIds) {
+            removeCarerFromBookingEligibility(writes, carerId, bookingId);
+            removeBookingFromCarerAvailableShifts(writes, carerId, bookingId);
+        }
+        
+        viewProjectionService.getCarerData(freedCarerIds).forEach((carerId, carer) -> {
+            if (eligibilityVerdictCache.isCarerEligibleForBooking(carer, booking)) {
+                writes.addCarerForShift(bookingId, createEligibleCarerDto(carer, booking));
+                addBookingToCarerAvailableShifts(writes, carerId, booking);
+            }
+        });
+        writes.flush();
+    }
+
+    private static RequirementChange compareRequirements(List<String> previous, List<String> current) {
+        Set<String> before = previous != null ? new HashSet<>(previous) : Set.of();
+        Set<String> after = current != null ? new HashSet<>(current) : Set.of();
+        if (before.equals(after)) {
+            return RequirementChange.SAME;
+        }
+        if (before.containsAll(after)) {
+            return RequirementChange.FEWER;
+        }
+        if (after.containsAll(before)) {
+            return RequirementChange.MORE;
+        }
+        return RequirementChange.MIXED;
+    }
+
+    private enum RequirementChange {
+        SAME, FEWER, MORE, MIXED
+    }
+
+    boolean updateBookingProjectionWithChanges(EligibilityRulesEngine.BookingProjection booking,
+                                              BookingModified event) {
         boolean significantChange = false;
         
         for (var entry : event.getChangedFields().entrySet()) {
@@ -241,7 +526,7 @@ public class BookingEventHandler {
                     significantChange = true;
                     break;
                 case "hourlyRate":
-                    booking.setHourlyRate((java.math.BigDecimal) newValue);
+                    booking.setHourlyRate(newValue != null ? new java.math.BigDecimal(newValue.toString()) : null);
                     // Hourly rate changes don't affect eligibility, but we store them for display
                     break;
                 case "location":
@@ -259,10 +544,14 @@ public class BookingEventHandler {
                     significantChange = true;
                     break;
                 case "startTime":
-                case "endTime":
+                    booking.setStartTime(toLocalDateTime(newValue));
                     // Time changes affect availability calculations
                     significantChange = true;
                     break;
+                case "endTime":
+                    booking.setEndTime(toLocalDateTime(newValue));
+                    significantChange = true;
+                    break;
                 // All relevant fields are now handled
             }
         }
@@ -270,104 +559,97 @@ public class BookingEventHandler {
         return significantChange;
     }
 
+    /**
+     * Reads a date-time change value, which arrives as an ISO string or as Jackson's array form
+     */
+    private static java.time.LocalDateTime toLocalDateTime(Object value) {
+        if (value == null || value instanceof java.time.LocalDateTime) {
+            return (java.time.LocalDateTime) value;
+        }
+        if (value instanceof List<?> parts) {
+            int[] fields = new int[7];
+            for (int i = 0; i < parts.size() && i < fields.length; i++) {
+                fields[i] = ((Number) parts.get(i)).intValue();
+            }
+            return java.time.LocalDateTime.of(fields[0], fields[1], fields[2], fields[3], fields[4], fields[5], fields[6]);
+        }
+        return java.time.LocalDateTime.parse(value.toString());
+    }
+
     private void removeBookingFromCarerProjectionsExcept(UUID bookingId, UUID exceptCarerId) {
-        // Optimized approach: Get only the carers who were eligible for this shift
-        // instead of iterating through ALL carers in the system
-        List<EligibleCarerDto> eligibleCarers = viewProjectionService.getEligibleCarersForShift(bookingId);
+        // Optimized approach: use the reverse index to visit only the carers whose
+        // available shifts actually hold this booking
+        Set<UUID> carerIds = viewProjectionService.getCarersWithAvailableShift(bookingId);
         
-        for (EligibleCarerDto eligibleCarer : eligibleCarers) {
-            UUID carerId = eligibleCarer.getCarerId();
-            
+        for (UUID carerId : carerIds) {
             // Skip the carer who got the booking
             if (!carerId.equals(exceptCarerId)) {
-                List<EligibleShiftDto> availableShifts = 
-                    viewProjectionService.getAvailableShiftsForCarer(carerId);
-                
-                availableShifts.removeIf(shift -> shift.getBookingId().equals(bookingId));
-                viewProjectionService.updateAvailableShiftsForCarer(carerId, availableShifts);
+                viewProjectionService.removeShiftForCarer(carerId, bookingId);
             }
         }
         
-        log.debug("Removed booking {} from {} eligible carers (excluding assigned carer {})", 
-                 bookingId, eligibleCarers.size() - 1, exceptCarerId);
+        log.debug("Removed booking {} from {} carers' available shifts (excluding assigned carer {})", 
+                 bookingId, carerIds.size() - (carerIds.contains(exceptCarerId) ? 1 : 0), exceptCarerId);
     }
 
-    private void updateBookingStatusInProjections(UUID bookingId, String status) {
-        // Optimized approach: Get only the carers who were eligible for this booking
-        // instead of iterating through ALL carers in the system
-        List<EligibleCarerDto> eligibleCarers = viewProjectionService.getEligibleCarersForShift(bookingId);
-        
-        for (EligibleCarerDto eligibleCarer : eligibleCarers) {
-            UUID carerId = eligibleCarer.getCarerId();
-            List<EligibleShiftDto> availableShifts = 
-                viewProjectionService.getAvailableShiftsForCarer(carerId);
-            
-            for (EligibleShiftDto shift : availableShifts) {
-                if (shift.getBookingId().equals(bookingId)) {
-                    shift.setStatus(status);
-                }
-            }
-            
-            viewProjectionService.updateAvailableShiftsForCarer(carerId, availableShifts);
-        }
+    private void updateBookingStatusInProjections(EligibilityRulesEngine.BookingProjection booking, String status) {
+        // Optimized approach: the status lives in the booking summary that every carer's
+        // entry is joined with, so this is one write however many carers see the shift
+        viewProjectionService.storeBookingSummary(createBookingSummary(booking, status));
         
-        log.debug("Updated booking {} status to '{}' for {} eligible carers", 
-                 bookingId, status, eligibleCarers.size());
+        log.debug("Updated booking {} status to '{}'", booking.getBookingId(), status);
+    }
+
+    private static boolean isOpenTo(EligibilityRulesEngine.BookingProjection booking, UUID carerId) {
+        return booking.getAssignedCarerId() == null || booking.getAssignedCarerId().equals(carerId);
     }
 
-    private void addBookingToCarerAvailableShifts(UUID carerId, 
+    private void addBookingToCarerAvailableShifts(ProjectionFanOutWriter.Batch writes, UUID carerId, 
                                                  EligibilityRulesEngine.BookingProjection booking) {
-        List<EligibleShiftDto> availableShifts = 
-            viewProjectionService.getAvailableShiftsForCarer(carerId);
-        
-        // Create new shift DTO
-        EligibleShiftDto shiftDto = createEligibleShiftDto(booking);
-        
-        // Add to list if not already present
-        if (availableShifts.stream().noneMatch(s -> s.getBookingId().equals(booking.getBookingId()))) {
-            availableShifts.add(shiftDto);
-            viewProjectionService.updateAvailableShiftsForCarer(carerId, availableShifts);
-        }
+        // Added only if not already present
+        writes.addShiftForCarer(carerId, createEligibleShiftDto(booking));
     }
 
     /**
      * Removes a carer from all bookings that have time conflicts with the newly assigned booking
      */
     private int removeCarerFromConflictingBookings(UUID carerId, EligibilityRulesEngine.BookingProjection bookedBooking) {
-        // Optimized approach: Get only the shifts this carer was eligible for
-        // instead of checking ALL bookings in the system
-        List<EligibleShiftDto> carerAvailableShifts = 
-            viewProjectionService.getAvailableShiftsForCarer(carerId);
+        // Optimized approach: only the carer's available shifts that fall on the same days
+        // as the assigned booking can overlap it, so intersect the two before loading anything
+        Set<UUID> candidateBookingIds = viewProjectionService.getBookingIdsInWindow(
+            bookedBooking.getStartTime(), bookedBooking.getEndTime());
+        candidateBookingIds.retainAll(viewProjectionService.getAvailableShiftIdsForCarer(carerId));
+        
+        // Skip the booking that was just assigned
+        candidateBookingIds.remove(bookedBooking.getBookingId());
         
+        // Load the booking details for the candidates in bulk to check for time overlap
+        Map<UUID, EligibilityRulesEngine.BookingProjection> otherBookings = 
+            viewProjectionService.getBookingData(candidateBookingIds);
+        
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("BookingBooked");
         int conflictsResolved = 0;
         
-        for (EligibleShiftDto availableShift : carerAvailableShifts) {
-            UUID bookingId = availableShift.getBookingId();
-            
-            // Skip the booking that was just assigned
-            if (bookingId.equals(bookedBooking.getBookingId())) {
-                continue;
-            }
+        for (Map.Entry<UUID, EligibilityRulesEngine.BookingProjection> entry : otherBookings.entrySet()) {
+            UUID bookingId = entry.getKey();
+            EligibilityRulesEngine.BookingProjection otherBooking = entry.getValue();
             
-            // Get booking details to check for time overlap
-            EligibilityRulesEngine.BookingProjection otherBooking = 
-                viewProjectionService.getBookingData(bookingId);
-            
-            if (otherBooking != null && hasTimeOverlap(bookedBooking, otherBooking)) {
+            if (hasTimeOverlap(bookedBooking, otherBooking)) {
                 // Remove this carer from the conflicting booking's eligible carers list
-                removeCarerFromBookingEligibility(carerId, bookingId);
+                removeCarerFromBookingEligibility(writes, carerId, bookingId);
                 
                 // Remove the conflicting booking from this carer's available shifts
-                removeBookingFromCarerAvailableShifts(carerId, bookingId);
+                removeBookingFromCarerAvailableShifts(writes, carerId, bookingId);
                 
                 conflictsResolved++;
                 log.info("Removed carer {} from conflicting booking {} due to time overlap", 
                         carerId, bookingId);
             }
         }
+        writes.flush();
         
-        log.debug("Checked {} available shifts for carer {} to resolve time conflicts with booking {} - {} conflicts resolved", 
-                 carerAvailableShifts.size(), carerId, bookedBooking.getBookingId(), conflictsResolved);
+        log.debug("Checked {} same-day shifts for carer {} to resolve time conflicts with booking {} - {} conflicts resolved", 
+                 otherBookings.size(), carerId, bookedBooking.getBookingId(), conflictsResolved);
         
         return conflictsResolved;
     }
@@ -375,8 +657,8 @@ public class BookingEventHandler {
     /**
      * Checks if two bookings have overlapping time periods
      */
-    private boolean hasTimeOverlap(EligibilityRulesEngine.BookingProjection booking1, 
-                                  EligibilityRulesEngine.BookingProjection booking2) {
+    boolean hasTimeOverlap(EligibilityRulesEngine.BookingProjection booking1, 
+                          EligibilityRulesEngine.BookingProjection booking2) {
         java.time.LocalDateTime start1 = booking1.getStartTime();
         java.time.LocalDateTime end1 = booking1.getEndTime();
         java.time.LocalDateTime start2 = booking2.getStartTime();
@@ -389,23 +671,15 @@ public class BookingEventHandler {
     /**
      * Removes a specific carer from a booking's eligible carers list
      */
-    private void removeCarerFromBookingEligibility(UUID carerId, UUID bookingId) {
-        List<EligibleCarerDto> eligibleCarers = 
-            viewProjectionService.getEligibleCarersForShift(bookingId);
-        
-        eligibleCarers.removeIf(carer -> carer.getCarerId().equals(carerId));
-        viewProjectionService.updateEligibleCarersForShift(bookingId, eligibleCarers);
+    private void removeCarerFromBookingEligibility(ProjectionFanOutWriter.Batch writes, UUID carerId, UUID bookingId) {
+        writes.removeCarerForShift(bookingId, carerId);
     }
 
     /**
      * Removes a specific booking from a carer's available shifts list
      */
-    private void removeBookingFromCarerAvailableShifts(UUID carerId, UUID bookingId) {
-        List<EligibleShiftDto> availableShifts = 
-            viewProjectionService.getAvailableShiftsForCarer(carerId);
-        
-        availableShifts.removeIf(shift -> shift.getBookingId().equals(bookingId));
-        viewProjectionService.updateAvailableShiftsForCarer(carerId, availableShifts);
+    private void removeBookingFromCarerAvailableShifts(ProjectionFanOutWriter.Batch writes, UUID carerId, UUID bookingId) {
+        writes.removeShiftForCarer(carerId, bookingId);
     }
 
     /**
@@ -419,62 +693,47 @@ public class BookingEventHandler {
             return;
         }
         
-        // Check all other bookings to see if the carer is now eligible
-        Set<String> allBookingIds = viewProjectionService.getAllBookingIds();
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("BookingPullout");
         
-        for (String bookingIdStr : allBookingIds) {
-            UUID bookingId = UUID.fromString(bookingIdStr);
-            
-            // Skip the booking they just pulled out from
-            if (bookingId.equals(pulledOutBooking.getBookingId())) {
-                continue;
-            }
+        // Only bookings on the same days as the pulled-out booking can have been conflicting
+        Set<UUID> candidateBookingIds = viewProjectionService.getBookingIdsInWindow(
+            pulledOutBooking.getStartTime(), pulledOutBooking.getEndTime());
+        
+        // Skip the booking they just pulled out from
+        candidateBookingIds.remove(pulledOutBooking.getBookingId());
+        
+        // Check those bookings to see if the carer is now eligible
+        viewProjectionService.getBookingData(candidateBookingIds).forEach((bookingId, otherBooking) -> {
+            // Check if this booking was previously conflicting with the pulled-out booking
+            boolean wasConflicting = hasTimeOverlap(pulledOutBooking, otherBooking);
             
-            EligibilityRulesEngine.BookingProjection otherBooking = 
-                viewProjectionService.getBookingData(bookingId);
+            // Only a booking that is still OPEN (not assigned to anyone) lists eligible carers
+            boolean bookingStillOpen = otherBooking.getAssignedCarerId() == null;
             
-            if (otherBooking != null) {
-                // Check if this booking was previously conflicting with the pulled-out booking
-                boolean wasConflicting = hasTimeOverlap(pulledOutBooking, otherBooking);
+            if (wasConflicting && bookingStillOpen
+                    && eligibilityVerdictCache.isCarerEligibleForBooking(carer, otherBooking)) {
+                // Only restore if the carer isn't already in the list
+                boolean carerAlreadyEligible = viewProjectionService.getEligibleCarerIdsForShift(bookingId)
+                    .contains(carerId);
                 
-                if (wasConflicting && eligibilityRulesEngine.isCarerEligibleForBooking(carer, otherBooking)) {
-                    // Check if the booking is still OPEN (not already assigned to someone else)
-                    List<EligibleCarerDto> currentEligibleCarers = 
-                        viewProjectionService.getEligibleCarersForShift(bookingId);
+                if (!carerAlreadyEligible) {
+                    // Add carer back to eligible list
+                    EligibleCarerDto restoredCarer = createEligibleCarerDto(carer, otherBooking);
+                    writes.addCarerForShift(bookingId, restoredCarer);
                     
-                    // Only restore if the booking is still available and carer isn't already in the list
-                    boolean bookingStillOpen = currentEligibleCarers.stream()
-                        .anyMatch(c -> true); // If there are eligible carers, booking is likely still open
+                    // Add booking back to carer's available shifts
+                    writes.addShiftForCarer(carerId, createEligibleShiftDto(otherBooking));
                     
-                    boolean carerAlreadyEligible = currentEligibleCarers.stream()
-                        .anyMatch(c -> c.getCarerId().equals(carerId));
-                    
-                    if (bookingStillOpen && !carerAlreadyEligible) {
-                        // Add carer back to eligible list
-                        EligibleCarerDto restoredCarer = createEligibleCarerDto(carer, otherBooking);
-                        currentEligibleCarers.add(restoredCarer);
-                        viewProjectionService.updateEligibleCarersForShift(bookingId, currentEligibleCarers);
-                        
-                        // Add booking back to carer's available shifts
-                        List<EligibleShiftDto> carerShifts = 
-                            viewProjectionService.getAvailableShiftsForCarer(carerId);
-                        
-                        EligibleShiftDto restoredShift = createEligibleShiftDto(otherBooking);
-                        if (carerShifts.stream().noneMatch(s -> s.getBookingId().equals(bookingId))) {
-                            carerShifts.add(restoredShift);
-                            viewProjectionService.updateAvailableShiftsForCarer(carerId, carerShifts);
-                        }
-                        
-                        log.info("Restored carer {} eligibility for previously conflicting booking {}", 
-                                carerId, bookingId);
-                    }
+                    log.info("Restored carer {} eligibility for previously conflicting booking {}", 
+                            carerId, bookingId);
                 }
             }
-        }
+        });
+        writes.flush();
     }
 
-    private EligibleCarerDto createEligibleCarerDto(EligibilityRulesEngine.CarerProjection carer,
-                                                   EligibilityRulesEngine.BookingProjection booking) {
+    EligibleCarerDto createEligibleCarerDto(EligibilityRulesEngine.CarerProjection carer,
+                                           EligibilityRulesEngine.BookingProjection booking) {
         // Calculate distance for display purposes
         double distance = calculateDistance(carer.getLocation(), booking.getLocation());
         
@@ -512,6 +771,19 @@ public class BookingEventHandler {
         );
     }
 
+    BookingSummaryDto createBookingSummary(EligibilityRulesEngine.BookingProjection booking, String status) {
+        return new BookingSummaryDto(
+            booking.getBookingId(),
+            booking.getShift(),
+            booking.getStartTime(),
+            booking.getEndTime(),
+            booking.getHourlyRate(),
+            booking.getSpecialRequirements(),
+            booking.getRequiredQualifications(),
+            status
+        );
+    }
+
     private double calculateDistance(String location1, String location2) {
         // Simplified distance calculation - in production use actual geolocation
         if (location1.equals(location2)) {
@@ -3,6 +3,9 @@ package com.healthcare.staffing.viewmaintenance.eventhandler;
 import com.healthcare.staffing.shared.dto.EligibleShiftDto;
 import com.healthcare.staffing.shared.events.carer.*;
 import com.healthcare.staffing.viewmaintenance.service.EligibilityRulesEngine;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityVerdictCache;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionFanOutWriter;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionUpdate;
 import com.healthcare.staffing.viewmaintenance.service.ViewProjectionService;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,9 +14,11 @@ import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
@@ -23,20 +28,36 @@ public class CarerEventHandler {
     private static final Logger log = LoggerFactory.getLogger(CarerEventHandler.class);
     
     private final ViewProjectionService viewProjectionService;
-    private final EligibilityRulesEngine eligibilityRulesEngine;
+    private final EligibilityVerdictCache eligibilityVerdictCache;
+    private final ProjectionFanOutWriter projectionFanOutWriter;
 
     @Autowired
     public CarerEventHandler(ViewProjectionService viewProjectionService,
-                            EligibilityRulesEngine eligibilityRulesEngine) {
+                            EligibilityVerdictCache eligibilityVerdictCache,
+                            ProjectionFanOutWriter projectionFanOutWriter) {
         this.viewProjectionService = viewProjectionService;
-        this.eligibilityRulesEngine = eligibilityRulesEngine;
+        this.eligibilityVerdictCache = eligibilityVerdictCache;
+        this.projectionFanOutWriter = projectionFanOutWriter;
     }
-
-    @KafkaListener(topics = "carer-events", groupId = "view-maintenance-service")
+    
+    // Stays stopped when the batch listener consumes this topic instead
+    @KafkaListener(topics = "carer-events", groupId = "view-maintenance-service",
+                   autoStartup = "#{!${view-maintenance.consumer.batch-enabled:false}}")
     public void handleCarerEvent(ConsumerRecord<String, Object> record) {
         Object event = record.value();
         log.info("Received carer event: {} of type: {}", event, event.getClass().getSimpleName());
-        
+        applyEvent(event);
+    }
+
+    /**
+     * Applies one carer event to the projections; also used by the batch listener. The
+     * projection writes of all steps are buffered and flushed once per dirty key.
+     */
+    public void applyEvent(Object event) {
+        projectionFanOutWriter.runInUnitOfWork(event.getClass().getSimpleName(), () -> dispatch(event));
+    }
+
+    private void dispatch(Object event) {
         if (event instanceof NewCarer) {
             handleNewCarer((NewCarer) event);
         } else if (event instanceof CarerUpdated) {
@@ -50,19 +71,7 @@ public class CarerEventHandler {
         log.info("Processing NewCarer event for carerId: {}", event.getCarerId());
         
         // Create carer projection data
-        EligibilityRulesEngine.CarerProjection carerProjection = 
-            new EligibilityRulesEngine.CarerProjection(
-                event.getCarerId(),
-                event.getFirstName(),
-                event.getLastName(),
-                event.getEmail(),
-                event.getPhone(),
-                event.getGrade(),
-                event.getQualifications(),
-                event.getLocation(),
-                event.getVisaStatus(),
-                event.getMaxTravelDistance()
-            );
+        EligibilityRulesEngine.CarerProjection carerProjection = carerProjectionOf(event);
         
         // Store carer data
         viewProjectionService.storeCarerData(event.getCarerId(), carerProjection);
@@ -73,68 +82,223 @@ public class CarerEventHandler {
         log.info("Updated eligibility projections for new carer: {}", event.getCarerId());
     }
 
+    static EligibilityRulesEngine.CarerProjection carerProjectionOf(NewCarer event) {
+        return new EligibilityRulesEngine.CarerProjection(
+            event.getCarerId(),
+            event.getFirstName(),
+            event.getLastName(),
+            event.getEmail(),
+            event.getPhone(),
+            event.getGrade(),
+            event.getQualifications(),
+            event.getLocation(),
+            event.getVisaStatus(),
+            event.getMaxTravelDistance()
+        );
+    }
+
     private void handleCarerUpdated(CarerUpdated event) {
         log.info("Processing CarerUpdated event for carerId: {}", event.getCarerId());
         
-        // Get existing carer data
-        EligibilityRulesEngine.CarerProjection existingCarer = 
-            viewProjectionService.getCarerData(event.getCarerId());
+        // Apply the changes as a compare-and-set, keeping the old values to work out the delta
+        ProjectionUpdate<EligibilityRulesEngine.CarerProjection> update = viewProjectionService.updateCarerData(
+            event.getCarerId(), carer -> updateCarerProjectionWithChanges(carer, event));
         
-        if (existingCarer == null) {
+        if (update == null) {
             log.warn("Carer not found for CarerUpdated event: {}", event.getCarerId());
             return; // Carer not found, might be a race condition
         }
         
-        // Update carer data with changes
-        boolean significantChange = updateCarerProjectionWithChanges(existingCarer, event);
+        EligibilityRulesEngine.CarerProjection existingCarer = update.getCurrent();
+        String previousGrade = update.getPrevious().getGrade();
+        String previousLocation = update.getPrevious().getLocation();
+        String previousVisaStatus = update.getPrevious().getVisaStatus();
+        List<String> previousQualifications = update.getPrevious().getQualifications();
+        Integer previousMaxTravelDistance = update.getPrevious().getMaxTravelDistance();
+        
+        boolean sameRuleInputs = Objects.equals(previousGrade, existingCarer.getGrade())
+            && Objects.equals(previousLocation, existingCarer.getLocation())
+            && Objects.equals(previousVisaStatus, existingCarer.getVisaStatus());
+        Delta qualificationDelta = compareQualifications(previousQualifications, existingCarer.getQualifications());
+        Delta distanceDelta = compareTravelLimits(previousMaxTravelDistance, existingCarer.getMaxTravelDistance());
         
-        // If there were significant changes that affect eligibility, recalculate projections
-        if (significantChange) {
-            viewProjectionService.storeCarerData(event.getCarerId(), existingCarer);
+        if (sameRuleInputs && qualificationDelta == Delta.SAME && distanceDelta == Delta.SAME) {
+            // Display-only change: patch the carer's entries in place
+            refreshCarerEntries(existingCarer, viewProjectionService.getShiftsWithEligibleCarer(event.getCarerId()));
+            log.info("No significant changes for carerId: {}, patched display fields", event.getCarerId());
+            return;
+        }
+        
+        if (sameRuleInputs && qualificationDelta.atLeastAsPermissive() && distanceDelta.atLeastAsPermissive()) {
+            // Every rule input stayed the same or got more permissive
+            addNewlyEligibleShifts(event.getCarerId(), existingCarer);
+            log.info("Widened eligibility projections for carerId: {}", event.getCarerId());
+        } else if (sameRuleInputs && qualificationDelta.atMostAsPermissive() && distanceDelta.atMostAsPermissive()) {
+            // Every rule input stayed the same or got more restrictive
+            removeNoLongerEligibleShifts(event.getCarerId(), existingCarer);
+            log.info("Narrowed eligibility projections for carerId: {}", event.getCarerId());
+        } else {
             updateEligibilityProjectionsForModifiedCarer(event.getCarerId(), existingCarer);
             log.info("Updated carer data and eligibility projections for carerId: {}", event.getCarerId());
-        } else {
-            log.info("No significant changes for carerId: {}", event.getCarerId());
         }
     }
 
     private void updateEligibilityProjectionsForNewCarer(UUID carerId, 
                                                         EligibilityRulesEngine.CarerProjection carer) {
-        List<EligibleShiftDto> eligibleShifts = new ArrayList<>();
-        
-        // Get all bookings and check eligibility
-        Set<String> bookingIds = viewProjectionService.getAllBookingIds();
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("CarerEligibility");
         
-        for (String bookingIdStr : bookingIds) {
-            UUID bookingId = UUID.fromString(bookingIdStr);
-            EligibilityRulesEngine.BookingProjection booking = 
-                viewProjectionService.getBookingData(bookingId);
-            
-            if (booking != null && eligibilityRulesEngine.isCarerEligibleForBooking(carer, booking)) {
-                // Add to eligible shifts list
-                EligibleShiftDto eligibleShift = createEligibleShiftDto(booking, carer);
-                eligibleShifts.add(eligibleShift);
+        // Stream only the bookings requiring the carer's grade, loaded a chunk at a time,
+        // and check the remaining rules
+        viewProjectionService.forEachBookingWithGrade(carer.getGrade(), (bookingId, booking) -> {
+            if (booking == null) {
+                // Booking data expired, drop the stale registry and index entries
+                viewProjectionService.unregisterBookingId(bookingId, carer.getGrade());
+            } else if (eligibilityVerdictCache.isCarerEligibleForBooking(carer, booking)) {
+                // Added entry by entry rather than replacing the carer's hash, so entries
+                // written meanwhile by other lanes are kept; a booked shift stays available
+                // to its assigned carer only
+                if (isOpenTo(booking, carerId)) {
+                    writes.addShiftForCarer(carerId, createEligibleShiftDto(booking, carer));
+                }
                 
                 // Add this carer to the booking's eligible carers list
-                addCarerToBookingEligibleCarers(bookingId, carer, booking);
+                addCarerToBookingEligibleCarers(writes, bookingId, carer, booking);
             }
-        }
+        });
         
-        // Update the available shifts projection for this carer
-        viewProjectionService.updateAvailableShiftsForCarer(carerId, eligibleShifts);
+        // Send both sides as one pipelined batch
+        writes.flush();
     }
 
     private void updateEligibilityProjectionsForModifiedCarer(UUID carerId,
                                                              EligibilityRulesEngine.CarerProjection carer) {
-        // Remove this carer from all projections first
-        viewProjectionService.removeCarerProjections(carerId);
+        // Remove this carer from the projections that reference them first
+        viewProjectionService.clearCarerEligibility(carerId);
         
         // Then recalculate eligibility as if it's a new carer
         updateEligibilityProjectionsForNewCarer(carerId, carer);
     }
 
-    private boolean updateCarerProjectionWithChanges(EligibilityRulesEngine.CarerProjection carer,
-                                                    CarerUpdated event) {
+    /**
+     * A more permissive carer can only gain shifts, so only the grade candidates that are
+     * not already in the carer's available shifts are evaluated
+     */
+    private void addNewlyEligibleShifts(UUID carerId, EligibilityRulesEngine.CarerProjection carer) {
+        Set<UUID> currentBookingIds = viewProjectionService.getAvailableShiftIdsForCarer(carerId);
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("CarerUpdated");
+        
+        viewProjectionService.forEachBookingWithGrade(carer.getGrade(), (bookingId, booking) -> {
+            if (booking == null || currentBookingIds.contains(bookingId)) {
+                return;
+            }
+            if (eligibilityVerdictCache.isCarerEligibleForBooking(carer, booking)) {
+                if (isOpenTo(booking, carerId)) {
+                    writes.addShiftForCarer(carerId, createEligibleShiftDto(booking, carer));
+                }
+                addCarerToBookingEligibleCarers(writes, bookingId, carer, booking);
+            }
+        });
+        writes.flush();
+        
+        // Existing entries stay eligible but show the carer's old details
+        refreshCarerEntries(carer, viewProjectionService.getShiftsWithEligibleCarer(carerId));
+    }
+
+    /**
+     * A more restrictive carer can only lose shifts, so only the shifts currently
+     * available to the carer or listing them as eligible are re-checked. Shifts booked by
+     * someone else list the carer without being in their available shifts.
+     */
+    private void removeNoLongerEligibleShifts(UUID carerId, EligibilityRulesEngine.CarerProjection carer) {
+        Set<UUID> listedBookingIds = viewProjectionService.getShiftsWithEligibleCarer(carerId);
+        Set<UUID> currentBookingIds = new HashSet<>(viewProjectionService.getAvailableShiftIdsForCarer(carerId));
+        currentBookingIds.addAll(listedBookingIds);
+        Map<UUID, EligibilityRulesEngine.BookingProjection> bookings = 
+            viewProjectionService.getBookingData(currentBookingIds);
+        
+        ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("CarerUpdated");
+        Set<UUID> retainedBookingIds = new HashSet<>();
+        for (UUID bookingId : currentBookingIds) {
+            EligibilityRulesEngine.BookingProjection booking = bookings.get(bookingId);
+            if (booking != null && eligibilityVerdictCache.isCarerEligibleForBooking(carer, booking)) {
+                if (listedBookingIds.contains(bookingId)) {
+                    retainedBookingIds.add(bookingId);
+                }
+            } else {
+                writes.removeShiftForCarer(carerId, bookingId);
+                writes.removeCarerForShift(bookingId, carerId);
+            }
+        }
+        writes.flush();
+        
+        refreshCarerEntries(carer, retainedBookingIds);
+    }
+
+    /**
+     * Rewrites the carer's own details in the eligible carer entries of the given shifts,
+     * leaving the per-shift distance alone
+     */
+    private void refreshCarerEntries(EligibilityRulesEngine.CarerProjection carer, Set<UUID> bookingIds) {
+        // HashMap rather than Map.of, as cleared attributes are patched to null
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("firstName", carer.getFirstName());
+        attributes.put("lastName", carer.getLastName());
+        attributes.put("email", carer.getEmail());
+        attributes.put("phone", carer.getPhone());
+        attributes.put("qualifications", carer.getQualifications());
+        attributes.put("maxTravelDistance", carer.getMaxTravelDistance());
+        
+        for (UUID bookingId : bookingIds) {
+            viewProjectionService.patchCarerForShift(bookingId, carer.getCarerId(), attributes);
+        }
+    }
+
+    /**
+     * How a rule input moved: holding more qualifications is wider, fewer is narrower,
+     * and a swap that is neither a superset nor a subset is mixed
+     */
+    private static Delta compareQualifications(List<String> previous, List<String> current) {
+        Set<String> before = previous != null ? new HashSet<>(previous) : Set.of();
+        Set<String> after = current != null ? new HashSet<>(current) : Set.of();
+        if (before.equals(after)) {
+            return Delta.SAME;
+        }
+        if (after.containsAll(before)) {
+            return Delta.WIDER;
+        }
+        if (before.containsAll(after)) {
+            return Delta.NARROWER;
+        }
+        return Delta.MIXED;
+    }
+
+    /**
+     * How the travel limit moved, where null means unlimited
+     */
+    private static Delta compareTravelLimits(Integer previous, Integer current) {
+        if (Objects.equals(previous, current)) {
+            return Delta.SAME;
+        }
+        if (current == null || (previous != null && current > previous)) {
+            return Delta.WIDER;
+        }
+        return Delta.NARROWER;
+    }
+
+    private enum Delta {
+        SAME, WIDER, NARROWER, MIXED;
+        
+        boolean atLeastAsPermissive() {
+            return this == SAME || this == WIDER;
+        }
+        
+        boolean atMostAsPermissive() {
+            return this == SAME || this == NARROWER;
+        }
+    }
+
+    boolean updateCarerProjectionWithChanges(EligibilityRulesEngine.CarerProjection carer,
+                                            CarerUpdated event) {
         boolean significantChange = false;
         
         for (var entry : event.getChangedFields().entrySet()) {
@@ -189,24 +353,19 @@ public class CarerEventHandler {
         return significantChange;
     }
 
-    private void addCarerToBookingEligibleCarers(UUID bookingId, 
+    private static boolean isOpenTo(EligibilityRulesEngine.BookingProjection booking, UUID carerId) {
+        return booking.getAssignedCarerId() == null || booking.getAssignedCarerId().equals(carerId);
+    }
+
+    private void addCarerToBookingEligibleCarers(ProjectionFanOutWriter.Batch writes, UUID bookingId, 
                                                 EligibilityRulesEngine.CarerProjection carer,
                                                 EligibilityRulesEngine.BookingProjection booking) {
-        List<com.healthcare.staffing.shared.dto.EligibleCarerDto> eligibleCarers = 
-            viewProjectionService.getEligibleCarersForShift(bookingId);
-        
-        // Create new carer DTO
-        com.healthcare.staffing.shared.dto.EligibleCarerDto carerDto = createEligibleCarerDto(carer, booking);
-        
-        // Add to list if not already present
-        if (eligibleCarers.stream().noneMatch(c -> c.getCarerId().equals(carer.getCarerId()))) {
-            eligibleCarers.add(carerDto);
-            viewProjectionService.updateEligibleCarersForShift(bookingId, eligibleCarers);
-        }
+        // Added only if not already present
+        writes.addCarerForShift(bookingId, createEligibleCarerDto(carer, booking));
     }
 
-    private EligibleShiftDto createEligibleShiftDto(EligibilityRulesEngine.BookingProjection booking,
-                                                   EligibilityRulesEngine.CarerProjection carer) {
+    EligibleShiftDto createEligibleShiftDto(EligibilityRulesEngine.BookingProjection booking,
+                                           EligibilityRulesEngine.CarerProjection carer) {
         // Calculate distance for this specific carer
         double distance = calculateDistance(carer.getLocation(), booking.getLocation());
         
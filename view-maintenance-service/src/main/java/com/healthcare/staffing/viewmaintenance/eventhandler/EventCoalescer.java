@@ -0,0 +1,138 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.healthcare.staffing.shared.events.booking.BookingCancelled;
+import com.healthcare.staffing.shared.events.booking.BookingCreated;
+import com.healthcare.staffing.shared.events.booking.BookingEvent;
+import com.healthcare.staffing.shared.events.booking.BookingModified;
+import com.healthcare.staffing.shared.events.carer.CarerEvent;
+import com.healthcare.staffing.shared.events.carer.CarerUpdated;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collapses the events of one poll that are superseded by later events for the same
+ * booking or carer, so the projections are only updated for the net effect:
+ * <ul>
+ *   <li>a cancellation makes every earlier event for the booking redundant, and a booking
+ *       both created and cancelled within the batch disappears entirely</li>
+ *   <li>runs of BookingModified / CarerUpdated merge into one event carrying the first old
+ *       and the last new value of every field</li>
+ * </ul>
+ * Surviving events keep their original relative order; a merged event takes the position
+ * of the last event it replaces.
+ */
+public class EventCoalescer {
+
+    public List<Object> coalesce(List<Object> events) {
+        Map<String, List<Integer>> positionsByKey = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            String key = aggregateKey(events.get(i));
+            if (key != null) {
+                positionsByKey.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Object[] survivors = events.toArray();
+        for (List<Integer> positions : positionsByKey.values()) {
+            if (positions.size() > 1) {
+                coalesceAggregate(events, positions, survivors);
+            }
+        }
+
+        List<Object> coalesced = new ArrayList<>(events.size());
+        for (Object event : survivors) {
+            if (event != null) {
+                coalesced.add(event);
+            }
+        }
+        return coalesced;
+    }
+
+    private void coalesceAggregate(List<Object> events, List<Integer> positions, Object[] survivors) {
+        // Everything before the last cancellation is superseded by it
+        int lastCancel = -1;
+        for (int i = positions.size() - 1; i >= 0; i--) {
+            if (events.get(positions.get(i)) instanceof BookingCancelled) {
+                lastCancel = i;
+                break;
+            }
+        }
+        if (lastCancel >= 0) {
+            boolean createdInBatch = events.get(positions.get(0)) instanceof BookingCreated;
+            for (int i = 0; i < lastCancel; i++) {
+                survivors[positions.get(i)] = null;
+            }
+            if (createdInBatch) {
+                // Never reached the projections, so the cancellation has nothing to remove
+                survivors[positions.get(lastCancel)] = null;
+            }
+        }
+
+        // Merge runs of modifications that are not separated by another event for the aggregate
+        int runStart = -1;
+        for (int i = Math.max(lastCancel + 1, 0); i <= positions.size(); i++) {
+            boolean modification = i < positions.size() && isModification(events.get(positions.get(i)));
+            if (modification && runStart < 0) {
+                runStart = i;
+            } else if (!modification && runStart >= 0) {
+                if (i - runStart > 1) {
+                    mergeRun(events, positions.subList(runStart, i), survivors);
+                }
+                runStart = -1;
+            }
+        }
+    }
+
+    private void mergeRun(List<Object> events, List<Integer> run, Object[] survivors) {
+        Map<String, Object> mergedFields = new LinkedHashMap<>();
+        for (int position : run) {
+            for (Map.Entry<String, Object> change : changedFieldsOf(events.get(position)).entrySet()) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> values = (Map<String, Object>) change.getValue();
+                @SuppressWarnings("unchecked")
+                Map<String, Object> merged = (Map<String, Object>) mergedFields.get(change.getKey());
+                if (merged == null) {
+                    mergedFields.put(change.getKey(), new HashMap<>(values));
+                } else {
+                    merged.put("new", values.get("new"));
+                }
+            }
+            survivors[position] = null;
+        }
+
+        int last = run.get(run.size() - 1);
+        Object lastEvent = events.get(last);
+        if (lastEvent instanceof BookingModified modified) {
+            survivors[last] = new BookingModified(modified.getBookingId(), mergedFields,
+                modified.getModificationReason());
+        } else {
+            CarerUpdated updated = (CarerUpdated) lastEvent;
+            survivors[last] = new CarerUpdated(updated.getCarerId(), mergedFields, updated.getUpdateReason());
+        }
+    }
+
+    private static boolean isModification(Object event) {
+        return (event instanceof BookingModified modified && modified.getChangedFields() != null)
+            || (event instanceof CarerUpdated updated && updated.getChangedFields() != null);
+    }
+
+    private static Map<String, Object> changedFieldsOf(Object event) {
+        return event instanceof BookingModified modified
+            ? modified.getChangedFields()
+            : ((CarerUpdated) event).getChangedFields();
+    }
+
+    static String aggregateKey(Object event) {
+        if (event instanceof BookingEvent bookingEvent && bookingEvent.getBookingId() != null) {
+            return "booking:" + bookingEvent.getBookingId();
+        }
+        if (event instanceof CarerEvent carerEvent && carerEvent.getCarerId() != null) {
+            return "carer:" + carerEvent.getCarerId();
+        }
+        return null;
+    }
+}
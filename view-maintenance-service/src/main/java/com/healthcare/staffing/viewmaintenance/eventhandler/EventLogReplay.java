@@ -0,0 +1,124 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.PartitionInfo;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Reads ranges of the event topics outside the Kafka listeners, for the rebuild and the
+ * local state snapshot. Consumers are assigned every partition manually and never join
+ * the listeners' group; they only use it to read the committed offsets.
+ */
+final class EventLogReplay {
+
+    static final List<String> TOPICS = List.of("booking-events", "carer-events");
+    static final String CONSUMER_GROUP = "view-maintenance-service";
+
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+
+    /**
+     * Receives the value of every replayed record; null for tombstones
+     */
+    interface EventSink {
+        void apply(Object event);
+    }
+
+    /**
+     * Called after each poll with the number of records applied from it
+     */
+    interface BatchListener {
+        void afterBatch(int applied) throws InterruptedException;
+    }
+
+    private EventLogReplay() {
+    }
+
+    static Consumer<Object, Object> createConsumer(ConsumerFactory<Object, Object> consumerFactory, String clientIdSuffix) {
+        Properties overrides = new Properties();
+        overrides.setProperty(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, "false");
+        return consumerFactory.createConsumer(CONSUMER_GROUP, clientIdSuffix, null, overrides);
+    }
+
+    static List<TopicPartition> assignAll(Consumer<Object, Object> consumer) {
+        List<TopicPartition> partitions = new ArrayList<>();
+        for (String topic : TOPICS) {
+            for (PartitionInfo partitionInfo : consumer.partitionsFor(topic)) {
+                partitions.add(new TopicPartition(topic, partitionInfo.partition()));
+            }
+        }
+        consumer.assign(partitions);
+        return partitions;
+    }
+
+    /**
+     * The listeners' committed offset of every partition; partitions without a commit are
+     * left out
+     */
+    static Map<TopicPartition, Long> committedOffsets(Consumer<Object, Object> consumer, List<TopicPartition> partitions) {
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (Map.Entry<TopicPartition, OffsetAndMetadata> committed : consumer.committed(new HashSet<>(partitions)).entrySet()) {
+            if (committed.getValue() != null) {
+                offsets.put(committed.getKey(), committed.getValue().offset());
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * Applies records until every partition reaches its target offset, leaving the
+     * consumer positioned exactly at the targets
+     */
+    static void replay(Consumer<Object, Object> consumer, Map<TopicPartition, Long> targets,
+                       EventSink sink, BatchListener listener) throws InterruptedException {
+        Set<TopicPartition> remaining = new HashSet<>();
+        for (Map.Entry<TopicPartition, Long> target : targets.entrySet()) {
+            if (consumer.position(target.getKey()) < target.getValue()) {
+                remaining.add(target.getKey());
+            }
+        }
+        Set<TopicPartition> done = new HashSet<>(targets.keySet());
+        done.removeAll(remaining);
+        consumer.pause(done);
+
+        while (!remaining.isEmpty()) {
+            ConsumerRecords<Object, Object> records = consumer.poll(POLL_TIMEOUT);
+            int applied = 0;
+            for (TopicPartition partition : records.partitions()) {
+                long target = targets.get(partition);
+                for (ConsumerRecord<Object, Object> record : records.records(partition)) {
+                    if (record.offset() >= target) {
+                        // Fetched past the target; leave the rest for the next replay
+                        consumer.seek(partition, target);
+                        break;
+                    }
+                    sink.apply(record.value());
+                    applied++;
+                }
+            }
+            for (Iterator<TopicPartition> it = remaining.iterator(); it.hasNext(); ) {
+                TopicPartition partition = it.next();
+                if (consumer.position(partition) >= targets.get(partition)) {
+                    consumer.pause(List.of(partition));
+                    it.remove();
+                }
+            }
+            listener.afterBatch(applied);
+        }
+        consumer.resume(consumer.paused());
+    }
+}
@@ -0,0 +1,51 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Runs event work on a fixed set of single-threaded lanes. The lane is chosen from the
+ * aggregate key, so work for one booking or carer executes in submission order while
+ * different aggregates proceed in parallel.
+ */
+@Component
+@ConditionalOnProperty(prefix = "view-maintenance.consumer", name = "batch-enabled", havingValue = "true")
+public class KeyedEventExecutor {
+
+    private final ExecutorService[] lanes;
+
+    @Autowired
+    public KeyedEventExecutor(ViewMaintenanceProperties properties) {
+        this(properties.getConsumer().getLanes());
+    }
+
+    KeyedEventExecutor(int laneCount) {
+        this.lanes = new ExecutorService[Math.max(1, laneCount)];
+        for (int i = 0; i < lanes.length; i++) {
+            String threadName = "event-lane-" + i;
+            lanes[i] = Executors.newSingleThreadExecutor(task -> new Thread(task, threadName));
+        }
+    }
+
+    public CompletableFuture<Void> submit(String key, Runnable task) {
+        return CompletableFuture.runAsync(task, lanes[Math.floorMod(key.hashCode(), lanes.length)]);
+    }
+
+    public int getLaneCount() {
+        return lanes.length;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+    }
+}
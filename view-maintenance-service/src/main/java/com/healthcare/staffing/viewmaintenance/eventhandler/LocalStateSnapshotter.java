@@ -0,0 +1,206 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.healthcare.staffing.shared.events.booking.BookingBooked;
+import com.healthcare.staffing.shared.events.booking.BookingEvent;
+import com.healthcare.staffing.shared.events.booking.BookingPullout;
+import com.healthcare.staffing.shared.events.carer.CarerEvent;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityGraph;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityGraphSnapshot;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionNamespace;
+import com.healthcare.staffing.viewmaintenance.service.ViewProjectionService;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the in-memory eligibility graph to a snapshot file periodically and once more
+ * after the listeners stopped, and restores it before they start:
+ * <ol>
+ *   <li>read the snapshot, which records the listeners' committed offsets at the time</li>
+ *   <li>replay the events between those offsets and the currently committed ones, only
+ *       to collect the carers and bookings they name</li>
+ *   <li>re-read just those entities from Redis</li>
+ * </ol>
+ * Redis remains the source of truth; whenever the snapshot is missing, belongs to another
+ * namespace or its offsets left the retained log, the graph is loaded from Redis in full.
+ * Runs in a lifecycle phase before the Kafka listener containers, so it starts before and
+ * stops after them. Assumes a single view-maintenance instance, like the local state itself.
+ */
+@Component
+@ConditionalOnProperty(prefix = "view-maintenance.local-state.snapshot", name = "enabled", havingValue = "true")
+public class LocalStateSnapshotter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalStateSnapshotter.class);
+
+    // Listener containers start in SmartLifecycle.DEFAULT_PHASE - 100
+    private static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 200;
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final EligibilityGraph eligibilityGraph;
+    private final ViewProjectionService viewProjectionService;
+    private final ProjectionNamespace projectionNamespace;
+    private final ViewMaintenanceProperties.LocalState.Snapshot properties;
+
+    private ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    @Autowired
+    public LocalStateSnapshotter(ConsumerFactory<Object, Object> consumerFactory,
+                                 EligibilityGraph eligibilityGraph,
+                                 ViewProjectionService viewProjectionService,
+                                 ProjectionNamespace projectionNamespace,
+                                 ViewMaintenanceProperties properties) {
+        this.consumerFactory = consumerFactory;
+        this.eligibilityGraph = eligibilityGraph;
+        this.viewProjectionService = viewProjectionService;
+        this.projectionNamespace = projectionNamespace;
+        this.properties = properties.getLocalState().getSnapshot();
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (!eligibilityGraph.isEnabled()) {
+            log.warn("Local state snapshots are enabled but local state is not; nothing to snapshot");
+            return;
+        }
+        restore();
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> new Thread(r, "local-state-snapshot"));
+        scheduler.scheduleWithFixedDelay(this::writeSnapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+            try {
+                scheduler.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // The listeners have stopped and committed, so this snapshot needs no catch-up
+            writeSnapshot();
+            scheduler = null;
+        }
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Restores the graph from the snapshot and refreshes what changed since, falling back
+     * to a full load from Redis
+     */
+    private void restore() {
+        Path path = Path.of(properties.getPath());
+        if (Files.exists(path)) {
+            try (Consumer<Object, Object> consumer = EventLogReplay.createConsumer(consumerFactory, "local-state-restore")) {
+                EligibilityGraphSnapshot snapshot = EligibilityGraphSnapshot.read(eligibilityGraph, path);
+                String activeNamespace = projectionNamespace.getActive();
+                if (!snapshot.getNamespace().equals(activeNamespace)) {
+                    throw new IllegalStateException("Snapshot is of namespace '" + snapshot.getNamespace()
+                        + "' while '" + activeNamespace + "' is active");
+                }
+
+                List<TopicPartition> partitions = EventLogReplay.assignAll(consumer);
+                Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+                Map<TopicPartition, Long> committed = EventLogReplay.committedOffsets(consumer, partitions);
+                Map<TopicPartition, Long> targets = new HashMap<>();
+                for (TopicPartition partition : partitions) {
+                    long beginning = beginningOffsets.get(partition);
+                    long from = snapshot.getOffsets().getOrDefault(partition, beginning);
+                    long to = committed.getOrDefault(partition, from);
+                    if (from < beginning || from > to) {
+                        throw new IllegalStateException("Snapshot offset " + from + " of " + partition
+                            + " is outside the retained log [" + beginning + ", " + to + "]");
+                    }
+                    consumer.seek(partition, from);
+                    targets.put(partition, to);
+                }
+
+                Set<UUID> carerIds = new HashSet<>();
+                Set<UUID> bookingIds = new HashSet<>();
+                EventLogReplay.replay(consumer, targets, event -> collectIds(event, carerIds, bookingIds), applied -> { });
+                viewProjectionService.refreshLocalState(carerIds, bookingIds);
+                log.info("Restored eligibility graph from snapshot {}", path);
+                return;
+            } catch (Exception e) {
+                log.warn("Failed to restore eligibility graph from snapshot {}, loading it from Redis", path, e);
+            }
+        }
+        viewProjectionService.reloadLocalState();
+    }
+
+    private static void collectIds(Object event, Set<UUID> carerIds, Set<UUID> bookingIds) {
+        if (event instanceof BookingEvent bookingEvent) {
+            bookingIds.add(bookingEvent.getBookingId());
+        }
+        if (event instanceof BookingBooked booked) {
+            carerIds.add(booked.getCarerId());
+        } else if (event instanceof BookingPullout pullout) {
+            carerIds.add(pullout.getCarerId());
+        } else if (event instanceof CarerEvent carerEvent) {
+            carerIds.add(carerEvent.getCarerId());
+        }
+    }
+
+    /**
+     * Writes a snapshot next to the current one and moves it into place. The committed
+     * offsets are read first, so every event below them is already in the graph; the
+     * snapshot is discarded if the graph was reloaded or the namespace switched meanwhile.
+     */
+    private synchronized void writeSnapshot() {
+        if (!eligibilityGraph.isActive()) {
+            return;
+        }
+        Path path = Path.of(properties.getPath()).toAbsolutePath();
+        Path tempPath = path.resolveSibling(path.getFileName() + ".tmp");
+        try (Consumer<Object, Object> consumer = EventLogReplay.createConsumer(consumerFactory, "local-state-snapshot")) {
+            List<TopicPartition> partitions = EventLogReplay.assignAll(consumer);
+            Map<TopicPartition, Long> offsets = EventLogReplay.committedOffsets(consumer, partitions);
+            String namespace = projectionNamespace.getActive();
+
+            long startNanos = System.nanoTime();
+            Files.createDirectories(path.getParent());
+            EligibilityGraphSnapshot.write(eligibilityGraph, tempPath, namespace, offsets);
+            if (!eligibilityGraph.isActive() || !namespace.equals(projectionNamespace.getActive())) {
+                Files.deleteIfExists(tempPath);
+                return;
+            }
+            Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote eligibility graph snapshot {} ({} bytes) in {} ms", path, Files.size(path),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        } catch (Exception e) {
+            log.warn("Failed to write eligibility graph snapshot {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Tracks which records of a batch are still being applied. The committable offset of a
+ * partition is its lowest unfinished offset, so a commit never skips an event that a
+ * slower lane has not applied yet.
+ */
+class PartitionOffsetTracker {
+
+    private final Map<TopicPartition, TreeSet<Long>> pendingOffsets = new HashMap<>();
+    private final Map<TopicPartition, Long> nextOffsets = new HashMap<>();
+    private final Map<TopicPartition, Long> committedOffsets = new HashMap<>();
+
+    synchronized void register(TopicPartition partition, long offset) {
+        pendingOffsets.computeIfAbsent(partition, p -> new TreeSet<>()).add(offset);
+        nextOffsets.merge(partition, offset + 1, Math::max);
+    }
+
+    synchronized void complete(TopicPartition partition, long offset) {
+        TreeSet<Long> pending = pendingOffsets.get(partition);
+        if (pending != null) {
+            pending.remove(offset);
+        }
+    }
+
+    /**
+     * Offsets that can be committed now and have not been returned by an earlier call
+     */
+    synchronized Map<TopicPartition, OffsetAndMetadata> takeCommittableOffsets() {
+        Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>();
+        for (Map.Entry<TopicPartition, TreeSet<Long>> entry : pendingOffsets.entrySet()) {
+            TopicPartition partition = entry.getKey();
+            long offset = entry.getValue().isEmpty() ? nextOffsets.get(partition) : entry.getValue().first();
+            Long committed = committedOffsets.get(partition);
+            if (committed == null || offset > committed) {
+                committable.put(partition, new OffsetAndMetadata(offset));
+                committedOffsets.put(partition, offset);
+            }
+        }
+        return committable;
+    }
+}
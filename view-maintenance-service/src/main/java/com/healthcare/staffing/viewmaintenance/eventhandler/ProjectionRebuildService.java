@@ -0,0 +1,576 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.staffing.shared.dto.EligibleCarerDto;
+import com.healthcare.staffing.shared.dto.EligibleShiftDto;
+import com.healthcare.staffing.shared.events.booking.BookingBooked;
+import com.healthcare.staffing.shared.events.booking.BookingCancelled;
+import com.healthcare.staffing.shared.events.booking.BookingCreated;
+import com.healthcare.staffing.shared.events.booking.BookingModified;
+import com.healthcare.staffing.shared.events.booking.BookingPullout;
+import com.healthcare.staffing.shared.events.carer.CarerUpdated;
+import com.healthcare.staffing.shared.events.carer.NewCarer;
+import com.healthcare.staffing.viewmaintenance.config.NamespacedKeySerializer;
+import com.healthcare.staffing.viewmaintenance.config.ProjectionRedisConfig;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityGraph;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityRulesEngine;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityVerdictCache;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionDataCache;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionNamespace;
+import com.healthcare.staffing.viewmaintenance.service.ViewProjectionService;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds every projection from the event log into a fresh key namespace while the
+ * listeners keep maintaining the active one, then switches over. Unlike the per-event
+ * handlers, the replay only folds the events into the latest carer and booking state in
+ * memory; eligibility is then computed for all bookings at once on a fork-join pool and
+ * each projection is written exactly once:
+ * <ol>
+ *   <li>replay both topics from the beginning up to their end offsets at the start,
+ *       throttled to the requested events per second</li>
+ *   <li>compute the eligible carers of every booking in parallel and write all
+ *       projections into the new namespace</li>
+ *   <li>stop the listeners, replay the tail they applied meanwhile, rewrite only the
+ *       projections it changed, switch the namespace pointer and restart the listeners</li>
+ * </ol>
+ * Reads are served from the old namespace until the pointer moves. Assumes a single
+ * view-maintenance instance; other instances keep writing the old namespace until restarted.
+ */
+@Component
+public class ProjectionRebuildService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionRebuildService.class);
+
+    // Time given to read-api-service to follow the pointer before the old keys are deleted
+    private static final long OLD_NAMESPACE_GRACE_SECONDS = 10;
+    private static final int DELETE_BATCH_SIZE = 500;
+
+    private final ConsumerFactory<Object, Object> consumerFactory;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+    private final ViewMaintenanceProperties properties;
+    private final ProjectionNamespace projectionNamespace;
+    private final ViewProjectionService viewProjectionService;
+    private final EligibilityVerdictCache eligibilityVerdictCache;
+    private final EligibilityRulesEngine eligibilityRulesEngine;
+    private final BookingEventHandler bookingEventHandler;
+    private final CarerEventHandler carerEventHandler;
+
+    // Plain template for deleting whole namespaces
+    private final StringRedisTemplate redisTemplate;
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> new Thread(r, "projection-rebuild"));
+    private volatile RebuildStatus status = new RebuildStatus();
+
+    @Autowired
+    public ProjectionRebuildService(ConsumerFactory<Object, Object> consumerFactory,
+                                    KafkaListenerEndpointRegistry listenerRegistry,
+                                    RedisConnectionFactory connectionFactory,
+                                    ObjectMapper objectMapper,
+                                    ViewMaintenanceProperties properties,
+                                    ProjectionNamespace projectionNamespace,
+                                    ViewProjectionService viewProjectionService,
+                                    EligibilityVerdictCache eligibilityVerdictCache,
+                                    EligibilityRulesEngine eligibilityRulesEngine,
+                                    BookingEventHandler bookingEventHandler,
+                                    CarerEventHandler carerEventHandler) {
+        this.consumerFactory = consumerFactory;
+        this.listenerRegistry = listenerRegistry;
+        this.connectionFactory = connectionFactory;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.projectionNamespace = projectionNamespace;
+        this.viewProjectionService = viewProjectionService;
+        this.eligibilityVerdictCache = eligibilityVerdictCache;
+        this.eligibilityRulesEngine = eligibilityRulesEngine;
+        this.bookingEventHandler = bookingEventHandler;
+        this.carerEventHandler = carerEventHandler;
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    /**
+     * Starts a rebuild into a new namespace in the background. Throws IllegalStateException
+     * if one is already running.
+     */
+    public synchronized RebuildStatus start(Integer maxEventsPerSecond) {
+        if (status.isRunning()) {
+            throw new IllegalStateException("A projection rebuild into namespace '" + status.getNamespace()
+                + "' is already running");
+        }
+        RebuildStatus rebuild = new RebuildStatus(projectionNamespace.allocate(),
+            maxEventsPerSecond != null ? maxEventsPerSecond : properties.getRebuild().getMaxEventsPerSecond());
+        rebuild.setPhase(RebuildStatus.Phase.REPLAYING);
+        status = rebuild;
+        executor.submit(() -> run(rebuild));
+        log.info("Started projection rebuild into namespace '{}'", rebuild.getNamespace());
+        return rebuild;
+    }
+
+    public RebuildStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * Changes the replay rate of the running rebuild; 0 removes the limit
+     */
+    public RebuildStatus setMaxEventsPerSecond(int maxEventsPerSecond) {
+        RebuildStatus current = status;
+        current.setMaxEventsPerSecond(maxEventsPerSecond);
+        return current;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(RebuildStatus rebuild) {
+        int parallelism = properties.getRebuild().getParallelism();
+        ForkJoinPool pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        try (Consumer<Object, Object> consumer = EventLogReplay.createConsumer(consumerFactory, "projection-rebuild")) {
+            ViewProjectionService shadow = shadowProjectionService(rebuild.getNamespace());
+            ReplayState state = new ReplayState();
+
+            // 1. Fold the log as it stood at the start
+            List<TopicPartition> partitions = EventLogReplay.assignAll(consumer);
+            consumer.seekToBeginning(partitions);
+            Map<TopicPartition, Long> beginningOffsets = consumer.beginningOffsets(partitions);
+            Map<TopicPartition, Long> endOffsets = consumer.endOffsets(partitions);
+            long eventsToReplay = 0;
+            for (TopicPartition partition : partitions) {
+                eventsToReplay += endOffsets.get(partition) - beginningOffsets.get(partition);
+            }
+            rebuild.setEventsToReplay(eventsToReplay);
+            replay(consumer, endOffsets, state, rebuild);
+
+            // 2. Compute all eligibility at once and write every projection
+            rebuild.setPhase(RebuildStatus.Phase.COMPUTING);
+            Map<UUID, Set<UUID>> eligibleCarers = computeEligibleCarers(state, pool);
+            Map<UUID, Set<UUID>> availableShifts = availableShiftsOf(state, eligibleCarers);
+            rebuild.setCounts(state.carers.size(), state.bookings.size(),
+                eligibleCarers.values().stream().mapToLong(Set::size).sum());
+
+            rebuild.setPhase(RebuildStatus.Phase.WRITING);
+            writeProjections(shadow, state, eligibleCarers, availableShifts, state.bookings.keySet(),
+                state.carers.keySet(), pool);
+            rebuild.setProjectionsWritten(state.bookings.size() + state.carers.size());
+            shadow.markIndexesBuilt();
+
+            // 3. Catch up with the listeners and switch
+            rebuild.setPhase(RebuildStatus.Phase.CATCHING_UP);
+            String previousNamespace = cutOver(consumer, partitions, shadow, state, eligibleCarers, availableShifts,
+                pool, rebuild);
+            rebuild.complete();
+            log.info("Rebuilt projections into namespace '{}': {} carers, {} bookings from {} events",
+                rebuild.getNamespace(), rebuild.getCarers(), rebuild.getBookings(), rebuild.getEventsReplayed());
+
+            if (!previousNamespace.isEmpty() && properties.getRebuild().isDeleteOldNamespace()) {
+                TimeUnit.SECONDS.sleep(OLD_NAMESPACE_GRACE_SECONDS);
+                deleteNamespace(previousNamespace);
+            }
+        } catch (Exception e) {
+            log.error("Projection rebuild into namespace '{}' failed", rebuild.getNamespace(), e);
+            if (rebuild.isRunning()) {
+                rebuild.fail(e.getMessage());
+                if (!rebuild.getNamespace().equals(projectionNamespace.getActive())) {
+                    deleteNamespace(rebuild.getNamespace());
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Stops the listeners, applies the events they consumed since the snapshot to the new
+     * namespace and makes it the active one. Returns the namespace that was replaced.
+     */
+    String cutOver(Consumer<Object, Object> consumer, List<TopicPartition> partitions,
+                   ViewProjectionService shadow, ReplayState state,
+                   Map<UUID, Set<UUID>> eligibleCarers, Map<UUID, Set<UUID>> availableShifts,
+                   ForkJoinPool pool, RebuildStatus rebuild) throws InterruptedException {
+        List<MessageListenerContainer> stoppedContainers = stopListeners();
+        try {
+            // The listeners stopped at their committed offsets; replay up to those
+            Map<TopicPartition, Long> committed = EventLogReplay.committedOffsets(consumer, partitions);
+            Map<TopicPartition, Long> targets = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                targets.put(partition, committed.getOrDefault(partition, 0L));
+            }
+            state.tracking = true;
+            replay(consumer, targets, state, rebuild);
+
+            // Where the listeners lagged behind the snapshot, move them past it
+            Map<TopicPartition, OffsetAndMetadata> commits = new HashMap<>();
+            for (TopicPartition partition : partitions) {
+                long position = consumer.position(partition);
+                if (position > targets.get(partition)) {
+                    commits.put(partition, new OffsetAndMetadata(position));
+                }
+            }
+            if (!commits.isEmpty()) {
+                consumer.commitSync(commits);
+            }
+
+            writeChanges(shadow, state, eligibleCarers, availableShifts, pool, rebuild);
+
+            String previousNamespace = projectionNamespace.getActive();
+            projectionNamespace.activate(rebuild.getNamespace());
+            viewProjectionService.reloadLocalState();
+            return previousNamespace;
+        } finally {
+            stoppedContainers.forEach(MessageListenerContainer::start);
+        }
+    }
+
+    /**
+     * Rewrites the projections the tail changed: the entities it touched, the bookings
+     * whose eligible carers and the carers whose available shifts differ from what was
+     * written, and the entries embedding the details of a touched entity
+     */
+    private void writeChanges(ViewProjectionService shadow, ReplayState state,
+                              Map<UUID, Set<UUID>> writtenEligibleCarers, Map<UUID, Set<UUID>> writtenAvailableShifts,
+                              ForkJoinPool pool, RebuildStatus rebuild) {
+        Map<UUID, Set<UUID>> eligibleCarers = computeEligibleCarers(state, pool);
+        Map<UUID, Set<UUID>> availableShifts = availableShiftsOf(state, eligibleCarers);
+
+        Set<UUID> bookingIds = new HashSet<>();
+        Set<UUID> carerIds = new HashSet<>(state.carersAsWritten.keySet());
+        for (UUID bookingId : state.bookingsAsWritten.keySet()) {
+            if (state.bookings.containsKey(bookingId)) {
+                bookingIds.add(bookingId);
+                carerIds.addAll(eligibleCarers.get(bookingId));
+            } else {
+                shadow.removeBookingProjections(bookingId);
+            }
+        }
+        eligibleCarers.forEach((bookingId, carers) -> {
+            if (!carers.equals(writtenEligibleCarers.get(bookingId))
+                    || !Collections.disjoint(carers, state.carersAsWritten.keySet())) {
+                bookingIds.add(bookingId);
+            }
+        });
+        availableShifts.forEach((carerId, shifts) -> {
+            if (!shifts.equals(writtenAvailableShifts.get(carerId))) {
+                carerIds.add(carerId);
+            }
+        });
+        // Updates to carers that were never created leave nothing to write
+        carerIds.retainAll(state.carers.keySet());
+
+        writeProjections(shadow, state, eligibleCarers, availableShifts, bookingIds, carerIds, pool);
+        rebuild.setCounts(state.carers.size(), state.bookings.size(),
+            eligibleCarers.values().stream().mapToLong(Set::size).sum());
+        rebuild.setProjectionsWritten(rebuild.getProjectionsWritten() + bookingIds.size() + carerIds.size());
+        log.info("Caught up projection rebuild: rewrote {} bookings and {} carers changed by {} tail events",
+            bookingIds.size(), carerIds.size(), state.bookingsAsWritten.size() + state.carersAsWritten.size());
+    }
+
+    /**
+     * Applies records until every partition reaches its target offset, throttled to the
+     * rebuild's replay rate
+     */
+    private void replay(Consumer<Object, Object> consumer, Map<TopicPartition, Long> targets,
+                        ReplayState state, RebuildStatus rebuild) throws InterruptedException {
+        long[] scheduledNanos = {System.nanoTime()};
+        EventLogReplay.replay(consumer, targets, event -> {
+            if (event != null) {
+                state.apply(event);
+            }
+        }, applied -> {
+            rebuild.addEventsReplayed(applied);
+            scheduledNanos[0] = throttle(scheduledNanos[0], applied, rebuild.getMaxEventsPerSecond());
+        });
+    }
+
+    /**
+     * Sleeps while the replay is ahead of the allowed rate, read afresh each time so it can
+     * be changed while running. Idle or unthrottled time earns at most a second of credit.
+     */
+    private static long throttle(long scheduledNanos, int events, int maxEventsPerSecond) throws InterruptedException {
+        long now = System.nanoTime();
+        if (maxEventsPerSecond <= 0) {
+            return now;
+        }
+        long next = Math.max(scheduledNanos, now - TimeUnit.SECONDS.toNanos(1))
+            + events * TimeUnit.SECONDS.toNanos(1) / maxEventsPerSecond;
+        if (next > now) {
+            TimeUnit.NANOSECONDS.sleep(next - now);
+        }
+        return next;
+    }
+
+    /**
+     * The eligible carers of every booking: carers passing the rules that are not assigned
+     * to another booking overlapping it, as the live handlers maintain them
+     */
+    Map<UUID, Set<UUID>> computeEligibleCarers(ReplayState state, ForkJoinPool pool) {
+        Map<String, List<EligibilityRulesEngine.CarerProjection>> carersByGrade = new HashMap<>();
+        for (EligibilityRulesEngine.CarerProjection carer : state.carers.values()) {
+            carersByGrade.computeIfAbsent(carer.getGrade(), grade -> new ArrayList<>()).add(carer);
+        }
+        Map<UUID, List<EligibilityRulesEngine.BookingProjection>> assignedBookings = new HashMap<>();
+        for (EligibilityRulesEngine.BookingProjection booking : state.bookings.values()) {
+            if (booking.getAssignedCarerId() != null) {
+                assignedBookings.computeIfAbsent(booking.getAssignedCarerId(), id -> new ArrayList<>()).add(booking);
+            }
+        }
+
+        Map<UUID, Set<UUID>> eligibleCarers = new ConcurrentHashMap<>();
+        pool.submit(() -> state.bookings.values().parallelStream().forEach(booking -> {
+            Set<UUID> carerIds = new HashSet<>();
+            for (EligibilityRulesEngine.CarerProjection carer : carersByGrade.getOrDefault(booking.getGrade(), List.of())) {
+                if (eligibilityVerdictCache.isCarerEligibleForBooking(carer, booking)
+                        && !hasConflict(booking, assignedBookings.getOrDefault(carer.getCarerId(), List.of()))) {
+                    carerIds.add(carer.getCarerId());
+                }
+            }
+            eligibleCarers.put(booking.getBookingId(), carerIds);
+        })).join();
+        return eligibleCarers;
+    }
+
+    private boolean hasConflict(EligibilityRulesEngine.BookingProjection booking,
+                                List<EligibilityRulesEngine.BookingProjection> assignedBookings) {
+        for (EligibilityRulesEngine.BookingProjection assigned : assignedBookings) {
+            if (!assigned.getBookingId().equals(booking.getBookingId())
+                    && assigned.getStartTime() != null && booking.getStartTime() != null
+                    && bookingEventHandler.hasTimeOverlap(assigned, booking)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The available shifts of every carer: the open bookings listing them as eligible,
+     * plus the bookings assigned to them
+     */
+    static Map<UUID, Set<UUID>> availableShiftsOf(ReplayState state, Map<UUID, Set<UUID>> eligibleCarers) {
+        Map<UUID, Set<UUID>> availableShifts = new HashMap<>();
+        for (UUID carerId : state.carers.keySet()) {
+            availableShifts.put(carerId, new HashSet<>());
+        }
+        eligibleCarers.forEach((bookingId, carerIds) -> {
+            UUID assignedCarerId = state.bookings.get(bookingId).getAssignedCarerId();
+            for (UUID carerId : carerIds) {
+                if (assignedCarerId == null || assignedCarerId.equals(carerId)) {
+                    availableShifts.get(carerId).add(bookingId);
+                }
+            }
+        });
+        return availableShifts;
+    }
+
+    private void writeProjections(ViewProjectionService shadow, ReplayState state,
+                                  Map<UUID, Set<UUID>> eligibleCarers, Map<UUID, Set<UUID>> availableShifts,
+                                  Collection<UUID> bookingIds, Collection<UUID> carerIds, ForkJoinPool pool) {
+        pool.submit(() -> {
+            bookingIds.parallelStream().forEach(bookingId ->
+                writeBooking(shadow, state, state.bookings.get(bookingId), eligibleCarers.get(bookingId)));
+            carerIds.parallelStream().forEach(carerId ->
+                writeCarer(shadow, state, state.carers.get(carerId), availableShifts.get(carerId)));
+        }).join();
+    }
+
+    private void writeBooking(ViewProjectionService shadow, ReplayState state,
+                              EligibilityRulesEngine.BookingProjection booking, Set<UUID> carerIds) {
+        UUID bookingId = booking.getBookingId();
+        if (state.isBookingChanged(bookingId)) {
+            EligibilityRulesEngine.BookingProjection written = state.bookingsAsWritten.get(bookingId);
+            if (written != null && !Objects.equals(written.getGrade(), booking.getGrade())) {
+                shadow.unindexBookingGrade(bookingId, written.getGrade());
+            }
+            if (written != null && written.getStartTime() != null
+                    && (!Objects.equals(written.getStartTime(), booking.getStartTime())
+                        || !Objects.equals(written.getEndTime(), booking.getEndTime()))) {
+                shadow.unindexBookingInterval(bookingId, written.getStartTime(), written.getEndTime());
+            }
+            shadow.storeBookingData(bookingId, booking);
+            shadow.storeBookingSummary(bookingEventHandler.createBookingSummary(booking,
+                booking.getAssignedCarerId() != null ? "BOOKED" : "OPEN"));
+        }
+
+        List<EligibleCarerDto> entries = new ArrayList<>();
+        for (UUID carerId : carerIds) {
+            entries.add(bookingEventHandler.createEligibleCarerDto(state.carers.get(carerId), booking));
+        }
+        shadow.updateEligibleCarersForShift(bookingId, entries);
+    }
+
+    private void writeCarer(ViewProjectionService shadow, ReplayState state,
+                            EligibilityRulesEngine.CarerProjection carer, Set<UUID> bookingIds) {
+        UUID carerId = carer.getCarerId();
+        if (state.isCarerChanged(carerId)) {
+            EligibilityRulesEngine.CarerProjection written = state.carersAsWritten.get(carerId);
+            if (written != null && !Objects.equals(written.getGrade(), carer.getGrade())) {
+                shadow.unindexCarerGrade(carerId, written.getGrade());
+            }
+            shadow.storeCarerData(carerId, carer);
+        }
+
+        List<EligibleShiftDto> entries = new ArrayList<>();
+        for (UUID bookingId : bookingIds) {
+            entries.add(carerEventHandler.createEligibleShiftDto(state.bookings.get(bookingId), carer));
+        }
+        shadow.updateAvailableShiftsForCarer(carerId, entries);
+    }
+
+    /**
+     * A projection service of its own writing into the namespace being built
+     */
+    private ViewProjectionService shadowProjectionService(String namespace) {
+        StringRedisTemplate template = ProjectionRedisConfig.namespacedTemplate(connectionFactory,
+            new NamespacedKeySerializer(() -> namespace));
+        // Local state stays off: the rebuild already holds everything in memory
+        EligibilityGraph eligibilityGraph = new EligibilityGraph(new ViewMaintenanceProperties(), eligibilityRulesEngine);
+        ProjectionDataCache dataCache = new ProjectionDataCache(properties.getDataCache().getMaxEntries(),
+            properties.getDataCache().getTtl());
+        return new ViewProjectionService(template, objectMapper, properties, eligibilityGraph, dataCache);
+    }
+
+    private List<MessageListenerContainer> stopListeners() {
+        List<MessageListenerContainer> stopped = new ArrayList<>();
+        for (MessageListenerContainer container : listenerRegistry.getListenerContainers()) {
+            if (container.isRunning()) {
+                container.stop();
+                stopped.add(container);
+            }
+        }
+        return stopped;
+    }
+
+    /**
+     * Deletes every key of a namespace with incremental SCAN and UNLINK
+     */
+    private void deleteNamespace(String namespace) {
+        ScanOptions options = ScanOptions.scanOptions().match(namespace + "*").count(DELETE_BATCH_SIZE).build();
+        List<String> keys = new ArrayList<>();
+        long deleted = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                keys.add(cursor.next());
+                if (keys.size() == DELETE_BATCH_SIZE) {
+                    deleted += redisTemplate.unlink(keys);
+                    keys.clear();
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to delete projection namespace '{}'", namespace, e);
+            return;
+        }
+        if (!keys.isEmpty()) {
+            deleted += redisTemplate.unlink(keys);
+        }
+        log.info("Deleted {} keys of projection namespace '{}'", deleted, namespace);
+    }
+
+    /**
+     * Latest carer and booking state folded from the log. Once tracking, the state each
+     * entity had when first touched is kept (null if it did not exist), so the changes
+     * made after the snapshot was written can be found and their index entries moved.
+     */
+    final class ReplayState {
+
+        final Map<UUID, EligibilityRulesEngine.CarerProjection> carers = new HashMap<>();
+        final Map<UUID, EligibilityRulesEngine.BookingProjection> bookings = new HashMap<>();
+        final Map<UUID, EligibilityRulesEngine.CarerProjection> carersAsWritten = new HashMap<>();
+        final Map<UUID, EligibilityRulesEngine.BookingProjection> bookingsAsWritten = new HashMap<>();
+        boolean tracking;
+
+        void apply(Object event) {
+            if (event instanceof NewCarer newCarer) {
+                touchCarer(newCarer.getCarerId());
+                carers.put(newCarer.getCarerId(), CarerEventHandler.carerProjectionOf(newCarer));
+            } else if (event instanceof CarerUpdated carerUpdated) {
+                EligibilityRulesEngine.CarerProjection carer = touchCarer(carerUpdated.getCarerId());
+                if (carer != null) {
+                    carerEventHandler.updateCarerProjectionWithChanges(carer, carerUpdated);
+                }
+            } else if (event instanceof BookingCreated bookingCreated) {
+                touchBooking(bookingCreated.getBookingId());
+                bookings.put(bookingCreated.getBookingId(), BookingEventHandler.bookingProjectionOf(bookingCreated));
+            } else if (event instanceof BookingModified bookingModified) {
+                EligibilityRulesEngine.BookingProjection booking = touchBooking(bookingModified.getBookingId());
+                if (booking != null) {
+                    bookingEventHandler.updateBookingProjectionWithChanges(booking, bookingModified);
+                }
+            } else if (event instanceof BookingCancelled bookingCancelled) {
+                touchBooking(bookingCancelled.getBookingId());
+                bookings.remove(bookingCancelled.getBookingId());
+            } else if (event instanceof BookingBooked bookingBooked) {
+                EligibilityRulesEngine.BookingProjection booking = touchBooking(bookingBooked.getBookingId());
+                if (booking != null) {
+                    booking.setAssignedCarerId(bookingBooked.getCarerId());
+                }
+            } else if (event instanceof BookingPullout bookingPullout) {
+                EligibilityRulesEngine.BookingProjection booking = touchBooking(bookingPullout.getBookingId());
+                if (booking != null) {
+                    booking.setAssignedCarerId(null);
+                }
+            } else {
+                log.warn("Skipping unknown event type during rebuild: {}", event.getClass().getSimpleName());
+            }
+        }
+
+        boolean isCarerChanged(UUID carerId) {
+            return !tracking || carersAsWritten.containsKey(carerId);
+        }
+
+        boolean isBookingChanged(UUID bookingId) {
+            return !tracking || bookingsAsWritten.containsKey(bookingId);
+        }
+
+        private EligibilityRulesEngine.CarerProjection touchCarer(UUID carerId) {
+            EligibilityRulesEngine.CarerProjection carer = carers.get(carerId);
+            if (tracking && !carersAsWritten.containsKey(carerId)) {
+                carersAsWritten.put(carerId, carer != null
+                    ? objectMapper.convertValue(carer, EligibilityRulesEngine.CarerProjection.class)
+                    : null);
+            }
+            return carer;
+        }
+
+        private EligibilityRulesEngine.BookingProjection touchBooking(UUID bookingId) {
+            EligibilityRulesEngine.BookingProjection booking = bookings.get(bookingId);
+            if (tracking && !bookingsAsWritten.containsKey(bookingId)) {
+                bookingsAsWritten.put(bookingId, booking != null
+                    ? objectMapper.convertValue(booking, EligibilityRulesEngine.BookingProjection.class)
+                    : null);
+            }
+            return booking;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import java.time.Instant;
+
+/**
+ * Progress of the current or last projection rebuild, as reported by the admin endpoint.
+ * Written by the rebuild thread only; readers see each field's latest value.
+ */
+public class RebuildStatus {
+
+    public enum Phase {
+        IDLE, REPLAYING, COMPUTING, WRITING, CATCHING_UP, COMPLETED, FAILED
+    }
+
+    private volatile Phase phase = Phase.IDLE;
+    private volatile String namespace;
+    private volatile long eventsToReplay;
+    private volatile long eventsReplayed;
+    private volatile int maxEventsPerSecond;
+    private volatile int carers;
+    private volatile int bookings;
+    private volatile long eligibilityEdges;
+    private volatile int projectionsWritten;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    RebuildStatus() {
+    }
+
+    RebuildStatus(String namespace, int maxEventsPerSecond) {
+        this.namespace = namespace;
+        this.maxEventsPerSecond = maxEventsPerSecond;
+        this.startedAt = Instant.now();
+    }
+
+    public boolean isRunning() {
+        return phase != Phase.IDLE && phase != Phase.COMPLETED && phase != Phase.FAILED;
+    }
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    void setPhase(Phase phase) {
+        this.phase = phase;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public long getEventsToReplay() {
+        return eventsToReplay;
+    }
+
+    void setEventsToReplay(long eventsToReplay) {
+        this.eventsToReplay = eventsToReplay;
+    }
+
+    public long getEventsReplayed() {
+        return eventsReplayed;
+    }
+
+    void addEventsReplayed(int count) {
+        this.eventsReplayed += count;
+    }
+
+    public int getMaxEventsPerSecond() {
+        return maxEventsPerSecond;
+    }
+
+    void setMaxEventsPerSecond(int maxEventsPerSecond) {
+        this.maxEventsPerSecond = maxEventsPerSecond;
+    }
+
+    public int getCarers() {
+        return carers;
+    }
+
+    public int getBookings() {
+        return bookings;
+    }
+
+    public long getEligibilityEdges() {
+        return eligibilityEdges;
+    }
+
+    void setCounts(int carers, int bookings, long eligibilityEdges) {
+        this.carers = carers;
+        this.bookings = bookings;
+        this.eligibilityEdges = eligibilityEdges;
+    }
+
+    public int getProjectionsWritten() {
+        return projectionsWritten;
+    }
+
+    void setProjectionsWritten(int projectionsWritten) {
+        this.projectionsWritten = projectionsWritten;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    void complete() {
+        this.phase = Phase.COMPLETED;
+        this.finishedAt = Instant.now();
+    }
+
+    void fail(String error) {
+        this.phase = Phase.FAILED;
+        this.error = error;
+        this.finishedAt = Instant.now();
+    }
+}
@@ -0,0 +1,81 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import java.util.Arrays;
+
+/**
+ * One relation between two kinds of entity as int adjacency sets in both directions,
+ * so the entries of a projection and its reverse index are each one array lookup.
+ */
+final class BipartiteAdjacency {
+
+    private IntSet[] rightsByLeft = new IntSet[1024];
+    private IntSet[] leftsByRight = new IntSet[1024];
+
+    void add(int left, int right) {
+        rightsByLeft = ensureCapacity(rightsByLeft, left);
+        leftsByRight = ensureCapacity(leftsByRight, right);
+        setAt(rightsByLeft, left).add(right);
+        setAt(leftsByRight, right).add(left);
+    }
+
+    void remove(int left, int right) {
+        if (left < rightsByLeft.length && rightsByLeft[left] != null) {
+            rightsByLeft[left].remove(right);
+        }
+        if (right < leftsByRight.length && leftsByRight[right] != null) {
+            leftsByRight[right].remove(left);
+        }
+    }
+
+    void clear() {
+        Arrays.fill(rightsByLeft, null);
+        Arrays.fill(leftsByRight, null);
+    }
+
+    /**
+     * Drops every edge of a left-hand entity
+     */
+    void removeLeft(int left) {
+        IntSet rights = rightsOf(left);
+        if (rights != null) {
+            rights.forEach(right -> leftsByRight[right].remove(left));
+            rightsByLeft[left] = null;
+        }
+    }
+
+    /**
+     * Drops every edge of a right-hand entity
+     */
+    void removeRight(int right) {
+        IntSet lefts = leftsOf(right);
+        if (lefts != null) {
+            lefts.forEach(left -> rightsByLeft[left].remove(right));
+            leftsByRight[right] = null;
+        }
+    }
+
+    /**
+     * Right-hand neighbours of a left-hand entity, or null if it has none recorded
+     */
+    IntSet rightsOf(int left) {
+        return left < rightsByLeft.length ? rightsByLeft[left] : null;
+    }
+
+    /**
+     * Left-hand neighbours of a right-hand entity, or null if it has none recorded
+     */
+    IntSet leftsOf(int right) {
+        return right < leftsByRight.length ? leftsByRight[right] : null;
+    }
+
+    private static IntSet setAt(IntSet[] sets, int index) {
+        if (sets[index] == null) {
+            sets[index] = new IntSet();
+        }
+        return sets[index];
+    }
+
+    private static IntSet[] ensureCapacity(IntSet[] sets, int index) {
+        return index < sets.length ? sets : Arrays.copyOf(sets, Math.max(sets.length * 2, index + 1));
+    }
+}
@@ -0,0 +1,200 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Struct-of-arrays copy of the rule inputs of every carer, one row per carer code of
+ * {@link EligibilityGraph}. Grades, locations and visa statuses are dictionary-encoded,
+ * so evaluating a booking against the whole roster is a sweep over primitive arrays
+ * rather than a walk over carer objects:
+ * <ol>
+ *   <li>grade and the first 64 qualification bits are compared for every row in one
+ *       branch-light loop, producing a candidate bitset</li>
+ *   <li>distance and visa are looked up per candidate from tables computed once per
+ *       distinct location and visa status</li>
+ * </ol>
+ * Gives the same verdicts as {@link EligibilityRulesEngine#isCarerEligibleForBooking},
+ * except that carers or bookings lacking a grade or location are simply ineligible.
+ * Not thread-safe; guarded by the graph's lock.
+ */
+final class CarerRoster {
+
+    private static final int NONE = -1;
+
+    private final Map<String, Integer> gradeCodes = new HashMap<>();
+    private final Map<String, Integer> locationCodes = new HashMap<>();
+    private final List<String> locations = new ArrayList<>();
+    private final Map<String, Integer> visaCodes = new HashMap<>();
+    private final List<String> visaStatuses = new ArrayList<>();
+
+    private int[] grades = new int[0];
+    private long[] qualificationBits = new long[0];
+    // Full masks, only consulted when a booking requires a qualification beyond bit 63
+    private QualificationMask[] qualificationMasks = new QualificationMask[0];
+    private int[] locationsOf = new int[0];
+    private int[] maxDistances = new int[0];
+    private int[] visasOf = new int[0];
+    private int rows;
+
+    void put(int code, EligibilityRulesEngine.CarerProjection carer, QualificationMask mask) {
+        ensureRows(code + 1);
+        grades[code] = carer.getGrade() != null ? encode(gradeCodes, null, carer.getGrade()) : NONE;
+        qualificationBits[code] = mask.bits();
+        qualificationMasks[code] = mask;
+        locationsOf[code] = carer.getLocation() != null ? encode(locationCodes, locations, carer.getLocation()) : NONE;
+        maxDistances[code] = carer.getMaxTravelDistance() != null ? carer.getMaxTravelDistance() : Integer.MAX_VALUE;
+        visasOf[code] = carer.getVisaStatus() != null ? encode(visaCodes, visaStatuses, carer.getVisaStatus()) : NONE;
+    }
+
+    void remove(int code) {
+        if (code >= 0 && code < rows) {
+            grades[code] = NONE;
+            qualificationMasks[code] = null;
+        }
+    }
+
+    void clear() {
+        Arrays.fill(grades, NONE);
+        Arrays.fill(qualificationMasks, null);
+    }
+
+    /**
+     * Codes of the carers eligible for the booking
+     */
+    BitSet eligibleFor(EligibilityRulesEngine.BookingProjection booking, EligibilityRulesEngine engine) {
+        Integer grade = booking.getGrade() != null ? gradeCodes.get(booking.getGrade()) : null;
+        if (grade == null || booking.getLocation() == null) {
+            return new BitSet();
+        }
+        QualificationMask required = engine.qualificationMaskOf(booking);
+        long requiredBits = required.bits();
+
+        // Pass 1: grade and qualification bits over the whole roster
+        long[] words = new long[(rows + Long.SIZE - 1) / Long.SIZE];
+        int gradeCode = grade;
+        for (int i = 0; i < rows; i++) {
+            boolean candidate = grades[i] == gradeCode & (qualificationBits[i] & requiredBits) == requiredBits;
+            words[i >>> 6] |= (candidate ? 1L : 0L) << i;
+        }
+        BitSet eligible = BitSet.valueOf(words);
+
+        // Pass 2: the remaining rules only depend on location and visa status, evaluated
+        // once per distinct value rather than once per carer
+        double[] distances = new double[locations.size()];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = engine.calculateDistance(locations.get(i), booking.getLocation());
+        }
+        boolean[] visaAccepted = new boolean[visaStatuses.size()];
+        for (int i = 0; i < visaAccepted.length; i++) {
+            visaAccepted[i] = engine.isVisaStatusValid(visaStatuses.get(i), booking.getFacilityId());
+        }
+
+        boolean wideRequirement = required.hasOverflow();
+        for (int i = eligible.nextSetBit(0); i >= 0; i = eligible.nextSetBit(i + 1)) {
+            int location = locationsOf[i];
+            int visa = visasOf[i];
+            if (location == NONE || distances[location] > maxDistances[i]
+                    || visa == NONE || !visaAccepted[visa]
+                    || (wideRequirement && !qualificationMasks[i].containsAll(required))) {
+                eligible.clear(i);
+            }
+        }
+        return eligible;
+    }
+
+    /**
+     * Codes of the carers eligible for each of the bookings, in the order of the bookings,
+     * which must all require the same grade. The grade's rows are collected in one sweep
+     * shared by every booking, and the distance and visa tables are computed once per
+     * distinct booking location and facility rather than once per booking.
+     */
+    List<BitSet> eligibleForAll(List<EligibilityRulesEngine.BookingProjection> bookings, EligibilityRulesEngine engine) {
+        List<BitSet> result = new ArrayList<>(bookings.size());
+        String gradeName = bookings.isEmpty() ? null : bookings.get(0).getGrade();
+        Integer grade = gradeName != null ? gradeCodes.get(gradeName) : null;
+        if (grade == null) {
+            for (int b = 0; b < bookings.size(); b++) {
+                result.add(new BitSet());
+            }
+            return result;
+        }
+
+        // Probe side: the rows of the grade, swept once for all the bookings
+        int[] candidates = new int[rows];
+        int candidateCount = 0;
+        for (int i = 0; i < rows; i++) {
+            if (grades[i] == grade) {
+                candidates[candidateCount++] = i;
+            }
+        }
+
+        Map<String, double[]> distancesByLocation = new HashMap<>();
+        Map<UUID, boolean[]> visaAcceptedByFacility = new HashMap<>();
+        for (EligibilityRulesEngine.BookingProjection booking : bookings) {
+            BitSet eligible = new BitSet();
+            result.add(eligible);
+            if (booking.getLocation() == null) {
+                continue;
+            }
+            QualificationMask required = engine.qualificationMaskOf(booking);
+            long requiredBits = required.bits();
+            boolean wideRequirement = required.hasOverflow();
+            double[] distances = distancesByLocation.computeIfAbsent(booking.getLocation(), location -> {
+                double[] table = new double[locations.size()];
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = engine.calculateDistance(locations.get(i), location);
+                }
+                return table;
+            });
+            boolean[] visaAccepted = visaAcceptedByFacility.computeIfAbsent(booking.getFacilityId(), facilityId -> {
+                boolean[] table = new boolean[visaStatuses.size()];
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = engine.isVisaStatusValid(visaStatuses.get(i), facilityId);
+                }
+                return table;
+            });
+
+            for (int c = 0; c < candidateCount; c++) {
+                int i = candidates[c];
+                int location = locationsOf[i];
+                int visa = visasOf[i];
+                if ((qualificationBits[i] & requiredBits) == requiredBits
+                        && location != NONE && distances[location] <= maxDistances[i]
+                        && visa != NONE && visaAccepted[visa]
+                        && (!wideRequirement || qualificationMasks[i].containsAll(required))) {
+                    eligible.set(i);
+                }
+            }
+        }
+        return result;
+    }
+
+    private void ensureRows(int required) {
+        if (required > grades.length) {
+            int capacity = Math.max(required, Math.max(1024, grades.length * 2));
+            grades = Arrays.copyOf(grades, capacity);
+            Arrays.fill(grades, rows, capacity, NONE);
+            qualificationBits = Arrays.copyOf(qualificationBits, capacity);
+            qualificationMasks = Arrays.copyOf(qualificationMasks, capacity);
+            locationsOf = Arrays.copyOf(locationsOf, capacity);
+            maxDistances = Arrays.copyOf(maxDistances, capacity);
+            visasOf = Arrays.copyOf(visasOf, capacity);
+        }
+        rows = Math.max(rows, required);
+    }
+
+    private static int encode(Map<String, Integer> codes, List<String> values, String value) {
+        return codes.computeIfAbsent(value, v -> {
+            if (values != null) {
+                values.add(v);
+            }
+            return codes.size();
+        });
+    }
+}
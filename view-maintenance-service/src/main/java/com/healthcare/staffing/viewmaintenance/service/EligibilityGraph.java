@@ -0,0 +1,665 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * In-memory working set of the eligibility model: carer and booking data plus the
+ * carer -> available shift and shift -> eligible carer relations as a bipartite graph over
+ * dictionary-encoded IDs. {@link ViewProjectionService} and {@link ProjectionFanOutWriter}
+ * write through to it after every Redis write and, once it has been loaded from Redis,
+ * answer data, adjacency and grade lookups from it instead of Redis.
+ * <p>
+ * Enabled with view-maintenance.local-state.enabled. The graph only sees this instance's
+ * writes, so it must only be enabled when a single instance maintains the projections.
+ */
+@Component
+public class EligibilityGraph {
+
+    private final boolean enabled;
+    private volatile boolean loaded;
+
+    // Reads copy what they return, so callbacks never run under the lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final IdDictionary carerIds = new IdDictionary();
+    private final IdDictionary bookingIds = new IdDictionary();
+    private EligibilityRulesEngine.CarerProjection[] carers = new EligibilityRulesEngine.CarerProjection[1024];
+    private EligibilityRulesEngine.BookingProjection[] bookings = new EligibilityRulesEngine.BookingProjection[1024];
+    private final Map<String, IntSet> carersByGrade = new HashMap<>();
+    private final Map<String, IntSet> bookingsByGrade = new HashMap<>();
+    // Columnar copy of the carers' rule inputs for whole-roster evaluation of a booking
+    private final CarerRoster carerRoster = new CarerRoster();
+    private final EligibilityRulesEngine eligibilityRulesEngine;
+
+    // Left: carer, right: booking (AvailableShiftsPerCarer and CarersWithAvailableShift)
+    private final BipartiteAdjacency availableShifts = new BipartiteAdjacency();
+    // Left: booking, right: carer (EligibleCarersPerShift and ShiftsWithEligibleCarer)
+    private final BipartiteAdjacency eligibleCarers = new BipartiteAdjacency();
+
+    @Autowired
+    public EligibilityGraph(ViewMaintenanceProperties properties, EligibilityRulesEngine eligibilityRulesEngine) {
+        this.enabled = properties.getLocalState().isEnabled();
+        this.eligibilityRulesEngine = eligibilityRulesEngine;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Whether lookups can be answered from memory
+     */
+    public boolean isActive() {
+        return enabled && loaded;
+    }
+
+    void markLoaded() {
+        loaded = true;
+    }
+
+    /**
+     * Forgets everything and marks the graph as not loaded, so lookups go to Redis until
+     * it has been loaded again
+     */
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            carerIds.clear();
+            bookingIds.clear();
+            Arrays.fill(carers, null);
+            Arrays.fill(bookings, null);
+            carersByGrade.clear();
+            bookingsByGrade.clear();
+            carerRoster.clear();
+            availableShifts.clear();
+            eligibleCarers.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Entity data
+
+    void putCarer(UUID carerId, EligibilityRulesEngine.CarerProjection carer) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int code = carerIds.intern(carerId);
+            carers = ensureCapacity(carers, carerIds.capacity());
+            EligibilityRulesEngine.CarerProjection previous = carers[code];
+            moveGrade(carersByGrade, code, previous != null ? previous.getGrade() : null, carer.getGrade());
+            carers[code] = carer;
+            carerRoster.put(code, carer, eligibilityRulesEngine.qualificationMaskOf(carer));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeCarer(UUID carerId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int code = carerIds.lookup(carerId);
+            if (carerAt(code) != null) {
+                moveGrade(carersByGrade, code, carers[code].getGrade(), null);
+                carers[code] = null;
+                carerRoster.remove(code);
+                if (isEmpty(availableShifts.rightsOf(code)) && isEmpty(eligibleCarers.leftsOf(code))) {
+                    carerIds.release(code);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void putBooking(UUID bookingId, EligibilityRulesEngine.BookingProjection booking) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int code = bookingIds.intern(bookingId);
+            bookings = ensureCapacity(bookings, bookingIds.capacity());
+            EligibilityRulesEngine.BookingProjection previous = bookings[code];
+            moveGrade(bookingsByGrade, code, previous != null ? previous.getGrade() : null, booking.getGrade());
+            bookings[code] = booking;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeBooking(UUID bookingId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int code = bookingIds.lookup(bookingId);
+            if (bookingAt(code) != null) {
+                moveGrade(bookingsByGrade, code, bookings[code].getGrade(), null);
+                bookings[code] = null;
+                if (isEmpty(eligibleCarers.rightsOf(code)) && isEmpty(availableShifts.leftsOf(code))) {
+                    bookingIds.release(code);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    EligibilityRulesEngine.CarerProjection getCarer(UUID carerId) {
+        lock.readLock().lock();
+        try {
+            return carerAt(carerIds.lookup(carerId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    EligibilityRulesEngine.BookingProjection getBooking(UUID bookingId) {
+        lock.readLock().lock();
+        try {
+            return bookingAt(bookingIds.lookup(bookingId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Data of the given carers that are known, in the order of the given IDs
+     */
+    Map<UUID, EligibilityRulesEngine.CarerProjection> getCarers(Collection<UUID> ids) {
+        Map<UUID, EligibilityRulesEngine.CarerProjection> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (UUID id : ids) {
+                EligibilityRulesEngine.CarerProjection carer = carerAt(carerIds.lookup(id));
+                if (carer != null) {
+                    result.put(id, carer);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Data of the given bookings that are known, in the order of the given IDs
+     */
+    Map<UUID, EligibilityRulesEngine.BookingProjection> getBookings(Collection<UUID> ids) {
+        Map<UUID, EligibilityRulesEngine.BookingProjection> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            for (UUID id : ids) {
+                EligibilityRulesEngine.BookingProjection booking = bookingAt(bookingIds.lookup(id));
+                if (booking != null) {
+                    result.put(id, booking);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Data of every carer eligible for the booking, found with one sweep of the carer roster
+     */
+    Map<UUID, EligibilityRulesEngine.CarerProjection> getEligibleCarers(EligibilityRulesEngine.BookingProjection booking) {
+        Map<UUID, EligibilityRulesEngine.CarerProjection> result = new LinkedHashMap<>();
+        lock.readLock().lock();
+        try {
+            BitSet codes = carerRoster.eligibleFor(booking, eligibilityRulesEngine);
+            for (int code = codes.nextSetBit(0); code >= 0; code = codes.nextSetBit(code + 1)) {
+                result.put(carerIds.uuid(code), carers[code]);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Data of the carers eligible for each of the bookings, which must all require the same
+     * grade, found with one sweep of the grade's roster rows
+     */
+    List<Map<UUID, EligibilityRulesEngine.CarerProjection>> getEligibleCarers(
+            List<EligibilityRulesEngine.BookingProjection> bookings) {
+        List<Map<UUID, EligibilityRulesEngine.CarerProjection>> result = new ArrayList<>(bookings.size());
+        lock.readLock().lock();
+        try {
+            for (BitSet codes : carerRoster.eligibleForAll(bookings, eligibilityRulesEngine)) {
+                Map<UUID, EligibilityRulesEngine.CarerProjection> eligibleCarers = new LinkedHashMap<>();
+                for (int code = codes.nextSetBit(0); code >= 0; code = codes.nextSetBit(code + 1)) {
+                    eligibleCarers.put(carerIds.uuid(code), carers[code]);
+                }
+                result.add(eligibleCarers);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    void forEachCarerWithGrade(String grade, BiConsumer<UUID, EligibilityRulesEngine.CarerProjection> action) {
+        List<UUID> ids = new ArrayList<>();
+        List<EligibilityRulesEngine.CarerProjection> data = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            IntSet codes = carersByGrade.get(grade);
+            if (codes != null) {
+                codes.forEach(code -> {
+                    ids.add(carerIds.uuid(code));
+                    data.add(carers[code]);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            action.accept(ids.get(i), data.get(i));
+        }
+    }
+
+    void forEachBookingWithGrade(String grade, BiConsumer<UUID, EligibilityRulesEngine.BookingProjection> action) {
+        List<UUID> ids = new ArrayList<>();
+        List<EligibilityRulesEngine.BookingProjection> data = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            IntSet codes = bookingsByGrade.get(grade);
+            if (codes != null) {
+                codes.forEach(code -> {
+                    ids.add(bookingIds.uuid(code));
+                    data.add(bookings[code]);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        for (int i = 0; i < ids.size(); i++) {
+            action.accept(ids.get(i), data.get(i));
+        }
+    }
+
+    // AvailableShiftsPerCarer
+
+    void addAvailableShift(UUID carerId, UUID bookingId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            availableShifts.add(carerIds.intern(carerId), bookingIds.intern(bookingId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeAvailableShift(UUID carerId, UUID bookingId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int carer = carerIds.lookup(carerId);
+            int booking = bookingIds.lookup(bookingId);
+            if (carer >= 0 && booking >= 0) {
+                availableShifts.remove(carer, booking);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void replaceAvailableShifts(UUID carerId, Collection<UUID> shiftIds) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int carer = carerIds.intern(carerId);
+            availableShifts.removeLeft(carer);
+            for (UUID bookingId : shiftIds) {
+                availableShifts.add(carer, bookingIds.intern(bookingId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Set<UUID> getAvailableShiftIds(UUID carerId) {
+        lock.readLock().lock();
+        try {
+            int carer = carerIds.lookup(carerId);
+            return carer >= 0 ? decode(availableShifts.rightsOf(carer), bookingIds) : new HashSet<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the carers holding the shift among their available shifts
+     */
+    void replaceCarersWithAvailableShift(UUID bookingId, Collection<UUID> carerIdsOfShift) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int booking = bookingIds.intern(bookingId);
+            availableShifts.removeRight(booking);
+            for (UUID carerId : carerIdsOfShift) {
+                availableShifts.add(carerIds.intern(carerId), booking);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Set<UUID> getCarersWithAvailableShift(UUID bookingId) {
+        lock.readLock().lock();
+        try {
+            int booking = bookingIds.lookup(bookingId);
+            return booking >= 0 ? decode(availableShifts.leftsOf(booking), carerIds) : new HashSet<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // EligibleCarersPerShift
+
+    void addEligibleCarer(UUID bookingId, UUID carerId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            eligibleCarers.add(bookingIds.intern(bookingId), carerIds.intern(carerId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeEligibleCarer(UUID bookingId, UUID carerId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int booking = bookingIds.lookup(bookingId);
+            int carer = carerIds.lookup(carerId);
+            if (booking >= 0 && carer >= 0) {
+                eligibleCarers.remove(booking, carer);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void replaceEligibleCarers(UUID bookingId, Collection<UUID> carerIdsOfShift) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int booking = bookingIds.intern(bookingId);
+            eligibleCarers.removeLeft(booking);
+            for (UUID carerId : carerIdsOfShift) {
+                eligibleCarers.add(booking, carerIds.intern(carerId));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Set<UUID> getEligibleCarerIds(UUID bookingId) {
+        lock.readLock().lock();
+        try {
+            int booking = bookingIds.lookup(bookingId);
+            return booking >= 0 ? decode(eligibleCarers.rightsOf(booking), carerIds) : new HashSet<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the shifts listing the carer among their eligible carers
+     */
+    void replaceShiftsWithEligibleCarer(UUID carerId, Collection<UUID> shiftIds) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int carer = carerIds.intern(carerId);
+            eligibleCarers.removeRight(carer);
+            for (UUID bookingId : shiftIds) {
+                eligibleCarers.add(bookingIds.intern(bookingId), carer);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    Set<UUID> getShiftsWithEligibleCarer(UUID carerId) {
+        lock.readLock().lock();
+        try {
+            int carer = carerIds.lookup(carerId);
+            return carer >= 0 ? decode(eligibleCarers.leftsOf(carer), bookingIds) : new HashSet<>();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Clearing, mirroring clearCarerEligibility / clearBookingEligibility
+
+    void clearCarerEdges(UUID carerId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int carer = carerIds.lookup(carerId);
+            if (carer >= 0) {
+                availableShifts.removeLeft(carer);
+                eligibleCarers.removeRight(carer);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void clearBookingEdges(UUID bookingId) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            int booking = bookingIds.lookup(bookingId);
+            if (booking >= 0) {
+                eligibleCarers.removeLeft(booking);
+                availableShifts.removeRight(booking);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Snapshots, see EligibilityGraphSnapshot
+
+    /**
+     * Writes every interned carer and booking, then both relations with entities referred
+     * to by their position in the snapshot. Holds the read lock throughout, so the
+     * snapshot is a consistent cut of the graph.
+     */
+    void writeSnapshot(MappedSnapshotWriter out) throws IOException {
+        lock.readLock().lock();
+        try {
+            int[] carerPositions = positionsOf(carerIds);
+            out.putInt(countPositions(carerPositions));
+            for (int code = 0; code < carerPositions.length; code++) {
+                if (carerPositions[code] >= 0) {
+                    out.putUuid(carerIds.uuid(code));
+                    EligibilityRulesEngine.CarerProjection carer = carerAt(code);
+                    out.putByte(carer != null ? (byte) 1 : (byte) 0);
+                    if (carer != null) {
+                        EligibilityGraphSnapshot.writeCarer(out, carer);
+                    }
+                }
+            }
+            int[] bookingPositions = positionsOf(bookingIds);
+            out.putInt(countPositions(bookingPositions));
+            for (int code = 0; code < bookingPositions.length; code++) {
+                if (bookingPositions[code] >= 0) {
+                    out.putUuid(bookingIds.uuid(code));
+                    EligibilityRulesEngine.BookingProjection booking = bookingAt(code);
+                    out.putByte(booking != null ? (byte) 1 : (byte) 0);
+                    if (booking != null) {
+                        EligibilityGraphSnapshot.writeBooking(out, booking);
+                    }
+                }
+            }
+            writeAdjacency(out, availableShifts, carerPositions, bookingPositions);
+            writeAdjacency(out, eligibleCarers, bookingPositions, carerPositions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the whole graph with what {@link #writeSnapshot} wrote; the graph stays
+     * marked as not loaded
+     */
+    void readSnapshot(MappedSnapshotReader in) {
+        lock.writeLock().lock();
+        try {
+            clear();
+            int[] carerCodes = new int[in.getInt()];
+            for (int i = 0; i < carerCodes.length; i++) {
+                UUID carerId = in.getUuid();
+                carerCodes[i] = carerIds.intern(carerId);
+                if (in.getByte() != 0) {
+                    putCarer(carerId, EligibilityGraphSnapshot.readCarer(in, carerId));
+                }
+            }
+            int[] bookingCodes = new int[in.getInt()];
+            for (int i = 0; i < bookingCodes.length; i++) {
+                UUID bookingId = in.getUuid();
+                bookingCodes[i] = bookingIds.intern(bookingId);
+                if (in.getByte() != 0) {
+                    putBooking(bookingId, EligibilityGraphSnapshot.readBooking(in, bookingId));
+                }
+            }
+            readAdjacency(in, availableShifts, carerCodes, bookingCodes);
+            readAdjacency(in, eligibleCarers, bookingCodes, carerCodes);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static int[] positionsOf(IdDictionary dictionary) {
+        int[] positions = new int[dictionary.capacity()];
+        int next = 0;
+        for (int code = 0; code < positions.length; code++) {
+            positions[code] = dictionary.uuid(code) != null ? next++ : -1;
+        }
+        return positions;
+    }
+
+    private static int countPositions(int[] positions) {
+        int count = 0;
+        for (int position : positions) {
+            if (position >= 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void writeAdjacency(MappedSnapshotWriter out, BipartiteAdjacency adjacency,
+                                       int[] leftPositions, int[] rightPositions) throws IOException {
+        for (int left = 0; left < leftPositions.length; left++) {
+            if (leftPositions[left] < 0) {
+                continue;
+            }
+            IntSet rights = adjacency.rightsOf(left);
+            int[] codes = rights != null ? rights.toArray() : new int[0];
+            out.putInt(codes.length);
+            for (int right : codes) {
+                out.putInt(rightPositions[right]);
+            }
+        }
+    }
+
+    private static void readAdjacency(MappedSnapshotReader in, BipartiteAdjacency adjacency,
+                                      int[] leftCodes, int[] rightCodes) {
+        for (int leftCode : leftCodes) {
+            for (int i = in.getInt(); i > 0; i--) {
+                adjacency.add(leftCode, rightCodes[in.getInt()]);
+            }
+        }
+    }
+
+    // Codes can be interned through an edge before the entity's data arrives
+
+    private EligibilityRulesEngine.CarerProjection carerAt(int code) {
+        return code >= 0 && code < carers.length ? carers[code] : null;
+    }
+
+    private EligibilityRulesEngine.BookingProjection bookingAt(int code) {
+        return code >= 0 && code < bookings.length ? bookings[code] : null;
+    }
+
+    private static Set<UUID> decode(IntSet codes, IdDictionary dictionary) {
+        Set<UUID> ids = new HashSet<>();
+        if (codes != null) {
+            codes.forEach(code -> ids.add(dictionary.uuid(code)));
+        }
+        return ids;
+    }
+
+    private static void moveGrade(Map<String, IntSet> index, int code, String previousGrade, String grade) {
+        if (Objects.equals(previousGrade, grade)) {
+            return;
+        }
+        if (previousGrade != null && index.containsKey(previousGrade)) {
+            index.get(previousGrade).remove(code);
+        }
+        if (grade != null) {
+            index.computeIfAbsent(grade, g -> new IntSet()).add(code);
+        }
+    }
+
+    private static boolean isEmpty(IntSet set) {
+        return set == null || set.isEmpty();
+    }
+
+    private static <T> T[] ensureCapacity(T[] array, int capacity) {
+        return array.length >= capacity ? array : Arrays.copyOf(array, capacity);
+    }
+}
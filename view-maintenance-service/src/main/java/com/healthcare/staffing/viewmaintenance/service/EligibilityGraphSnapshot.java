@@ -0,0 +1,193 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import org.apache.kafka.common.TopicPartition;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact binary snapshot of the {@link EligibilityGraph} in a memory-mapped file, headed by
+ * the projection namespace and the consumer offsets of the event topics it reflects:
+ * <ol>
+ *   <li>every interned carer, then every interned booking: UUID and data, if any</li>
+ *   <li>available shifts per carer and eligible carers per booking, as adjacency lists of
+ *       positions in the entity sections, so edges are read back without UUID lookups</li>
+ * </ol>
+ * The offsets must be read before the graph is written, so the snapshot reflects at least
+ * every event below them.
+ */
+public final class EligibilityGraphSnapshot {
+
+    private static final int MAGIC = 0x45475331; // "EGS1"
+    private static final int VERSION = 1;
+
+    private final String namespace;
+    private final Map<TopicPartition, Long> offsets;
+
+    private EligibilityGraphSnapshot(String namespace, Map<TopicPartition, Long> offsets) {
+        this.namespace = namespace;
+        this.offsets = offsets;
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public Map<TopicPartition, Long> getOffsets() {
+        return offsets;
+    }
+
+    public static void write(EligibilityGraph graph, Path path, String namespace,
+                             Map<TopicPartition, Long> offsets) throws IOException {
+        try (MappedSnapshotWriter out = new MappedSnapshotWriter(path)) {
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+            out.putString(namespace);
+            out.putInt(offsets.size());
+            for (Map.Entry<TopicPartition, Long> offset : offsets.entrySet()) {
+                out.putString(offset.getKey().topic());
+                out.putInt(offset.getKey().partition());
+                out.putLong(offset.getValue());
+            }
+            graph.writeSnapshot(out);
+            // Trailer, so a file cut short is recognised
+            out.putInt(MAGIC);
+        }
+    }
+
+    /**
+     * Replaces the content of the graph with the snapshot, leaving it marked as not loaded
+     */
+    public static EligibilityGraphSnapshot read(EligibilityGraph graph, Path path) throws IOException {
+        MappedSnapshotReader in = new MappedSnapshotReader(path);
+        if (in.getInt() != MAGIC || in.getInt() != VERSION) {
+            throw new IOException("Not a version " + VERSION + " eligibility graph snapshot: " + path);
+        }
+        String namespace = in.getString();
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        for (int i = in.getInt(); i > 0; i--) {
+            offsets.put(new TopicPartition(in.getString(), in.getInt()), in.getLong());
+        }
+        graph.readSnapshot(in);
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Incomplete eligibility graph snapshot: " + path);
+        }
+        return new EligibilityGraphSnapshot(namespace, offsets);
+    }
+
+    static void writeCarer(MappedSnapshotWriter out, EligibilityRulesEngine.CarerProjection carer) throws IOException {
+        out.putString(carer.getFirstName());
+        out.putString(carer.getLastName());
+        out.putString(carer.getEmail());
+        out.putString(carer.getPhone());
+        out.putString(carer.getGrade());
+        writeStrings(out, carer.getQualifications());
+        out.putString(carer.getLocation());
+        out.putString(carer.getVisaStatus());
+        out.putByte(carer.getMaxTravelDistance() != null ? (byte) 1 : (byte) 0);
+        if (carer.getMaxTravelDistance() != null) {
+            out.putInt(carer.getMaxTravelDistance());
+        }
+    }
+
+    static EligibilityRulesEngine.CarerProjection readCarer(MappedSnapshotReader in, UUID carerId) {
+        return new EligibilityRulesEngine.CarerProjection(
+            carerId,
+            in.getString(),
+            in.getString(),
+            in.getString(),
+            in.getString(),
+            in.getString(),
+            readStrings(in),
+            in.getString(),
+            in.getString(),
+            in.getByte() != 0 ? in.getInt() : null
+        );
+    }
+
+    static void writeBooking(MappedSnapshotWriter out, EligibilityRulesEngine.BookingProjection booking) throws IOException {
+        writeNullableUuid(out, booking.getFacilityId());
+        out.putString(booking.getShift());
+        out.putString(booking.getGrade());
+        out.putString(booking.getHourlyRate() != null ? booking.getHourlyRate().toString() : null);
+        writeStrings(out, booking.getRequiredQualifications());
+        out.putString(booking.getLocation());
+        out.putString(booking.getSpecialRequirements());
+        writeDateTime(out, booking.getStartTime());
+        writeDateTime(out, booking.getEndTime());
+        writeNullableUuid(out, booking.getAssignedCarerId());
+    }
+
+    static EligibilityRulesEngine.BookingProjection readBooking(MappedSnapshotReader in, UUID bookingId) {
+        UUID facilityId = readNullableUuid(in);
+        String shift = in.getString();
+        String grade = in.getString();
+        String hourlyRate = in.getString();
+        List<String> requiredQualifications = readStrings(in);
+        String location = in.getString();
+        String specialRequirements = in.getString();
+        LocalDateTime startTime = readDateTime(in);
+        LocalDateTime endTime = readDateTime(in);
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+            bookingId, facilityId, shift, grade, hourlyRate != null ? new BigDecimal(hourlyRate) : null,
+            requiredQualifications, location, specialRequirements, startTime, endTime);
+        booking.setAssignedCarerId(readNullableUuid(in));
+        return booking;
+    }
+
+    private static void writeStrings(MappedSnapshotWriter out, List<String> values) throws IOException {
+        out.putInt(values != null ? values.size() : -1);
+        if (values != null) {
+            for (String value : values) {
+                out.putString(value);
+            }
+        }
+    }
+
+    private static List<String> readStrings(MappedSnapshotReader in) {
+        int size = in.getInt();
+        if (size < 0) {
+            return null;
+        }
+        List<String> values = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            values.add(in.getString());
+        }
+        return values;
+    }
+
+    private static void writeNullableUuid(MappedSnapshotWriter out, UUID value) throws IOException {
+        out.putByte(value != null ? (byte) 1 : (byte) 0);
+        if (value != null) {
+            out.putUuid(value);
+        }
+    }
+
+    private static UUID readNullableUuid(MappedSnapshotReader in) {
+        return in.getByte() != 0 ? in.getUuid() : null;
+    }
+
+    private static void writeDateTime(MappedSnapshotWriter out, LocalDateTime value) throws IOException {
+        out.putByte(value != null ? (byte) 1 : (byte) 0);
+        if (value != null) {
+            out.putLong(value.toEpochSecond(ZoneOffset.UTC));
+            out.putInt(value.getNano());
+        }
+    }
+
+    private static LocalDateTime readDateTime(MappedSnapshotReader in) {
+        if (in.getByte() == 0) {
+            return null;
+        }
+        long epochSecond = in.getLong();
+        return LocalDateTime.ofEpochSecond(epochSecond, in.getInt(), ZoneOffset.UTC);
+    }
+}
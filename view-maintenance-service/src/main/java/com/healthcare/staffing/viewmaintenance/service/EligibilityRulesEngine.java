@@ -1,5 +1,6 @@
 package com.healthcare.staffing.viewmaintenance.service;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -8,6 +9,13 @@ import java.util.UUID;
 @Service
 public class EligibilityRulesEngine {
     
+    // Shared code -> bit position mapping for qualification masks
+    private final QualificationDictionary qualificationDictionary;
+    
+    public EligibilityRulesEngine() {
+        this.qualificationDictionary = new QualificationDictionary();
+    }
+    
     /**
      * Determines if a carer is eligible for a specific booking based on business rules
      */
@@ -18,10 +26,10 @@ public class EligibilityRulesEngine {
             return false;
         }
         
-        // Rule 2: Qualifications - carer must have all required qualifications
+        // Rule 2: Qualifications - carer must have all required qualifications (mask subset check)
         if (booking.getRequiredQualifications() != null && !booking.getRequiredQualifications().isEmpty()) {
             if (carer.getQualifications() == null || 
-                !carer.getQualifications().containsAll(booking.getRequiredQualifications())) {
+                !qualificationMaskOf(carer).containsAll(qualificationMaskOf(booking))) {
                 return false;
             }
         }
@@ -40,11 +48,35 @@ public class EligibilityRulesEngine {
         return true;
     }
     
+    /**
+     * Returns the carer's qualification mask, encoding and caching it on first use
+     */
+    public QualificationMask qualificationMaskOf(CarerProjection carer) {
+        QualificationMask mask = carer.getQualificationMask();
+        if (mask == null) {
+            mask = qualificationDictionary.maskOf(carer.getQualifications());
+            carer.setQualificationMask(mask);
+        }
+        return mask;
+    }
+    
+    /**
+     * Returns the booking's required qualification mask, encoding and caching it on first use
+     */
+    public QualificationMask qualificationMaskOf(BookingProjection booking) {
+        QualificationMask mask = booking.getRequiredQualificationMask();
+        if (mask == null) {
+            mask = qualificationDictionary.maskOf(booking.getRequiredQualifications());
+            booking.setRequiredQualificationMask(mask);
+        }
+        return mask;
+    }
+    
     /**
      * Calculates distance between two locations (simplified implementation)
      * In a real system, this would use actual geolocation services
      */
-    private double calculateDistance(String location1, String location2) {
+    double calculateDistance(String location1, String location2) {
         // Simplified distance calculation
         // In production, you would use actual coordinates and distance calculation
         if (location1.equals(location2)) {
@@ -62,7 +94,7 @@ public class EligibilityRulesEngine {
     /**
      * Validates visa status against facility requirements
      */
-    private boolean isVisaStatusValid(String visaStatus, UUID facilityId) {
+    boolean isVisaStatusValid(String visaStatus, UUID facilityId) {
         // Simplified visa validation logic
         // In production, this would check facility-specific visa requirements
         
@@ -99,9 +131,22 @@ public class EligibilityRulesEngine {
         private String visaStatus;
         private Integer maxTravelDistance;
         
+        // Derived from qualifications, rebuilt in-process rather than stored
+        @JsonIgnore
+        private volatile QualificationMask qualificationMask;
+        
+        // Eligibility class key, rebuilt whenever a rule-relevant attribute changes
+        @JsonIgnore
+        private volatile String eligibilitySignature;
+        
         // Constructors, getters, and setters
         public CarerProjection() {}
         
+        public CarerProjection(UUID carerId, String grade, List<String> qualifications,
+                             String location, String visaStatus, Integer maxTravelDistance) {
+            this(carerId, null, null, null, null, grade, qualifications, location, visaStatus, maxTravelDistance);
+        }
+        
         public CarerProjection(UUID carerId, String firstName, String lastName, String email, String phone,
                              String grade, List<String> qualifications, 
                              String location, String visaStatus, Integer maxTravelDistance) {
@@ -133,19 +178,45 @@ public class EligibilityRulesEngine {
         public void setPhone(String phone) { this.phone = phone; }
         
         public String getGrade() { return grade; }
-        public void setGrade(String grade) { this.grade = grade; }
+        public void setGrade(String grade) { 
+            this.grade = grade; 
+            this.eligibilitySignature = null;
+        }
         
         public List<String> getQualifications() { return qualifications; }
-        public void setQualifications(List<String> qualifications) { this.qualifications = qualifications; }
+        public void setQualifications(List<String> qualifications) { 
+            this.qualifications = qualifications; 
+            this.qualificationMask = null;
+            this.eligibilitySignature = null;
+        }
         
         public String getLocation() { return location; }
-        public void setLocation(String location) { this.location = location; }
+        public void setLocation(String location) { 
+            this.location = location; 
+            this.eligibilitySignature = null;
+        }
         
         public String getVisaStatus() { return visaStatus; }
-        public void setVisaStatus(String visaStatus) { this.visaStatus = visaStatus; }
+        public void setVisaStatus(String visaStatus) { 
+            this.visaStatus = visaStatus; 
+            this.eligibilitySignature = null;
+        }
         
         public Integer getMaxTravelDistance() { return maxTravelDistance; }
-        public void setMaxTravelDistance(Integer maxTravelDistance) { this.maxTravelDistance = maxTravelDistance; }
+        public void setMaxTravelDistance(Integer maxTravelDistance) { 
+            this.maxTravelDistance = maxTravelDistance; 
+            this.eligibilitySignature = null;
+        }
+        
+        @JsonIgnore
+        public QualificationMask getQualificationMask() { return qualificationMask; }
+        @JsonIgnore
+        public void setQualificationMask(QualificationMask qualificationMask) { this.qualificationMask = qualificationMask; }
+        
+        @JsonIgnore
+        public String getEligibilitySignature() { return eligibilitySignature; }
+        @JsonIgnore
+        public void setEligibilitySignature(String eligibilitySignature) { this.eligibilitySignature = eligibilitySignature; }
     }
     
     public static class BookingProjection {
@@ -159,10 +230,24 @@ public class EligibilityRulesEngine {
         private String specialRequirements;
         private java.time.LocalDateTime startTime;
         private java.time.LocalDateTime endTime;
+        private UUID assignedCarerId;
+        
+        // Derived from requiredQualifications, rebuilt in-process rather than stored
+        @JsonIgnore
+        private volatile QualificationMask requiredQualificationMask;
+        
+        // Eligibility class key, rebuilt whenever a rule-relevant attribute changes
+        @JsonIgnore
+        private volatile String eligibilitySignature;
         
         // Constructors, getters, and setters
         public BookingProjection() {}
         
+        public BookingProjection(UUID bookingId, UUID facilityId, String grade, List<String> requiredQualifications,
+                               String location, java.time.LocalDateTime startTime, java.time.LocalDateTime endTime) {
+            this(bookingId, facilityId, null, grade, null, requiredQualifications, location, null, startTime, endTime);
+        }
+        
         public BookingProjection(UUID bookingId, UUID facilityId, String shift, String grade, 
                                java.math.BigDecimal hourlyRate, List<String> requiredQualifications, 
                                String location, String specialRequirements,
@@ -183,13 +268,19 @@ public class EligibilityRulesEngine {
         public void setBookingId(UUID bookingId) { this.bookingId = bookingId; }
         
         public UUID getFacilityId() { return facilityId; }
-        public void setFacilityId(UUID facilityId) { this.facilityId = facilityId; }
+        public void setFacilityId(UUID facilityId) { 
+            this.facilityId = facilityId; 
+            this.eligibilitySignature = null;
+        }
         
         public String getShift() { return shift; }
         public void setShift(String shift) { this.shift = shift; }
         
         public String getGrade() { return grade; }
-        public void setGrade(String grade) { this.grade = grade; }
+        public void setGrade(String grade) { 
+            this.grade = grade; 
+            this.eligibilitySignature = null;
+        }
         
         public java.math.BigDecimal getHourlyRate() { return hourlyRate; }
         public void setHourlyRate(java.math.BigDecimal hourlyRate) { this.hourlyRate = hourlyRate; }
@@ -197,10 +288,15 @@ public class EligibilityRulesEngine {
         public List<String> getRequiredQualifications() { return requiredQualifications; }
         public void setRequiredQualifications(List<String> requiredQualifications) { 
             this.requiredQualifications = requiredQualifications; 
+            this.requiredQualificationMask = null;
+            this.eligibilitySignature = null;
         }
         
         public String getLocation() { return location; }
-        public void setLocation(String location) { this.location = location; }
+        public void setLocation(String location) { 
+            this.location = location; 
+            this.eligibilitySignature = null;
+        }
         
         public String getSpecialRequirements() { return specialRequirements; }
         public void setSpecialRequirements(String specialRequirements) { this.specialRequirements = specialRequirements; }
@@ -210,5 +306,21 @@ public class EligibilityRulesEngine {
         
         public java.time.LocalDateTime getEndTime() { return endTime; }
         public void setEndTime(java.time.LocalDateTime endTime) { this.endTime = endTime; }
+        
+        // Set while a carer is booked on the shift, cleared again on pullout
+        public UUID getAssignedCarerId() { return assignedCarerId; }
+        public void setAssignedCarerId(UUID assignedCarerId) { this.assignedCarerId = assignedCarerId; }
+        
+        @JsonIgnore
+        public QualificationMask getRequiredQualificationMask() { return requiredQualificationMask; }
+        @JsonIgnore
+        public void setRequiredQualificationMask(QualificationMask requiredQualificationMask) { 
+            this.requiredQualificationMask = requiredQualificationMask; 
+        }
+        
+        @JsonIgnore
+        public String getEligibilitySignature() { return eligibilitySignature; }
+        @JsonIgnore
+        public void setEligibilitySignature(String eligibilitySignature) { this.eligibilitySignature = eligibilitySignature; }
     }
 }
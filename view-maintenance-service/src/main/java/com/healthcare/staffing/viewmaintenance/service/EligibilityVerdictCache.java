@@ -0,0 +1,133 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Memoizes eligibility verdicts per (carer class, booking class). A class is every carer
+ * or booking sharing the attributes the rules look at, so one evaluation of the rules
+ * engine answers for all members of the pair. Class signatures are derived from content,
+ * which means a carer or booking whose attributes change simply moves to another class.
+ * Memory is bounded by dropping everything once the verdict table outgrows its limit.
+ */
+@Component
+public class EligibilityVerdictCache {
+
+    private static final Logger log = LoggerFactory.getLogger(EligibilityVerdictCache.class);
+
+    private final EligibilityRulesEngine eligibilityRulesEngine;
+    private final int maxEntries;
+
+    private final ConcurrentHashMap<String, Integer> carerClassIds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Integer> bookingClassIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextCarerClassId = new AtomicInteger();
+    private final AtomicInteger nextBookingClassId = new AtomicInteger();
+    private final ConcurrentHashMap<Long, Boolean> verdicts = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @Autowired
+    public EligibilityVerdictCache(EligibilityRulesEngine eligibilityRulesEngine,
+                                   ViewMaintenanceProperties properties) {
+        this(eligibilityRulesEngine, properties.getEligibility().getVerdictCacheMaxEntries());
+    }
+
+    public EligibilityVerdictCache(EligibilityRulesEngine eligibilityRulesEngine, int maxEntries) {
+        this.eligibilityRulesEngine = eligibilityRulesEngine;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Same contract as {@link EligibilityRulesEngine#isCarerEligibleForBooking}, answered from
+     * the verdict table when the class pair has been evaluated before
+     */
+    public boolean isCarerEligibleForBooking(EligibilityRulesEngine.CarerProjection carer,
+                                             EligibilityRulesEngine.BookingProjection booking) {
+        long key = ((long) carerClassOf(carer) << 32) | (bookingClassOf(booking) & 0xFFFFFFFFL);
+
+        Boolean verdict = verdicts.get(key);
+        if (verdict != null) {
+            hits.incrementAndGet();
+            return verdict;
+        }
+
+        misses.incrementAndGet();
+        boolean eligible = eligibilityRulesEngine.isCarerEligibleForBooking(carer, booking);
+        if (verdicts.size() >= maxEntries) {
+            // Crude but bounded: start over rather than track recency per pair
+            log.debug("Eligibility verdict cache reached {} entries, clearing", maxEntries);
+            invalidateAll();
+        }
+        verdicts.put(key, eligible);
+        return eligible;
+    }
+
+    /**
+     * Forgets every class and verdict. Call whenever the eligibility rules themselves change.
+     */
+    public void invalidateAll() {
+        verdicts.clear();
+        carerClassIds.clear();
+        bookingClassIds.clear();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public int size() {
+        return verdicts.size();
+    }
+
+    private int carerClassOf(EligibilityRulesEngine.CarerProjection carer) {
+        String signature = carer.getEligibilitySignature();
+        if (signature == null) {
+            signature = signatureOf(carer.getGrade(), sortedCopy(carer.getQualifications()),
+                    carer.getLocation(), carer.getVisaStatus(), carer.getMaxTravelDistance());
+            carer.setEligibilitySignature(signature);
+        }
+        return carerClassIds.computeIfAbsent(signature, s -> nextCarerClassId.getAndIncrement());
+    }
+
+    private int bookingClassOf(EligibilityRulesEngine.BookingProjection booking) {
+        String signature = booking.getEligibilitySignature();
+        if (signature == null) {
+            signature = signatureOf(booking.getGrade(), sortedCopy(booking.getRequiredQualifications()),
+                    booking.getLocation(), booking.getFacilityId());
+            booking.setEligibilitySignature(signature);
+        }
+        return bookingClassIds.computeIfAbsent(signature, s -> nextBookingClassId.getAndIncrement());
+    }
+
+    private static String signatureOf(Object... parts) {
+        // Unit separator keeps adjacent values from running into each other
+        StringBuilder signature = new StringBuilder();
+        for (Object part : parts) {
+            signature.append(part).append('\u001F');
+        }
+        return signature.toString();
+    }
+
+    private static List<String> sortedCopy(List<String> values) {
+        if (values == null) {
+            return null;
+        }
+        List<String> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted;
+    }
+}
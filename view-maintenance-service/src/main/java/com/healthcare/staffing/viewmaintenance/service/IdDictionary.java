@@ -0,0 +1,67 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Dictionary encoding of UUIDs to dense ints, so per-entity state can live in arrays
+ * indexed by the code. Released codes are handed out again.
+ */
+final class IdDictionary {
+
+    private final Map<UUID, Integer> codes = new HashMap<>();
+    private final Deque<Integer> releasedCodes = new ArrayDeque<>();
+    private UUID[] uuids = new UUID[1024];
+    private int nextCode;
+
+    int intern(UUID uuid) {
+        Integer code = codes.get(uuid);
+        if (code != null) {
+            return code;
+        }
+        
+        int assigned = releasedCodes.isEmpty() ? nextCode++ : releasedCodes.pop();
+        if (assigned == uuids.length) {
+            uuids = Arrays.copyOf(uuids, uuids.length * 2);
+        }
+        uuids[assigned] = uuid;
+        codes.put(uuid, assigned);
+        return assigned;
+    }
+
+    /**
+     * The code of the UUID, or -1 if it has none
+     */
+    int lookup(UUID uuid) {
+        Integer code = codes.get(uuid);
+        return code != null ? code : -1;
+    }
+
+    UUID uuid(int code) {
+        return uuids[code];
+    }
+
+    void release(int code) {
+        codes.remove(uuids[code]);
+        uuids[code] = null;
+        releasedCodes.push(code);
+    }
+
+    void clear() {
+        codes.clear();
+        releasedCodes.clear();
+        Arrays.fill(uuids, null);
+        nextCode = 0;
+    }
+
+    /**
+     * Upper bound of the codes handed out so far, for sizing code-indexed arrays
+     */
+    int capacity() {
+        return uuids.length;
+    }
+}
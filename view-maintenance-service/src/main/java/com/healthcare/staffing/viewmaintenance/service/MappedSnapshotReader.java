@@ -0,0 +1,62 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Reads back what {@link MappedSnapshotWriter} wrote, straight from a read-only mapping of
+ * the whole file. Strings read more than once come back as the same instance.
+ */
+final class MappedSnapshotReader {
+
+    private final MappedByteBuffer buffer;
+    private final List<String> strings = new ArrayList<>();
+
+    MappedSnapshotReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + path);
+            }
+            // The mapping stays valid after the channel is closed
+            this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    byte getByte() {
+        return buffer.get();
+    }
+
+    int getInt() {
+        return buffer.getInt();
+    }
+
+    long getLong() {
+        return buffer.getLong();
+    }
+
+    UUID getUuid() {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    String getString() {
+        int index = buffer.getInt();
+        if (index == MappedSnapshotWriter.NULL_STRING) {
+            return null;
+        }
+        if (index != MappedSnapshotWriter.NEW_STRING) {
+            return strings.get(index);
+        }
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        String value = new String(bytes, StandardCharsets.UTF_8);
+        strings.add(value);
+        return value;
+    }
+}
@@ -0,0 +1,97 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Sequential writer of primitives into a file through memory-mapped windows, so a large
+ * snapshot is written by memory stores rather than write calls. The file grows one window
+ * at a time and is truncated to the bytes written on close. Strings are written once and
+ * afterwards referred to by their index, which keeps repeated grades, locations and
+ * qualifications down to four bytes each.
+ */
+final class MappedSnapshotWriter implements Closeable {
+
+    static final int NULL_STRING = -1;
+    static final int NEW_STRING = -2;
+
+    private static final int WINDOW_SIZE = 64 << 20;
+
+    private final FileChannel channel;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    MappedSnapshotWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.window = channel.map(FileChannel.MapMode.READ_WRITE, 0, WINDOW_SIZE);
+    }
+
+    void putByte(byte value) throws IOException {
+        ensureRemaining(Byte.BYTES);
+        window.put(value);
+    }
+
+    void putInt(int value) throws IOException {
+        ensureRemaining(Integer.BYTES);
+        window.putInt(value);
+    }
+
+    void putLong(long value) throws IOException {
+        ensureRemaining(Long.BYTES);
+        window.putLong(value);
+    }
+
+    void putUuid(UUID value) throws IOException {
+        putLong(value.getMostSignificantBits());
+        putLong(value.getLeastSignificantBits());
+    }
+
+    void putString(String value) throws IOException {
+        if (value == null) {
+            putInt(NULL_STRING);
+            return;
+        }
+        Integer index = strings.get(value);
+        if (index != null) {
+            putInt(index);
+            return;
+        }
+        strings.put(value, strings.size());
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        putInt(NEW_STRING);
+        putInt(bytes.length);
+        ensureRemaining(bytes.length);
+        window.put(bytes);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            long size = windowStart + window.position();
+            window.force();
+            window = null;
+            channel.truncate(size);
+            channel.force(true);
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void ensureRemaining(int bytes) throws IOException {
+        if (window.remaining() < bytes) {
+            windowStart += window.position();
+            window.force();
+            window = channel.map(FileChannel.MapMode.READ_WRITE, windowStart, Math.max(WINDOW_SIZE, bytes));
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates one booking against a list of candidate carers on a dedicated fork-join pool.
+ * The list is split recursively into slices of at least parallel-threshold carers, with
+ * about four slices per worker so stragglers even out; smaller rosters are evaluated on
+ * the calling thread and pay no coordination cost.
+ * <p>
+ * Only the verdicts are computed in parallel. They come back as a bitset over the
+ * candidate positions, so the caller can write the projections in roster order.
+ */
+@Component
+public class ParallelEligibilityEvaluator {
+
+    private static final int SLICES_PER_WORKER = 4;
+
+    private final EligibilityVerdictCache eligibilityVerdictCache;
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    @Autowired
+    public ParallelEligibilityEvaluator(EligibilityVerdictCache eligibilityVerdictCache,
+                                        ViewMaintenanceProperties properties) {
+        this(eligibilityVerdictCache, properties.getEligibility().getParallelism(),
+            properties.getEligibility().getParallelThreshold());
+    }
+
+    ParallelEligibilityEvaluator(EligibilityVerdictCache eligibilityVerdictCache, int parallelism, int threshold) {
+        this.eligibilityVerdictCache = eligibilityVerdictCache;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.threshold = Math.max(1, threshold);
+    }
+
+    /**
+     * Positions in the candidate list of the carers eligible for the booking
+     */
+    public BitSet evaluate(EligibilityRulesEngine.BookingProjection booking,
+                           List<EligibilityRulesEngine.CarerProjection> candidates) {
+        BitSet eligible = new BitSet(candidates.size());
+        if (candidates.size() < threshold || pool.getParallelism() == 1) {
+            evaluateRange(booking, candidates, 0, candidates.size(), eligible);
+            return eligible;
+        }
+
+        int sliceSize = Math.max(threshold, candidates.size() / (pool.getParallelism() * SLICES_PER_WORKER));
+        BitSet[] slices = new BitSet[(candidates.size() + sliceSize - 1) / sliceSize];
+        pool.invoke(new EvaluateSlices(booking, candidates, slices, sliceSize, 0, slices.length));
+        for (BitSet slice : slices) {
+            eligible.or(slice);
+        }
+        return eligible;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private void evaluateRange(EligibilityRulesEngine.BookingProjection booking,
+                               List<EligibilityRulesEngine.CarerProjection> candidates,
+                               int from, int to, BitSet eligible) {
+        for (int i = from; i < to; i++) {
+            if (eligibilityVerdictCache.isCarerEligibleForBooking(candidates.get(i), booking)) {
+                eligible.set(i);
+            }
+        }
+    }
+
+    /**
+     * Halves the range of slices until one is left, then evaluates it into its own bitset
+     */
+    private class EvaluateSlices extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final EligibilityRulesEngine.BookingProjection booking;
+        private final List<EligibilityRulesEngine.CarerProjection> candidates;
+        private final BitSet[] slices;
+        private final int sliceSize;
+        private final int firstSlice;
+        private final int endSlice;
+
+        EvaluateSlices(EligibilityRulesEngine.BookingProjection booking,
+                       List<EligibilityRulesEngine.CarerProjection> candidates,
+                       BitSet[] slices, int sliceSize, int firstSlice, int endSlice) {
+            this.booking = booking;
+            this.candidates = candidates;
+            this.slices = slices;
+            this.sliceSize = sliceSize;
+            this.firstSlice = firstSlice;
+            this.endSlice = endSlice;
+        }
+
+        @Override
+        protected void compute() {
+            if (endSlice - firstSlice == 1) {
+                int from = firstSlice * sliceSize;
+                int to = Math.min(from + sliceSize, candidates.size());
+                BitSet eligible = new BitSet(to);
+                evaluateRange(booking, candidates, from, to, eligible);
+                slices[firstSlice] = eligible;
+                return;
+            }
+            int middle = (firstSlice + endSlice) >>> 1;
+            invokeAll(new EvaluateSlices(booking, candidates, slices, sliceSize, firstSlice, middle),
+                new EvaluateSlices(booking, candidates, slices, sliceSize, middle, endSlice));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Bounded in-process cache of deserialized carer and booking data, so the fan-out of one
+ * event does not decode the same CarerData/BookingData JSON over and over. Entries are
+ * replaced by the store methods of {@link ViewProjectionService} and dropped when the data
+ * is removed; the TTL bounds how long a change made by another instance can go unseen.
+ * <p>
+ * Cached projections are shared instances and must be treated as read-only; changes go
+ * through {@link ViewProjectionService#updateCarerData} / {@link ViewProjectionService#updateBookingData}.
+ * Hit, miss and eviction counts are published as the cache.* meters.
+ */
+@Component
+public class ProjectionDataCache {
+
+    private final Cache<UUID, EligibilityRulesEngine.CarerProjection> carers;
+    private final Cache<UUID, EligibilityRulesEngine.BookingProjection> bookings;
+
+    @Autowired
+    public ProjectionDataCache(ViewMaintenanceProperties properties, MeterRegistry meterRegistry) {
+        this(properties.getDataCache().getMaxEntries(), properties.getDataCache().getTtl());
+        CaffeineCacheMetrics.monitor(meterRegistry, carers, "carerData");
+        CaffeineCacheMetrics.monitor(meterRegistry, bookings, "bookingData");
+    }
+
+    public ProjectionDataCache(long maxEntries, Duration ttl) {
+        this.carers = newCache(maxEntries, ttl);
+        this.bookings = newCache(maxEntries, ttl);
+    }
+
+    public EligibilityRulesEngine.CarerProjection getCarer(UUID carerId) {
+        return carers.getIfPresent(carerId);
+    }
+
+    /**
+     * The cached carers among the given IDs; absent ones are simply left out
+     */
+    public Map<UUID, EligibilityRulesEngine.CarerProjection> getCarers(Iterable<UUID> carerIds) {
+        return carers.getAllPresent(carerIds);
+    }
+
+    public void putCarer(UUID carerId, EligibilityRulesEngine.CarerProjection carer) {
+        carers.put(carerId, carer);
+    }
+
+    public void invalidateCarer(UUID carerId) {
+        carers.invalidate(carerId);
+    }
+
+    public EligibilityRulesEngine.BookingProjection getBooking(UUID bookingId) {
+        return bookings.getIfPresent(bookingId);
+    }
+
+    /**
+     * The cached bookings among the given IDs; absent ones are simply left out
+     */
+    public Map<UUID, EligibilityRulesEngine.BookingProjection> getBookings(Iterable<UUID> bookingIds) {
+        return bookings.getAllPresent(bookingIds);
+    }
+
+    public void putBooking(UUID bookingId, EligibilityRulesEngine.BookingProjection booking) {
+        bookings.put(bookingId, booking);
+    }
+
+    public void invalidateBooking(UUID bookingId) {
+        bookings.invalidate(bookingId);
+    }
+
+    public void invalidateAll() {
+        carers.invalidateAll();
+        bookings.invalidateAll();
+    }
+
+    private static <T> Cache<UUID, T> newCache(long maxEntries, Duration ttl) {
+        return Caffeine.newBuilder()
+            .maximumSize(maxEntries)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+    }
+}
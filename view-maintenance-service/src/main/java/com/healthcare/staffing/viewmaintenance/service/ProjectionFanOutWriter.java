@@ -0,0 +1,251 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.staffing.shared.dto.EligibleCarerDto;
+import com.healthcare.staffing.shared.dto.EligibleShiftDto;
+import com.healthcare.staffing.shared.projection.ProjectionKeys;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Sends the per-entry projection writes produced by one event as pipelined commands
+ * instead of one blocking round trip each. Mutations are collected in a {@link Batch}
+ * and flushed in chunks of at most write-chunk-size commands, which bounds the number of
+ * commands in flight; a flush returns only once Redis has acknowledged every write.
+ * <p>
+ * Inside {@link #runInUnitOfWork} the batches of every handler step go to one
+ * {@link ProjectionUnitOfWork} instead, which coalesces repeated mutations of the same
+ * entry and writes each dirty key once when the unit completes.
+ */
+@Service
+public class ProjectionFanOutWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionFanOutWriter.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final EligibilityGraph eligibilityGraph;
+
+    // Commands sent per pipeline, i.e. the in-flight depth
+    private final int writeChunkSize;
+
+    @Autowired
+    public ProjectionFanOutWriter(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                                  ViewMaintenanceProperties properties, MeterRegistry meterRegistry,
+                                  EligibilityGraph eligibilityGraph) {
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.eligibilityGraph = eligibilityGraph;
+        this.writeChunkSize = properties.getFanOut().getWriteChunkSize();
+    }
+
+    /**
+     * Starts collecting the writes for one event; the event name tags the metrics
+     */
+    public Batch newBatch(String eventName) {
+        return new Batch(eventName);
+    }
+
+    /**
+     * Runs the work with projection writes buffered on the calling thread and flushes them
+     * once it completes. Joins the unit already bound to the thread, if any. If the work
+     * fails, the buffered writes are discarded along with it.
+     */
+    public void runInUnitOfWork(String name, Runnable work) {
+        if (ProjectionUnitOfWork.current() != null) {
+            work.run();
+            return;
+        }
+        
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.begin(name, this);
+        try {
+            work.run();
+            unit.flush();
+        } finally {
+            ProjectionUnitOfWork.end();
+        }
+    }
+
+    /**
+     * Writes every dirty hash of the buffer with one apply-projection-entries call, which
+     * applies all of the hash's removals (HDEL) and additions (HSETNX) together with their
+     * reverse index members atomically, so another lane writing other entries of the same
+     * hash loses nothing. Entries deleted and added again within the unit are replaced.
+     * The pipeline as a whole is not atomic.
+     */
+    void write(ProjectionUnitOfWork buffer) {
+        String ttlSeconds = String.valueOf(TimeUnit.HOURS.toSeconds(ViewProjectionService.PROJECTION_TTL_HOURS));
+        List<Consumer<RedisOperations<String, String>>> commands = new ArrayList<>();
+        buffer.getPendingEntries().forEach((key, entries) -> {
+            List<String> keys = new ArrayList<>(entries.size() + 1);
+            List<String> args = new ArrayList<>(entries.size() * 4 + 1);
+            keys.add(key);
+            args.add(ttlSeconds);
+            entries.forEach((field, jsonValue) -> {
+                ProjectionUnitOfWork.EntryIndex index = buffer.getIndex(key, field);
+                keys.add(index.getKey());
+                args.add(jsonValue == null ? "delete" : buffer.isReplaced(key, field) ? "replace" : "put");
+                args.add(field);
+                args.add(jsonValue == null ? "" : jsonValue);
+                args.add(index.getMember());
+            });
+            Object[] argv = args.toArray();
+            commands.add(ops -> ops.execute(ViewProjectionService.APPLY_ENTRIES_SCRIPT, keys, argv));
+        });
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        for (int from = 0; from < commands.size(); from += writeChunkSize) {
+            List<Consumer<RedisOperations<String, String>>> chunk =
+                commands.subList(from, Math.min(from + writeChunkSize, commands.size()));
+
+            // executePipelined blocks until every reply in the chunk has been read
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    chunk.forEach(command -> command.accept(ops));
+                    return null;
+                }
+            });
+        }
+        applyToGraph(buffer);
+        long nanos = sample.stop(Timer.builder("viewmaintenance.fanout.flush")
+            .description("Time to write and acknowledge all projection mutations of one event")
+            .tag("event", buffer.getName())
+            .register(meterRegistry));
+
+        int writtenEntries = buffer.getPendingEntryCount();
+        DistributionSummary.builder("viewmaintenance.fanout.writes")
+            .description("Projection keys written per event")
+            .tag("event", buffer.getName())
+            .register(meterRegistry)
+            .record(commands.size());
+        Counter.builder("viewmaintenance.fanout.writes.saved")
+            .description("Projection mutations coalesced into the single write of their key before reaching Redis")
+            .tag("event", buffer.getName())
+            .register(meterRegistry)
+            .increment(buffer.getRecordedMutations() - commands.size());
+
+        log.debug("Flushed {} projection entries ({} mutations) as {} key writes for {} in {} ms", writtenEntries,
+                buffer.getRecordedMutations(), commands.size(), buffer.getName(), TimeUnit.NANOSECONDS.toMillis(nanos));
+    }
+
+    /**
+     * Mirrors the written projection entries into the in-memory eligibility graph, once
+     * Redis has acknowledged them
+     */
+    private void applyToGraph(ProjectionUnitOfWork buffer) {
+        if (!eligibilityGraph.isEnabled()) {
+            return;
+        }
+        buffer.getPendingEntries().forEach((key, entries) -> {
+            if (key.startsWith(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX)) {
+                UUID carerId = UUID.fromString(key.substring(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX.length()));
+                entries.forEach((field, jsonValue) -> {
+                    if (jsonValue == null) {
+                        eligibilityGraph.removeAvailableShift(carerId, UUID.fromString(field));
+                    } else {
+                        eligibilityGraph.addAvailableShift(carerId, UUID.fromString(field));
+                    }
+                });
+            } else if (key.startsWith(ProjectionKeys.ELIGIBLE_CARERS_PREFIX)) {
+                UUID bookingId = UUID.fromString(key.substring(ProjectionKeys.ELIGIBLE_CARERS_PREFIX.length()));
+                entries.forEach((field, jsonValue) -> {
+                    if (jsonValue == null) {
+                        eligibilityGraph.removeEligibleCarer(bookingId, UUID.fromString(field));
+                    } else {
+                        eligibilityGraph.addEligibleCarer(bookingId, UUID.fromString(field));
+                    }
+                });
+            }
+        });
+    }
+
+    private String serialize(Object value, String description) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + description, e);
+        }
+    }
+
+    /**
+     * Per-entry projection writes for one event. Each method mirrors the
+     * {@link ViewProjectionService} method of the same name, reverse index included.
+     * Within a unit of work the writes join the unit and are only sent when it completes.
+     */
+    public class Batch {
+
+        private final ProjectionUnitOfWork buffer;
+        private final boolean deferred;
+        private int size;
+
+        private Batch(String eventName) {
+            ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+            this.deferred = unit != null;
+            this.buffer = deferred ? unit : ProjectionUnitOfWork.detached(eventName, ProjectionFanOutWriter.this);
+        }
+
+        public void addShiftForCarer(UUID carerId, EligibleShiftDto shift) {
+            String jsonValue = serialize(shift, "eligible shift for carer: " + carerId);
+            buffer.putEntry(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId, shift.getBookingId().toString(),
+                jsonValue, ViewProjectionService.CARERS_WITH_SHIFT_PREFIX + shift.getBookingId(), carerId.toString());
+            size++;
+        }
+
+        public void removeShiftForCarer(UUID carerId, UUID bookingId) {
+            buffer.deleteEntry(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId, bookingId.toString(),
+                ViewProjectionService.CARERS_WITH_SHIFT_PREFIX + bookingId, carerId.toString());
+            size++;
+        }
+
+        public void addCarerForShift(UUID bookingId, EligibleCarerDto carer) {
+            String jsonValue = serialize(carer, "eligible carer for shift: " + bookingId);
+            buffer.putEntry(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId, carer.getCarerId().toString(),
+                jsonValue, ViewProjectionService.SHIFTS_WITH_CARER_PREFIX + carer.getCarerId(), bookingId.toString());
+            size++;
+        }
+
+        public void removeCarerForShift(UUID bookingId, UUID carerId) {
+            buffer.deleteEntry(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId, carerId.toString(),
+                ViewProjectionService.SHIFTS_WITH_CARER_PREFIX + carerId, bookingId.toString());
+            size++;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Writes everything collected so far and waits for Redis to acknowledge it. Within a
+         * unit of work this is left to the unit.
+         */
+        public void flush() {
+            if (!deferred) {
+                buffer.flush();
+            }
+            size = 0;
+        }
+    }
+}
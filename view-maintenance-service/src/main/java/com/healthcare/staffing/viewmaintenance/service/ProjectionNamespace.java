@@ -0,0 +1,60 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.healthcare.staffing.shared.projection.ProjectionKeys;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * The key namespace the projections are currently maintained in. The active namespace is
+ * recorded in the un-namespaced ProjectionNamespace key, which read-api-service follows,
+ * so switching it is a single atomic SET. The original, un-prefixed keys form the empty
+ * namespace; rebuilt projections get a fresh "v{n}:" namespace each.
+ */
+@Component
+public class ProjectionNamespace {
+
+    private static final Logger log = LoggerFactory.getLogger(ProjectionNamespace.class);
+
+    private static final String NAMESPACE_SEQUENCE_KEY = "ProjectionNamespaceSequence";
+
+    // Plain template: the pointer itself lives outside every namespace
+    private final StringRedisTemplate redisTemplate;
+    private volatile String active = "";
+
+    @Autowired
+    public ProjectionNamespace(RedisConnectionFactory connectionFactory) {
+        this.redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @PostConstruct
+    public void load() {
+        String namespace = redisTemplate.opsForValue().get(ProjectionKeys.ACTIVE_NAMESPACE_KEY);
+        active = namespace != null ? namespace : "";
+        log.info("Maintaining projections in namespace '{}'", active);
+    }
+
+    public String getActive() {
+        return active;
+    }
+
+    /**
+     * Reserves a namespace that has never been used
+     */
+    public String allocate() {
+        return "v" + redisTemplate.opsForValue().increment(NAMESPACE_SEQUENCE_KEY) + ":";
+    }
+
+    /**
+     * Makes the namespace the one projections are read from and maintained in
+     */
+    public void activate(String namespace) {
+        redisTemplate.opsForValue().set(ProjectionKeys.ACTIVE_NAMESPACE_KEY, namespace);
+        active = namespace;
+        log.info("Switched projections to namespace '{}'", namespace);
+    }
+}
@@ -0,0 +1,213 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Write-behind buffer for the projection entries and reverse index members touched while
+ * handling an event or a batch of events on one thread. Mutations of the same entry are
+ * coalesced to their final state and reads of buffered keys see them, so each dirty hash is
+ * written once, in a single script call, when the unit is flushed instead of once per
+ * handler step and entry. Adds keep the
+ * HSETNX semantics of the direct writes: a second add of a listed entry is ignored, while
+ * an add after a delete in the same unit replaces the entry.
+ */
+class ProjectionUnitOfWork {
+
+    private static final ThreadLocal<ProjectionUnitOfWork> CURRENT = new ThreadLocal<>();
+
+    private final String name;
+    private final ProjectionFanOutWriter writer;
+
+    // Final value per entry of each projection hash; a null value deletes the entry
+    private final Map<String, Map<String, String>> pendingEntries = new LinkedHashMap<>();
+    // Final membership per member of each reverse index set; false removes the member
+    private final Map<String, Map<String, Boolean>> pendingMembers = new LinkedHashMap<>();
+    // Reverse index entry of each pending projection entry, written together with it
+    private final Map<String, Map<String, EntryIndex>> pendingIndexes = new HashMap<>();
+    // Pending entries added after being deleted in this unit, so they overwrite what Redis holds
+    private final Map<String, Set<String>> replacedFields = new HashMap<>();
+
+    // Redis state of keys read during the unit, as loaded before the pending mutations
+    private final Map<String, Set<String>> loadedMembers = new HashMap<>();
+    private final Map<String, Set<String>> loadedFields = new HashMap<>();
+    private final Map<String, Map<String, String>> loadedEntries = new HashMap<>();
+
+    private int recordedMutations;
+
+    private ProjectionUnitOfWork(String name, ProjectionFanOutWriter writer) {
+        this.name = name;
+        this.writer = writer;
+    }
+
+    /**
+     * Unit bound to the calling thread, or null outside of one
+     */
+    static ProjectionUnitOfWork current() {
+        return CURRENT.get();
+    }
+
+    static ProjectionUnitOfWork begin(String name, ProjectionFanOutWriter writer) {
+        ProjectionUnitOfWork unit = new ProjectionUnitOfWork(name, writer);
+        CURRENT.set(unit);
+        return unit;
+    }
+
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Unbound buffer for a batch written outside of any unit
+     */
+    static ProjectionUnitOfWork detached(String name, ProjectionFanOutWriter writer) {
+        return new ProjectionUnitOfWork(name, writer);
+    }
+
+    void putEntry(String hashKey, String field, String jsonValue, String indexKey, String member) {
+        recordedMutations++;
+        Map<String, String> entries = pendingEntries.computeIfAbsent(hashKey, k -> new LinkedHashMap<>());
+        if (entries.containsKey(field)) {
+            if (entries.get(field) != null) {
+                return;
+            }
+            replacedFields.computeIfAbsent(hashKey, k -> new HashSet<>()).add(field);
+        }
+        entries.put(field, jsonValue);
+        pendingIndexes.computeIfAbsent(hashKey, k -> new HashMap<>()).put(field, new EntryIndex(indexKey, member));
+        pendingMembers.computeIfAbsent(indexKey, k -> new LinkedHashMap<>()).put(member, true);
+    }
+
+    void deleteEntry(String hashKey, String field, String indexKey, String member) {
+        recordedMutations++;
+        pendingEntries.computeIfAbsent(hashKey, k -> new LinkedHashMap<>()).put(field, null);
+        pendingIndexes.computeIfAbsent(hashKey, k -> new HashMap<>()).put(field, new EntryIndex(indexKey, member));
+        pendingMembers.computeIfAbsent(indexKey, k -> new LinkedHashMap<>()).put(member, false);
+    }
+
+    /**
+     * Entry field names of a projection hash, including pending mutations
+     */
+    Set<String> readFields(String hashKey, Supplier<Set<String>> loader) {
+        Map<String, String> entries = loadedEntries.get(hashKey);
+        Set<String> fields = new HashSet<>(entries != null
+            ? entries.keySet() : loadedFields.computeIfAbsent(hashKey, k -> loader.get()));
+        pendingEntries.getOrDefault(hashKey, Map.of()).forEach((field, jsonValue) -> {
+            if (jsonValue == null) {
+                fields.remove(field);
+            } else {
+                fields.add(field);
+            }
+        });
+        return fields;
+    }
+
+    /**
+     * Entries of a projection hash, including pending mutations
+     */
+    Map<String, String> readEntries(String hashKey, Supplier<Map<String, String>> loader) {
+        Map<String, String> entries = new LinkedHashMap<>(loadedEntries.computeIfAbsent(hashKey, k -> loader.get()));
+        pendingEntries.getOrDefault(hashKey, Map.of()).forEach((field, jsonValue) -> {
+            if (jsonValue == null) {
+                entries.remove(field);
+            } else if (isReplaced(hashKey, field)) {
+                entries.put(field, jsonValue);
+            } else {
+                // HSETNX leaves an entry Redis already holds untouched
+                entries.putIfAbsent(field, jsonValue);
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Members of a reverse index set, including pending mutations
+     */
+    Set<String> readMembers(String setKey, Supplier<Set<String>> loader) {
+        Set<String> members = new HashSet<>(loadedMembers.computeIfAbsent(setKey, k -> loader.get()));
+        pendingMembers.getOrDefault(setKey, Map.of()).forEach((member, present) -> {
+            if (present) {
+                members.add(member);
+            } else {
+                members.remove(member);
+            }
+        });
+        return members;
+    }
+
+    /**
+     * Writes the pending mutations, one script call per dirty hash, and forgets what was
+     * read since Redis now holds the merged state
+     */
+    void flush() {
+        if (!pendingEntries.isEmpty()) {
+            writer.write(this);
+        }
+        pendingEntries.clear();
+        pendingMembers.clear();
+        pendingIndexes.clear();
+        replacedFields.clear();
+        loadedEntries.clear();
+        loadedFields.clear();
+        loadedMembers.clear();
+        recordedMutations = 0;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    Map<String, Map<String, String>> getPendingEntries() {
+        return pendingEntries;
+    }
+
+    Map<String, Map<String, Boolean>> getPendingMembers() {
+        return pendingMembers;
+    }
+
+    EntryIndex getIndex(String hashKey, String field) {
+        return pendingIndexes.get(hashKey).get(field);
+    }
+
+    boolean isReplaced(String hashKey, String field) {
+        return replacedFields.getOrDefault(hashKey, Set.of()).contains(field);
+    }
+
+    int getRecordedMutations() {
+        return recordedMutations;
+    }
+
+    int getPendingEntryCount() {
+        int count = 0;
+        for (Map<String, String> entries : pendingEntries.values()) {
+            count += entries.size();
+        }
+        return count;
+    }
+
+    /**
+     * The reverse index set and member that go with a projection entry
+     */
+    static final class EntryIndex {
+
+        private final String key;
+        private final String member;
+
+        EntryIndex(String key, String member) {
+            this.key = key;
+            this.member = member;
+        }
+
+        String getKey() {
+            return key;
+        }
+
+        String getMember() {
+            return member;
+        }
+    }
+}
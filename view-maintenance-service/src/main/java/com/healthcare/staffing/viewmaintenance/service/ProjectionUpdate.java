@@ -0,0 +1,24 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+/**
+ * Outcome of a compare-and-set projection update: the value as read under WATCH and the
+ * value that was written, so callers can work out what changed without a second read.
+ */
+public class ProjectionUpdate<T> {
+
+    private final T previous;
+    private final T current;
+
+    public ProjectionUpdate(T previous, T current) {
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public T getPrevious() {
+        return previous;
+    }
+
+    public T getCurrent() {
+        return current;
+    }
+}
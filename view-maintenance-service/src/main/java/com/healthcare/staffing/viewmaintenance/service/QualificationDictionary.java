@@ -0,0 +1,56 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Interns qualification codes to bit positions so qualification sets can be compared
+ * as masks instead of string lists. Positions are handed out on first sight and never
+ * reassigned, so a mask stays valid for as long as the qualifications it was built from.
+ */
+public class QualificationDictionary {
+
+    private final ConcurrentHashMap<String, Integer> positions = new ConcurrentHashMap<>();
+    private final AtomicInteger nextPosition = new AtomicInteger();
+
+    /**
+     * Returns the bit position of a qualification code, assigning the next free one if unseen
+     */
+    public int positionOf(String code) {
+        return positions.computeIfAbsent(code, c -> nextPosition.getAndIncrement());
+    }
+
+    /**
+     * Encodes a set of qualification codes as a mask
+     */
+    public QualificationMask maskOf(Collection<String> codes) {
+        if (codes == null || codes.isEmpty()) {
+            return QualificationMask.EMPTY;
+        }
+
+        long bits = 0L;
+        BitSet overflow = null;
+        for (String code : codes) {
+            int position = positionOf(code);
+            if (position < Long.SIZE) {
+                bits |= 1L << position;
+            } else {
+                // Dictionary has outgrown a single long, keep the extra codes in a BitSet
+                if (overflow == null) {
+                    overflow = new BitSet();
+                }
+                overflow.set(position - Long.SIZE);
+            }
+        }
+        return new QualificationMask(bits, overflow != null ? overflow.toLongArray() : null);
+    }
+
+    /**
+     * Number of distinct qualification codes seen so far
+     */
+    public int size() {
+        return nextPosition.get();
+    }
+}
@@ -0,0 +1,51 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+/**
+ * Immutable set of qualification bit positions from a {@link QualificationDictionary}.
+ * The first 64 positions live in a single long so the common subset check is one AND;
+ * positions beyond that spill into extra words that are only consulted when present.
+ */
+public final class QualificationMask {
+
+    public static final QualificationMask EMPTY = new QualificationMask(0L, null);
+
+    private final long bits;
+    private final long[] overflowWords;
+
+    QualificationMask(long bits, long[] overflowWords) {
+        this.bits = bits;
+        this.overflowWords = overflowWords != null && overflowWords.length > 0 ? overflowWords : null;
+    }
+
+    /**
+     * Checks whether every qualification in the required mask is also in this mask
+     */
+    public boolean containsAll(QualificationMask required) {
+        if ((required.bits & ~bits) != 0) {
+            return false;
+        }
+        if (required.overflowWords == null) {
+            return true;
+        }
+
+        for (int i = 0; i < required.overflowWords.length; i++) {
+            long held = overflowWords != null && i < overflowWords.length ? overflowWords[i] : 0L;
+            if ((required.overflowWords[i] & ~held) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long bits() {
+        return bits;
+    }
+
+    boolean hasOverflow() {
+        return overflowWords != null;
+    }
+
+    public boolean isEmpty() {
+        return bits == 0L && overflowWords == null;
+    }
+}
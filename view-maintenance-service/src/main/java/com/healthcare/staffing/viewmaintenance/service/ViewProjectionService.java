@@ -2,99 +2,318 @@ package com.healthcare.staffing.viewmaintenance.service;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.staffing.shared.dto.BookingSummaryDto;
 import com.healthcare.staffing.shared.dto.EligibleCarerDto;
 import com.healthcare.staffing.shared.dto.EligibleShiftDto;
+import com.healthcare.staffing.shared.projection.ProjectionKeys;
+import com.healthcare.staffing.viewmaintenance.config.NamespacedKeySerializer;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.redis.connection.DataType;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ViewProjectionService {
     
+    private static final Logger log = LoggerFactory.getLogger(ViewProjectionService.class);
+    
     private final RedisTemplate<String, String> redisTemplate;
     private final ObjectMapper objectMapper;
+    private final EligibilityGraph eligibilityGraph;
+    private final ProjectionDataCache dataCache;
+    
+    // Number of carer/booking data keys fetched per MGET round trip
+    private final int loadChunkSize;
+    
+    // WATCH/MULTI attempts per read-modify-write before a concurrent writer wins
+    private final int maxWriteAttempts;
     
-    // Redis key prefixes
-    private static final String AVAILABLE_SHIFTS_PREFIX = "AvailableShiftsPerCarer:";
-    private static final String ELIGIBLE_CARERS_PREFIX = "EligibleCarersPerShift:";
+    // The eligibility graph is restored from a snapshot rather than loaded at startup
+    private final boolean snapshotEnabled;
+    
+    // Redis key prefixes of the data only view-maintenance-service reads; the projections
+    // read by read-api-service are keyed by ProjectionKeys. Eligibility projections are
+    // hashes so single entries can be changed in O(1).
     private static final String CARER_DATA_PREFIX = "CarerData:";
     private static final String BOOKING_DATA_PREFIX = "BookingData:";
     
+    // Redis sets acting as ID registries, maintained alongside CarerData/BookingData
+    private static final String CARER_IDS_KEY = "CarerIds";
+    private static final String BOOKING_IDS_KEY = "BookingIds";
+    
+    // Reverse indexes: carers whose AvailableShiftsPerCarer list holds a booking, and
+    // bookings whose EligibleCarersPerShift list holds a carer
+    static final String CARERS_WITH_SHIFT_PREFIX = "CarersWithAvailableShift:";
+    static final String SHIFTS_WITH_CARER_PREFIX = "ShiftsWithEligibleCarer:";
+    private static final String REVERSE_INDEX_MARKER_KEY = "ReverseIndexInitialized";
+    private static final String HASH_LAYOUT_MARKER_KEY = "ProjectionHashLayoutInitialized";
+    
+    // Inverted candidate indexes by grade, so eligibility fan-out only visits carers and
+    // bookings that can pass the grade rule
+    private static final String CARERS_BY_GRADE_PREFIX = "CarersByGrade:";
+    private static final String BOOKINGS_BY_GRADE_PREFIX = "BookingsByGrade:";
+    private static final String GRADE_INDEX_MARKER_KEY = "GradeIndexInitialized";
+    
+    // Interval index: one set per calendar day holding every booking whose shift touches
+    // that day, so time-conflict lookups only visit bookings near the shift window
+    private static final String BOOKINGS_BY_DAY_PREFIX = "BookingsByDay:";
+    private static final String INTERVAL_INDEX_MARKER_KEY = "BookingIntervalIndexInitialized";
+    
+    // Number of members requested per SSCAN/SCAN round trip
+    private static final int ID_SCAN_BATCH_SIZE = 500;
+    
     // TTL for projections (24 hours)
-    private static final long PROJECTION_TTL_HOURS = 24;
+    static final long PROJECTION_TTL_HOURS = 24;
+    
+    // Server-side scripts for single-entry mutations, so each is one atomic EVALSHA round
+    // trip that transfers only the entry and returns 1/0
+    static final RedisScript<Long> ADD_ENTRY_SCRIPT = loadScript("scripts/add-projection-entry.lua");
+    static final RedisScript<Long> REMOVE_ENTRY_SCRIPT = loadScript("scripts/remove-projection-entry.lua");
+    static final RedisScript<Long> APPLY_ENTRIES_SCRIPT = loadScript("scripts/apply-projection-entries.lua");
 
     @Autowired
-    public ViewProjectionService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper) {
+    public ViewProjectionService(RedisTemplate<String, String> redisTemplate, ObjectMapper objectMapper,
+                                 ViewMaintenanceProperties properties, EligibilityGraph eligibilityGraph,
+                                 ProjectionDataCache dataCache) {
         this.redisTemplate = redisTemplate;
         this.objectMapper = objectMapper;
+        this.eligibilityGraph = eligibilityGraph;
+        this.dataCache = dataCache;
+        this.loadChunkSize = properties.getFanOut().getLoadChunkSize();
+        this.maxWriteAttempts = properties.getProjectionWrites().getMaxAttempts();
+        this.snapshotEnabled = properties.getLocalState().getSnapshot().isEnabled();
     }
 
     /**
-     * Updates the list of available shifts for a specific carer
+     * Replaces the available shifts for a specific carer, keeping the
+     * booking -> carers reverse index in step with the bookings added or dropped
+     * (see {@link #replaceProjection}). Used by the rebuild; the event handlers add and
+     * remove single entries instead, so they never drop entries written by another lane.
      */
     public void updateAvailableShiftsForCarer(UUID carerId, List<EligibleShiftDto> eligibleShifts) {
-        String key = AVAILABLE_SHIFTS_PREFIX + carerId.toString();
-        try {
-            String jsonValue = objectMapper.writeValueAsString(eligibleShifts);
-            redisTemplate.opsForValue().set(key, jsonValue, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize eligible shifts for carer: " + carerId, e);
+        flushUnitOfWork();
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (EligibleShiftDto shift : eligibleShifts) {
+            entries.put(shift.getBookingId().toString(), serialize(shift, "eligible shift for carer: " + carerId));
         }
+        replaceProjection(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId, entries, CARERS_WITH_SHIFT_PREFIX,
+            carerId.toString());
+        
+        eligibilityGraph.replaceAvailableShifts(carerId, bookingIdsOf(eligibleShifts));
     }
 
     /**
-     * Updates the list of eligible carers for a specific shift
+     * Replaces the eligible carers for a specific shift, keeping the
+     * carer -> bookings reverse index in step with the carers added or dropped
+     * (see {@link #replaceProjection}). Used by the rebuild; the event handlers add and
+     * remove single entries instead, so they never drop entries written by another lane.
      */
     public void updateEligibleCarersForShift(UUID bookingId, List<EligibleCarerDto> eligibleCarers) {
-        String key = ELIGIBLE_CARERS_PREFIX + bookingId.toString();
-        try {
-            String jsonValue = objectMapper.writeValueAsString(eligibleCarers);
-            redisTemplate.opsForValue().set(key, jsonValue, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to serialize eligible carers for shift: " + bookingId, e);
+        flushUnitOfWork();
+        Map<String, String> entries = new LinkedHashMap<>();
+        for (EligibleCarerDto carer : eligibleCarers) {
+            entries.put(carer.getCarerId().toString(), serialize(carer, "eligible carer for shift: " + bookingId));
         }
+        replaceProjection(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId, entries, SHIFTS_WITH_CARER_PREFIX,
+            bookingId.toString());
+        
+        eligibilityGraph.replaceEligibleCarers(bookingId, carerIdsOf(eligibleCarers));
     }
 
     /**
-     * Retrieves available shifts for a carer
+     * Adds a shift to a carer's available shifts unless it is already listed (HSETNX)
      */
-    public List<EligibleShiftDto> getAvailableShiftsForCarer(UUID carerId) {
-        String key = AVAILABLE_SHIFTS_PREFIX + carerId.toString();
-        String jsonValue = redisTemplate.opsForValue().get(key);
+    public void addShiftForCarer(UUID carerId, EligibleShiftDto shift) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        String jsonValue = serialize(shift, "eligible shift for carer: " + carerId);
+        if (unit != null) {
+            unit.putEntry(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId, shift.getBookingId().toString(), jsonValue,
+                CARERS_WITH_SHIFT_PREFIX + shift.getBookingId(), carerId.toString());
+            return;
+        }
+        redisTemplate.execute(ADD_ENTRY_SCRIPT,
+            List.of(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId, CARERS_WITH_SHIFT_PREFIX + shift.getBookingId()),
+            shift.getBookingId().toString(), jsonValue, String.valueOf(TimeUnit.HOURS.toSeconds(PROJECTION_TTL_HOURS)),
+            carerId.toString());
+        eligibilityGraph.addAvailableShift(carerId, shift.getBookingId());
+    }
+
+    /**
+     * Removes a shift from a carer's available shifts (HDEL)
+     */
+    public void removeShiftForCarer(UUID carerId, UUID bookingId) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        if (unit != null) {
+            unit.deleteEntry(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId, bookingId.toString(),
+                CARERS_WITH_SHIFT_PREFIX + bookingId, carerId.toString());
+            return;
+        }
+        redisTemplate.execute(REMOVE_ENTRY_SCRIPT,
+            List.of(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId, CARERS_WITH_SHIFT_PREFIX + bookingId),
+            bookingId.toString(), carerId.toString());
+        eligibilityGraph.removeAvailableShift(carerId, bookingId);
+    }
+
+    /**
+     * Adds a carer to a shift's eligible carers unless they are already listed (HSETNX)
+     */
+    public void addCarerForShift(UUID bookingId, EligibleCarerDto carer) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        String jsonValue = serialize(carer, "eligible carer for shift: " + bookingId);
+        if (unit != null) {
+            unit.putEntry(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId, carer.getCarerId().toString(), jsonValue,
+                SHIFTS_WITH_CARER_PREFIX + carer.getCarerId(), bookingId.toString());
+            return;
+        }
+        redisTemplate.execute(ADD_ENTRY_SCRIPT,
+            List.of(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId, SHIFTS_WITH_CARER_PREFIX + carer.getCarerId()),
+            carer.getCarerId().toString(), jsonValue, String.valueOf(TimeUnit.HOURS.toSeconds(PROJECTION_TTL_HOURS)),
+            bookingId.toString());
+        eligibilityGraph.addEligibleCarer(bookingId, carer.getCarerId());
+    }
+
+    /**
+     * Overwrites the given attributes of the carer entry held in a shift's eligible carers,
+     * if present, leaving the others (such as the per-shift distance) untouched. The entry
+     * is merged with Jackson and written back as a compare-and-set, so a concurrent write to
+     * the shift's eligible carers makes the patch retry. Returns whether the entry existed.
+     */
+    public boolean patchCarerForShift(UUID bookingId, UUID carerId, Map<String, Object> attributes) {
+        flushUnitOfWork();
+        String key = ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId;
+        String field = carerId.toString();
         
-        if (jsonValue == null) {
-            return List.of(); // Return empty list if not found
+        ProjectionUpdate<EligibleCarerDto> result = compareAndSet(key,
+            ops -> ops.<String, String>opsForHash().get(key, field),
+            jsonValue -> deserialize(jsonValue, EligibleCarerDto.class, "eligible carer for shift: " + bookingId),
+            carer -> {
+                try {
+                    objectMapper.updateValue(carer, attributes);
+                } catch (JsonMappingException e) {
+                    throw new RuntimeException("Failed to patch eligible carer for shift: " + bookingId, e);
+                }
+            },
+            (ops, update) -> ops.<String, String>opsForHash().put(key, field,
+                serialize(update.getCurrent(), "eligible carer for shift: " + bookingId)));
+        return result != null;
+    }
+
+    /**
+     * Removes a carer from a shift's eligible carers (HDEL)
+     */
+    public void removeCarerForShift(UUID bookingId, UUID carerId) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        if (unit != null) {
+            unit.deleteEntry(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId, carerId.toString(),
+                SHIFTS_WITH_CARER_PREFIX + carerId, bookingId.toString());
+            return;
+        }
+        redisTemplate.execute(REMOVE_ENTRY_SCRIPT,
+            List.of(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId, SHIFTS_WITH_CARER_PREFIX + carerId),
+            carerId.toString(), bookingId.toString());
+        eligibilityGraph.removeEligibleCarer(bookingId, carerId);
+    }
+
+    /**
+     * Gets the carers whose available shifts currently include the booking
+     */
+    public Set<UUID> getCarersWithAvailableShift(UUID bookingId) {
+        if (eligibilityGraph.isActive()) {
+            return overlayMembers(CARERS_WITH_SHIFT_PREFIX + bookingId, eligibilityGraph.getCarersWithAvailableShift(bookingId));
+        }
+        return toUuidSet(readMembers(CARERS_WITH_SHIFT_PREFIX + bookingId.toString()));
+    }
+
+    /**
+     * Gets the bookings whose eligible carers currently include the carer
+     */
+    public Set<UUID> getShiftsWithEligibleCarer(UUID carerId) {
+        if (eligibilityGraph.isActive()) {
+            return overlayMembers(SHIFTS_WITH_CARER_PREFIX + carerId, eligibilityGraph.getShiftsWithEligibleCarer(carerId));
+        }
+        return toUuidSet(readMembers(SHIFTS_WITH_CARER_PREFIX + carerId.toString()));
+    }
+
+    /**
+     * Gets the IDs of the bookings in a carer's available shifts without decoding the entries (HKEYS)
+     */
+    public Set<UUID> getAvailableShiftIdsForCarer(UUID carerId) {
+        if (eligibilityGraph.isActive()) {
+            return overlayFields(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId,
+                eligibilityGraph.getAvailableShiftIds(carerId));
+        }
+        return toUuidSet(readFields(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId.toString()));
+    }
+
+    /**
+     * Gets the IDs of the carers in a shift's eligible carers without decoding the entries (HKEYS)
+     */
+    public Set<UUID> getEligibleCarerIdsForShift(UUID bookingId) {
+        if (eligibilityGraph.isActive()) {
+            return overlayFields(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId,
+                eligibilityGraph.getEligibleCarerIds(bookingId));
         }
+        return toUuidSet(readFields(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId.toString()));
+    }
+
+    /**
+     * Retrieves available shifts for a carer
+     */
+    public List<EligibleShiftDto> getAvailableShiftsForCarer(UUID carerId) {
+        Collection<String> jsonValues = readEntryValues(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId.toString());
         
-        try {
-            return objectMapper.readValue(jsonValue, new TypeReference<List<EligibleShiftDto>>() {});
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to deserialize available shifts for carer: " + carerId, e);
+        List<EligibleShiftDto> shifts = new ArrayList<>(jsonValues.size());
+        for (String jsonValue : jsonValues) {
+            shifts.add(deserialize(jsonValue, EligibleShiftDto.class, "available shifts for carer: " + carerId));
         }
+        return shifts;
     }
 
     /**
      * Retrieves eligible carers for a shift
      */
     public List<EligibleCarerDto> getEligibleCarersForShift(UUID bookingId) {
-        String key = ELIGIBLE_CARERS_PREFIX + bookingId.toString();
-        String jsonValue = redisTemplate.opsForValue().get(key);
+        Collection<String> jsonValues = readEntryValues(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId.toString());
         
-        if (jsonValue == null) {
-            return List.of(); // Return empty list if not found
-        }
-        
-        try {
-            return objectMapper.readValue(jsonValue, new TypeReference<List<EligibleCarerDto>>() {});
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Failed to deserialize eligible carers for shift: " + bookingId, e);
+        List<EligibleCarerDto> carers = new ArrayList<>(jsonValues.size());
+        for (String jsonValue : jsonValues) {
+            carers.add(deserialize(jsonValue, EligibleCarerDto.class, "eligible carers for shift: " + bookingId));
         }
+        return carers;
     }
 
     /**
@@ -105,15 +324,65 @@ public class ViewProjectionService {
         try {
             String jsonValue = objectMapper.writeValueAsString(carerData);
             redisTemplate.opsForValue().set(key, jsonValue, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+            redisTemplate.opsForSet().add(CARER_IDS_KEY, carerId.toString());
+            if (carerData.getGrade() != null) {
+                redisTemplate.opsForSet().add(CARERS_BY_GRADE_PREFIX + carerData.getGrade(), carerId.toString());
+            }
+            dataCache.putCarer(carerId, carerData);
+            eligibilityGraph.putCarer(carerId, carerData);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize carer data: " + carerId, e);
         }
     }
 
+    /**
+     * Applies a change to stored carer data as a compare-and-set: the data is read under
+     * WATCH and written back, together with the grade index move, in MULTI/EXEC. If another
+     * writer changed the carer in between, the change is re-applied to a fresh read.
+     * Returns null if no data is stored for the carer.
+     */
+    public ProjectionUpdate<EligibilityRulesEngine.CarerProjection> updateCarerData(
+            UUID carerId, Consumer<EligibilityRulesEngine.CarerProjection> change) {
+        String key = CARER_DATA_PREFIX + carerId.toString();
+        String member = carerId.toString();
+        
+        ProjectionUpdate<EligibilityRulesEngine.CarerProjection> result = compareAndSet(key, ops -> ops.opsForValue().get(key),
+            jsonValue -> deserialize(jsonValue, EligibilityRulesEngine.CarerProjection.class, "carer data: " + carerId),
+            change,
+            (ops, update) -> {
+                EligibilityRulesEngine.CarerProjection previous = update.getPrevious();
+                EligibilityRulesEngine.CarerProjection current = update.getCurrent();
+                ops.opsForValue().set(key, serialize(current, "carer data: " + carerId),
+                    PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+                ops.opsForSet().add(CARER_IDS_KEY, member);
+                if (previous.getGrade() != null && !previous.getGrade().equals(current.getGrade())) {
+                    ops.opsForSet().remove(CARERS_BY_GRADE_PREFIX + previous.getGrade(), member);
+                }
+                if (current.getGrade() != null) {
+                    ops.opsForSet().add(CARERS_BY_GRADE_PREFIX + current.getGrade(), member);
+                }
+            });
+        if (result != null) {
+            dataCache.putCarer(carerId, result.getCurrent());
+            eligibilityGraph.putCarer(carerId, result.getCurrent());
+        } else {
+            dataCache.invalidateCarer(carerId);
+        }
+        return result;
+    }
+
     /**
      * Retrieves carer data for eligibility calculations
      */
     public EligibilityRulesEngine.CarerProjection getCarerData(UUID carerId) {
+        if (eligibilityGraph.isActive()) {
+            return eligibilityGraph.getCarer(carerId);
+        }
+        EligibilityRulesEngine.CarerProjection cached = dataCache.getCarer(carerId);
+        if (cached != null) {
+            return cached;
+        }
+        
         String key = CARER_DATA_PREFIX + carerId.toString();
         String jsonValue = redisTemplate.opsForValue().get(key);
         
@@ -122,12 +391,60 @@ public class ViewProjectionService {
         }
         
         try {
-            return objectMapper.readValue(jsonValue, EligibilityRulesEngine.CarerProjection.class);
+            EligibilityRulesEngine.CarerProjection carerData =
+                objectMapper.readValue(jsonValue, EligibilityRulesEngine.CarerProjection.class);
+            dataCache.putCarer(carerId, carerData);
+            return carerData;
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to deserialize carer data: " + carerId, e);
         }
     }
 
+    /**
+     * Retrieves carer data for many carers with one MGET per chunk. Carers without stored
+     * data are left out of the returned map, which keeps the order of the given IDs.
+     */
+    public Map<UUID, EligibilityRulesEngine.CarerProjection> getCarerData(Collection<UUID> carerIds) {
+        if (eligibilityGraph.isActive()) {
+            return eligibilityGraph.getCarers(carerIds);
+        }
+        return cachedMultiGet(carerIds, dataCache.getCarers(carerIds), CARER_DATA_PREFIX, jsonValue ->
+            deserialize(jsonValue, EligibilityRulesEngine.CarerProjection.class, "carer data"), dataCache::putCarer);
+    }
+
+    /**
+     * Whether {@link #getEligibleCarers} can be answered, i.e. the in-memory carer roster
+     * of the local state is loaded
+     */
+    public boolean hasCarerRoster() {
+        return eligibilityGraph.isActive();
+    }
+
+    /**
+     * Carers eligible for the booking, evaluated against the whole in-memory carer roster
+     * in one columnar sweep. Only available when {@link #hasCarerRoster()}.
+     */
+    public Map<UUID, EligibilityRulesEngine.CarerProjection> getEligibleCarers(
+            EligibilityRulesEngine.BookingProjection booking) {
+        if (!eligibilityGraph.isActive()) {
+            throw new IllegalStateException("Carer roster is not loaded");
+        }
+        return eligibilityGraph.getEligibleCarers(booking);
+    }
+
+    /**
+     * Carers eligible for each of the bookings, in the order of the bookings, which must all
+     * require the same grade; the grade's part of the roster is swept once for all of them.
+     * Only available when {@link #hasCarerRoster()}.
+     */
+    public List<Map<UUID, EligibilityRulesEngine.CarerProjection>> getEligibleCarers(
+            List<EligibilityRulesEngine.BookingProjection> bookings) {
+        if (!eligibilityGraph.isActive()) {
+            throw new IllegalStateException("Carer roster is not loaded");
+        }
+        return eligibilityGraph.getEligibleCarers(bookings);
+    }
+
     /**
      * Stores booking data for eligibility calculations
      */
@@ -136,15 +453,77 @@ public class ViewProjectionService {
         try {
             String jsonValue = objectMapper.writeValueAsString(bookingData);
             redisTemplate.opsForValue().set(key, jsonValue, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+            redisTemplate.opsForSet().add(BOOKING_IDS_KEY, bookingId.toString());
+            if (bookingData.getGrade() != null) {
+                redisTemplate.opsForSet().add(BOOKINGS_BY_GRADE_PREFIX + bookingData.getGrade(), bookingId.toString());
+            }
+            indexBookingInterval(bookingId, bookingData.getStartTime(), bookingData.getEndTime());
+            dataCache.putBooking(bookingId, bookingData);
+            eligibilityGraph.putBooking(bookingId, bookingData);
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to serialize booking data: " + bookingId, e);
         }
     }
 
+    /**
+     * Applies a change to stored booking data as a compare-and-set: the data is read under
+     * WATCH and written back, together with the grade and day bucket index moves, in
+     * MULTI/EXEC. If another writer changed the booking in between, the change is re-applied
+     * to a fresh read. Returns null if no data is stored for the booking.
+     */
+    public ProjectionUpdate<EligibilityRulesEngine.BookingProjection> updateBookingData(
+            UUID bookingId, Consumer<EligibilityRulesEngine.BookingProjection> change) {
+        String key = BOOKING_DATA_PREFIX + bookingId.toString();
+        String member = bookingId.toString();
+        
+        ProjectionUpdate<EligibilityRulesEngine.BookingProjection> result = compareAndSet(key, ops -> ops.opsForValue().get(key),
+            jsonValue -> deserialize(jsonValue, EligibilityRulesEngine.BookingProjection.class, "booking data: " + bookingId),
+            change,
+            (ops, update) -> {
+                EligibilityRulesEngine.BookingProjection previous = update.getPrevious();
+                EligibilityRulesEngine.BookingProjection current = update.getCurrent();
+                ops.opsForValue().set(key, serialize(current, "booking data: " + bookingId),
+                    PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+                ops.opsForSet().add(BOOKING_IDS_KEY, member);
+                if (previous.getGrade() != null && !previous.getGrade().equals(current.getGrade())) {
+                    ops.opsForSet().remove(BOOKINGS_BY_GRADE_PREFIX + previous.getGrade(), member);
+                }
+                if (current.getGrade() != null) {
+                    ops.opsForSet().add(BOOKINGS_BY_GRADE_PREFIX + current.getGrade(), member);
+                }
+                
+                List<String> currentDayKeys = dayBucketKeys(current.getStartTime(), current.getEndTime());
+                for (String dayKey : dayBucketKeys(previous.getStartTime(), previous.getEndTime())) {
+                    if (!currentDayKeys.contains(dayKey)) {
+                        ops.opsForSet().remove(dayKey, member);
+                    }
+                }
+                for (String dayKey : currentDayKeys) {
+                    ops.opsForSet().add(dayKey, member);
+                    ops.expire(dayKey, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+                }
+            });
+        if (result != null) {
+            dataCache.putBooking(bookingId, result.getCurrent());
+            eligibilityGraph.putBooking(bookingId, result.getCurrent());
+        } else {
+            dataCache.invalidateBooking(bookingId);
+        }
+        return result;
+    }
+
     /**
      * Retrieves booking data for eligibility calculations
      */
     public EligibilityRulesEngine.BookingProjection getBookingData(UUID bookingId) {
+        if (eligibilityGraph.isActive()) {
+            return eligibilityGraph.getBooking(bookingId);
+        }
+        EligibilityRulesEngine.BookingProjection cached = dataCache.getBooking(bookingId);
+        if (cached != null) {
+            return cached;
+        }
+        
         String key = BOOKING_DATA_PREFIX + bookingId.toString();
         String jsonValue = redisTemplate.opsForValue().get(key);
         
@@ -153,91 +532,888 @@ public class ViewProjectionService {
         }
         
         try {
-            return objectMapper.readValue(jsonValue, EligibilityRulesEngine.BookingProjection.class);
+            EligibilityRulesEngine.BookingProjection bookingData =
+                objectMapper.readValue(jsonValue, EligibilityRulesEngine.BookingProjection.class);
+            dataCache.putBooking(bookingId, bookingData);
+            return bookingData;
         } catch (JsonProcessingException e) {
             throw new RuntimeException("Failed to deserialize booking data: " + bookingId, e);
         }
     }
 
+    /**
+     * Retrieves booking data for many bookings with one MGET per chunk. Bookings without
+     * stored data are left out of the returned map, which keeps the order of the given IDs.
+     */
+    public Map<UUID, EligibilityRulesEngine.BookingProjection> getBookingData(Collection<UUID> bookingIds) {
+        if (eligibilityGraph.isActive()) {
+            return eligibilityGraph.getBookings(bookingIds);
+        }
+        return cachedMultiGet(bookingIds, dataCache.getBookings(bookingIds), BOOKING_DATA_PREFIX, jsonValue ->
+            deserialize(jsonValue, EligibilityRulesEngine.BookingProjection.class, "booking data"), dataCache::putBooking);
+    }
+
+    /**
+     * Stores the shared summary of a booking's mutable attributes, a single write however
+     * many carers have the shift in their available shifts
+     */
+    public void storeBookingSummary(BookingSummaryDto summary) {
+        String key = ProjectionKeys.BOOKING_SUMMARY_PREFIX + summary.getBookingId().toString();
+        String jsonValue = serialize(summary, "booking summary: " + summary.getBookingId());
+        redisTemplate.opsForValue().set(key, jsonValue, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+    }
+
     /**
      * Removes all projections for a specific carer (when carer is deleted)
      */
     public void removeCarerProjections(UUID carerId) {
-        String availableShiftsKey = AVAILABLE_SHIFTS_PREFIX + carerId.toString();
-        String carerDataKey = CARER_DATA_PREFIX + carerId.toString();
-        
-        redisTemplate.delete(availableShiftsKey);
-        redisTemplate.delete(carerDataKey);
+        clearCarerEligibility(carerId);
         
-        // Also need to remove this carer from all shift eligibility lists
-        removeCarerFromAllShiftProjections(carerId);
+        EligibilityRulesEngine.CarerProjection carerData = getCarerData(carerId);
+        redisTemplate.delete(CARER_DATA_PREFIX + carerId.toString());
+        dataCache.invalidateCarer(carerId);
+        unregisterCarerId(carerId, carerData != null ? carerData.getGrade() : null);
     }
 
     /**
      * Removes all projections for a specific booking (when booking is cancelled)
      */
     public void removeBookingProjections(UUID bookingId) {
-        String eligibleCarersKey = ELIGIBLE_CARERS_PREFIX + bookingId.toString();
-        String bookingDataKey = BOOKING_DATA_PREFIX + bookingId.toString();
+        clearBookingEligibility(bookingId);
         
-        redisTemplate.delete(eligibleCarersKey);
-        redisTemplate.delete(bookingDataKey);
+        EligibilityRulesEngine.BookingProjection bookingData = getBookingData(bookingId);
+        redisTemplate.delete(BOOKING_DATA_PREFIX + bookingId.toString());
+        dataCache.invalidateBooking(bookingId);
+        redisTemplate.delete(ProjectionKeys.BOOKING_SUMMARY_PREFIX + bookingId.toString());
+        unregisterBookingId(bookingId, bookingData != null ? bookingData.getGrade() : null);
+        if (bookingData != null) {
+            unindexBookingInterval(bookingId, bookingData.getStartTime(), bookingData.getEndTime());
+        }
+    }
+
+    /**
+     * Removes a carer's eligibility projections while keeping their carer data, touching
+     * only the shift lists that the reverse index says reference the carer
+     */
+    public void clearCarerEligibility(UUID carerId) {
+        flushUnitOfWork();
         
-        // Also need to remove this booking from all carer availability lists
-        removeBookingFromAllCarerProjections(bookingId);
+        // Drop the carer's own hash and unlink each booking it referenced
+        String key = ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId.toString();
+        for (UUID bookingId : toUuidSet(hashOps().keys(key))) {
+            unindexShiftForCarer(carerId, bookingId);
+        }
+        redisTemplate.delete(key);
+        
+        // Also need to remove this carer from the shift eligibility lists that hold them
+        removeCarerFromReferencingShiftProjections(carerId);
+        eligibilityGraph.clearCarerEdges(carerId);
+    }
+
+    /**
+     * Removes a booking's eligibility projections while keeping its booking data, touching
+     * only the carer lists that the reverse index says reference the booking
+     */
+    public void clearBookingEligibility(UUID bookingId) {
+        flushUnitOfWork();
+        
+        // Drop the booking's own hash and unlink each carer it referenced
+        String key = ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId.toString();
+        for (UUID carerId : toUuidSet(hashOps().keys(key))) {
+            unindexCarerForShift(bookingId, carerId);
+        }
+        redisTemplate.delete(key);
+        
+        // Also need to remove this booking from the carer availability lists that hold it
+        removeBookingFromReferencingCarerProjections(bookingId);
+        eligibilityGraph.clearBookingEdges(bookingId);
+    }
+
+    /**
+     * Streams the IDs of all carers with stored data using SSCAN over the carer ID registry,
+     * so the whole roster is never materialised in memory or fetched with a blocking KEYS.
+     * SSCAN may return an ID more than once, so the action must be idempotent.
+     */
+    public void forEachCarerId(Consumer<UUID> action) {
+        scanIdRegistry(CARER_IDS_KEY, action);
+    }
+
+    /**
+     * Streams the IDs of all bookings with stored data using SSCAN over the booking ID registry.
+     * SSCAN may return an ID more than once, so the action must be idempotent.
+     */
+    public void forEachBookingId(Consumer<UUID> action) {
+        scanIdRegistry(BOOKING_IDS_KEY, action);
+    }
+
+    /**
+     * Streams the carers with the given grade together with their data, loading the data
+     * one MGET per chunk of scanned IDs. Each carer is visited once; the data is null when
+     * it has expired.
+     */
+    public void forEachCarerWithGrade(String grade, BiConsumer<UUID, EligibilityRulesEngine.CarerProjection> action) {
+        if (eligibilityGraph.isActive()) {
+            eligibilityGraph.forEachCarerWithGrade(grade, action);
+            return;
+        }
+        scanInChunks(CARERS_BY_GRADE_PREFIX + grade, chunk -> {
+            Map<UUID, EligibilityRulesEngine.CarerProjection> carers = getCarerData(chunk);
+            chunk.forEach(carerId -> action.accept(carerId, carers.get(carerId)));
+        });
+    }
+
+    /**
+     * Streams the bookings requiring the given grade together with their data, loading the
+     * data one MGET per chunk of scanned IDs. Each booking is visited once; the data is null
+     * when it has expired.
+     */
+    public void forEachBookingWithGrade(String grade, BiConsumer<UUID, EligibilityRulesEngine.BookingProjection> action) {
+        if (eligibilityGraph.isActive()) {
+            eligibilityGraph.forEachBookingWithGrade(grade, action);
+            return;
+        }
+        scanInChunks(BOOKINGS_BY_GRADE_PREFIX + grade, chunk -> {
+            Map<UUID, EligibilityRulesEngine.BookingProjection> bookings = getBookingData(chunk);
+            chunk.forEach(bookingId -> action.accept(bookingId, bookings.get(bookingId)));
+        });
+    }
+
+    /**
+     * Gets the bookings whose shift touches any calendar day of the given window. This is a
+     * superset of the bookings overlapping the window, so callers still check the exact times.
+     */
+    public Set<UUID> getBookingIdsInWindow(LocalDateTime start, LocalDateTime end) {
+        List<String> dayKeys = dayBucketKeys(start, end);
+        if (dayKeys.isEmpty()) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(toUuidSet(redisTemplate.opsForSet().union(dayKeys)));
+    }
+
+    /**
+     * Removes a booking from the day buckets of a shift window it no longer occupies
+     */
+    public void unindexBookingInterval(UUID bookingId, LocalDateTime start, LocalDateTime end) {
+        for (String dayKey : dayBucketKeys(start, end)) {
+            redisTemplate.opsForSet().remove(dayKey, bookingId.toString());
+        }
+    }
+
+    /**
+     * Removes a carer from the index of a grade they no longer hold
+     */
+    public void unindexCarerGrade(UUID carerId, String grade) {
+        redisTemplate.opsForSet().remove(CARERS_BY_GRADE_PREFIX + grade, carerId.toString());
+    }
+
+    /**
+     * Removes a booking from the index of a grade it no longer requires
+     */
+    public void unindexBookingGrade(UUID bookingId, String grade) {
+        redisTemplate.opsForSet().remove(BOOKINGS_BY_GRADE_PREFIX + grade, bookingId.toString());
+    }
+
+    /**
+     * Drops a carer ID whose data has been removed or expired from the registry and,
+     * when known, from its grade index
+     */
+    public void unregisterCarerId(UUID carerId, String grade) {
+        redisTemplate.opsForSet().remove(CARER_IDS_KEY, carerId.toString());
+        if (grade != null) {
+            unindexCarerGrade(carerId, grade);
+        }
+        eligibilityGraph.removeCarer(carerId);
+    }
+
+    /**
+     * Drops a booking ID whose data has been removed or expired from the registry and,
+     * when known, from its grade index
+     */
+    public void unregisterBookingId(UUID bookingId, String grade) {
+        redisTemplate.opsForSet().remove(BOOKING_IDS_KEY, bookingId.toString());
+        if (grade != null) {
+            unindexBookingGrade(bookingId, grade);
+        }
+        eligibilityGraph.removeBooking(bookingId);
+    }
+
+    /**
+     * Brings a store written by an earlier version up to date before the Kafka listeners
+     * start: converts whole-list projections to the hash layout, then seeds the ID registries
+     * and reverse indexes when they are missing. Uses incremental SCAN so Redis is never blocked.
+     */
+    @PostConstruct
+    public void initializeIdRegistries() {
+        preloadScripts();
+        migrateListProjectionsToHashes();
+        backfillIdRegistry(CARER_IDS_KEY, CARER_DATA_PREFIX);
+        backfillIdRegistry(BOOKING_IDS_KEY, BOOKING_DATA_PREFIX);
+        backfillReverseIndexes();
+        backfillGradeIndexes();
+        backfillIntervalIndex();
+        if (eligibilityGraph.isEnabled() && !snapshotEnabled) {
+            loadEligibilityGraph();
+        }
+    }
+
+    /**
+     * Records the one-off index backfills and layout migration as done, for projections
+     * written from scratch with every index in place (a rebuilt namespace)
+     */
+    public void markIndexesBuilt() {
+        String now = String.valueOf(System.currentTimeMillis());
+        for (String markerKey : List.of(HASH_LAYOUT_MARKER_KEY, REVERSE_INDEX_MARKER_KEY, GRADE_INDEX_MARKER_KEY,
+                INTERVAL_INDEX_MARKER_KEY)) {
+            redisTemplate.opsForValue().set(markerKey, now);
+        }
+    }
+
+    /**
+     * Drops the in-process copies of the projections after they were replaced underneath,
+     * reloading the eligibility graph when local state is enabled
+     */
+    public void reloadLocalState() {
+        dataCache.invalidateAll();
+        if (eligibilityGraph.isEnabled()) {
+            eligibilityGraph.clear();
+            loadEligibilityGraph();
+        }
+    }
+
+    /**
+     * Brings the eligibility graph restored from a snapshot up to date with Redis for the
+     * given carers and bookings, i.e. the ones named by events consumed after the snapshot
+     * was taken: their data and both sides of their projection adjacency are re-read, then
+     * the graph is marked as loaded
+     */
+    public void refreshLocalState(Collection<UUID> carerIds, Collection<UUID> bookingIds) {
+        for (List<UUID> chunk : chunksOf(carerIds)) {
+            Map<UUID, EligibilityRulesEngine.CarerProjection> carers = getCarerData(chunk);
+            List<Set<String>> shiftIds = hashKeysPipelined(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX, chunk);
+            List<Set<String>> shiftsWithCarer = membersPipelined(SHIFTS_WITH_CARER_PREFIX, chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                UUID carerId = chunk.get(i);
+                eligibilityGraph.replaceAvailableShifts(carerId, toUuidSet(shiftIds.get(i)));
+                eligibilityGraph.replaceShiftsWithEligibleCarer(carerId, toUuidSet(shiftsWithCarer.get(i)));
+                EligibilityRulesEngine.CarerProjection carer = carers.get(carerId);
+                if (carer != null) {
+                    eligibilityGraph.putCarer(carerId, carer);
+                } else {
+                    eligibilityGraph.removeCarer(carerId);
+                }
+            }
+        }
+        for (List<UUID> chunk : chunksOf(bookingIds)) {
+            Map<UUID, EligibilityRulesEngine.BookingProjection> bookings = getBookingData(chunk);
+            List<Set<String>> carerIdsOfShift = hashKeysPipelined(ProjectionKeys.ELIGIBLE_CARERS_PREFIX, chunk);
+            List<Set<String>> carersWithShift = membersPipelined(CARERS_WITH_SHIFT_PREFIX, chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                UUID bookingId = chunk.get(i);
+                eligibilityGraph.replaceEligibleCarers(bookingId, toUuidSet(carerIdsOfShift.get(i)));
+                eligibilityGraph.replaceCarersWithAvailableShift(bookingId, toUuidSet(carersWithShift.get(i)));
+                EligibilityRulesEngine.BookingProjection booking = bookings.get(bookingId);
+                if (booking != null) {
+                    eligibilityGraph.putBooking(bookingId, booking);
+                } else {
+                    eligibilityGraph.removeBooking(bookingId);
+                }
+            }
+        }
+        eligibilityGraph.markLoaded();
+        log.info("Refreshed eligibility graph snapshot with {} carers and {} bookings", carerIds.size(), bookingIds.size());
+    }
+
+    /**
+     * Seeds the in-memory eligibility graph from the registries, the data keys and the
+     * projection hashes, one MGET and one pipelined HKEYS round per chunk of IDs
+     */
+    private void loadEligibilityGraph() {
+        int[] loaded = new int[2];
+        scanInChunks(CARER_IDS_KEY, chunk -> {
+            getCarerData(chunk).forEach(eligibilityGraph::putCarer);
+            List<Set<String>> shiftIds = hashKeysPipelined(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX, chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                for (UUID bookingId : toUuidSet(shiftIds.get(i))) {
+                    eligibilityGraph.addAvailableShift(chunk.get(i), bookingId);
+                }
+            }
+            loaded[0] += chunk.size();
+        });
+        scanInChunks(BOOKING_IDS_KEY, chunk -> {
+            getBookingData(chunk).forEach(eligibilityGraph::putBooking);
+            List<Set<String>> carerIds = hashKeysPipelined(ProjectionKeys.ELIGIBLE_CARERS_PREFIX, chunk);
+            for (int i = 0; i < chunk.size(); i++) {
+                for (UUID carerId : toUuidSet(carerIds.get(i))) {
+                    eligibilityGraph.addEligibleCarer(chunk.get(i), carerId);
+                }
+            }
+            loaded[1] += chunk.size();
+        });
+        eligibilityGraph.markLoaded();
+        log.info("Loaded eligibility graph with {} carers and {} bookings", loaded[0], loaded[1]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Set<String>> hashKeysPipelined(String prefix, List<UUID> ids) {
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ids.forEach(id -> ops.opsForHash().keys(prefix + id));
+                return null;
+            }
+        });
+        List<Set<String>> keys = new ArrayList<>(replies.size());
+        replies.forEach(reply -> keys.add((Set<String>) reply));
+        return keys;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Set<String>> membersPipelined(String prefix, List<UUID> ids) {
+        List<Object> replies = redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ids.forEach(id -> ops.opsForSet().members(prefix + id));
+                return null;
+            }
+        });
+        List<Set<String>> members = new ArrayList<>(replies.size());
+        replies.forEach(reply -> members.add((Set<String>) reply));
+        return members;
+    }
+
+    private List<List<UUID>> chunksOf(Collection<UUID> ids) {
+        List<List<UUID>> chunks = new ArrayList<>();
+        List<UUID> all = new ArrayList<>(ids);
+        for (int from = 0; from < all.size(); from += loadChunkSize) {
+            chunks.add(all.subList(from, Math.min(from + loadChunkSize, all.size())));
+        }
+        return chunks;
     }
 
     /**
-     * Gets all carer IDs that have projections
+     * Loads the entry scripts into the script cache up front, so the first EVALSHA of each
+     * does not fall back to sending the script body
      */
-    public Set<String> getAllCarerIds() {
-        return redisTemplate.keys(CARER_DATA_PREFIX + "*")
-            .stream()
-            .map(key -> key.substring(CARER_DATA_PREFIX.length()))
-            .collect(java.util.stream.Collectors.toSet());
+    private void preloadScripts() {
+        for (RedisScript<Long> script : List.of(ADD_ENTRY_SCRIPT, REMOVE_ENTRY_SCRIPT, APPLY_ENTRIES_SCRIPT)) {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.scriptingCommands()
+                .scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static RedisScript<Long> loadScript(String location) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(location));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    private void scanIdRegistry(String registryKey, Consumer<UUID> action) {
+        ScanOptions options = ScanOptions.scanOptions().count(ID_SCAN_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.opsForSet().scan(registryKey, options)) {
+            while (cursor.hasNext()) {
+                action.accept(UUID.fromString(cursor.next()));
+            }
+        }
     }
 
     /**
-     * Gets all booking IDs that have projections
+     * SSCANs a set and hands its distinct members to the action in chunks of loadChunkSize
      */
-    public Set<String> getAllBookingIds() {
-        return redisTemplate.keys(BOOKING_DATA_PREFIX + "*")
-            .stream()
-            .map(key -> key.substring(BOOKING_DATA_PREFIX.length()))
-            .collect(java.util.stream.Collectors.toSet());
+    private void scanInChunks(String setKey, Consumer<List<UUID>> action) {
+        Set<UUID> seen = new HashSet<>();
+        List<UUID> chunk = new ArrayList<>(loadChunkSize);
+        scanIdRegistry(setKey, id -> {
+            if (seen.add(id)) {
+                chunk.add(id);
+                if (chunk.size() >= loadChunkSize) {
+                    action.accept(new ArrayList<>(chunk));
+                    chunk.clear();
+                }
+            }
+        });
+        if (!chunk.isEmpty()) {
+            action.accept(chunk);
+        }
     }
 
     /**
-     * Private helper method to remove a carer from all shift eligibility lists
+     * Fetches the IDs missing from the cached hits with {@link #multiGet} and caches them;
+     * the result keeps the order of the given IDs
      */
-    private void removeCarerFromAllShiftProjections(UUID carerId) {
-        Set<String> shiftKeys = redisTemplate.keys(ELIGIBLE_CARERS_PREFIX + "*");
+    private <T> Map<UUID, T> cachedMultiGet(Collection<UUID> ids, Map<UUID, T> cached, String prefix,
+                                            Function<String, T> reader, BiConsumer<UUID, T> cache) {
+        if (cached.size() == ids.size()) {
+            return cached;
+        }
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : ids) {
+            if (!cached.containsKey(id)) {
+                missing.add(id);
+            }
+        }
+        Map<UUID, T> loaded = multiGet(missing, prefix, reader);
+        loaded.forEach(cache);
         
-        for (String key : shiftKeys) {
-            List<EligibleCarerDto> eligibleCarers = getEligibleCarersForShift(
-                UUID.fromString(key.substring(ELIGIBLE_CARERS_PREFIX.length())));
-            
-            eligibleCarers.removeIf(carer -> carer.getCarerId().equals(carerId));
+        Map<UUID, T> results = new LinkedHashMap<>();
+        for (UUID id : ids) {
+            T value = cached.containsKey(id) ? cached.get(id) : loaded.get(id);
+            if (value != null) {
+                results.put(id, value);
+            }
+        }
+        return results;
+    }
+
+    private <T> Map<UUID, T> multiGet(Collection<UUID> ids, String prefix, Function<String, T> reader) {
+        Map<UUID, T> results = new LinkedHashMap<>();
+        List<UUID> idList = new ArrayList<>(ids);
+        for (int from = 0; from < idList.size(); from += loadChunkSize) {
+            List<UUID> chunk = idList.subList(from, Math.min(from + loadChunkSize, idList.size()));
+            List<String> keys = chunk.stream().map(id -> prefix + id).collect(Collectors.toList());
+            List<String> jsonValues = redisTemplate.opsForValue().multiGet(keys);
+            if (jsonValues == null) {
+                continue;
+            }
             
-            UUID bookingId = UUID.fromString(key.substring(ELIGIBLE_CARERS_PREFIX.length()));
-            updateEligibleCarersForShift(bookingId, eligibleCarers);
+            for (int i = 0; i < chunk.size(); i++) {
+                String jsonValue = jsonValues.get(i);
+                if (jsonValue != null) {
+                    results.put(chunk.get(i), reader.apply(jsonValue));
+                }
+            }
+        }
+        return results;
+    }
+    
+    // SCAN match patterns do not pass through the key serializer, so add the namespace here
+    private String keyPattern(String prefix) {
+        return NamespacedKeySerializer.namespaceOf(redisTemplate) + prefix + "*";
+    }
+
+    private void backfillIdRegistry(String registryKey, String dataPrefix) {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(registryKey))) {
+            return;
+        }
+        
+        ScanOptions options = ScanOptions.scanOptions().match(keyPattern(dataPrefix)).count(ID_SCAN_BATCH_SIZE).build();
+        long registered = 0;
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                redisTemplate.opsForSet().add(registryKey, cursor.next().substring(dataPrefix.length()));
+                registered++;
+            }
+        }
+        log.info("Backfilled ID registry {} with {} entries", registryKey, registered);
+    }
+
+    /**
+     * Rewrites projections still stored as a single JSON array value into per-entry hashes
+     */
+    private void migrateListProjectionsToHashes() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(HASH_LAYOUT_MARKER_KEY))) {
+            return;
         }
+        
+        long migrated = 0;
+        ScanOptions shiftListOptions = ScanOptions.scanOptions()
+            .match(keyPattern(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX)).count(ID_SCAN_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(shiftListOptions)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (redisTemplate.type(key) == DataType.STRING) {
+                    List<EligibleShiftDto> shifts = deserialize(redisTemplate.opsForValue().get(key),
+                        new TypeReference<List<EligibleShiftDto>>() {}, "legacy projection: " + key);
+                    Map<String, String> entries = new LinkedHashMap<>();
+                    for (EligibleShiftDto shift : shifts) {
+                        entries.put(shift.getBookingId().toString(), serialize(shift, "legacy projection: " + key));
+                    }
+                    replaceHash(key, entries);
+                    migrated++;
+                }
+            }
+        }
+        
+        ScanOptions carerListOptions = ScanOptions.scanOptions()
+            .match(keyPattern(ProjectionKeys.ELIGIBLE_CARERS_PREFIX)).count(ID_SCAN_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(carerListOptions)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                if (redisTemplate.type(key) == DataType.STRING) {
+                    List<EligibleCarerDto> carers = deserialize(redisTemplate.opsForValue().get(key),
+                        new TypeReference<List<EligibleCarerDto>>() {}, "legacy projection: " + key);
+                    Map<String, String> entries = new LinkedHashMap<>();
+                    for (EligibleCarerDto carer : carers) {
+                        entries.put(carer.getCarerId().toString(), serialize(carer, "legacy projection: " + key));
+                    }
+                    replaceHash(key, entries);
+                    migrated++;
+                }
+            }
+        }
+        
+        redisTemplate.opsForValue().set(HASH_LAYOUT_MARKER_KEY, String.valueOf(System.currentTimeMillis()));
+        log.info("Migrated {} list projections to the hash layout", migrated);
+    }
+
+    /**
+     * Builds the reverse indexes from the existing projection hashes the first time the
+     * service starts against a store that predates them
+     */
+    private void backfillReverseIndexes() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(REVERSE_INDEX_MARKER_KEY))) {
+            return;
+        }
+        
+        long indexed = 0;
+        ScanOptions shiftListOptions = ScanOptions.scanOptions()
+            .match(keyPattern(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX)).count(ID_SCAN_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(shiftListOptions)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                UUID carerId = UUID.fromString(key.substring(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX.length()));
+                for (UUID bookingId : toUuidSet(hashOps().keys(key))) {
+                    indexShiftForCarer(carerId, bookingId);
+                    indexed++;
+                }
+            }
+        }
+        
+        ScanOptions carerListOptions = ScanOptions.scanOptions()
+            .match(keyPattern(ProjectionKeys.ELIGIBLE_CARERS_PREFIX)).count(ID_SCAN_BATCH_SIZE).build();
+        try (Cursor<String> cursor = redisTemplate.scan(carerListOptions)) {
+            while (cursor.hasNext()) {
+                String key = cursor.next();
+                UUID bookingId = UUID.fromString(key.substring(ProjectionKeys.ELIGIBLE_CARERS_PREFIX.length()));
+                for (UUID carerId : toUuidSet(hashOps().keys(key))) {
+                    indexCarerForShift(bookingId, carerId);
+                    indexed++;
+                }
+            }
+        }
+        
+        redisTemplate.opsForValue().set(REVERSE_INDEX_MARKER_KEY, String.valueOf(System.currentTimeMillis()));
+        log.info("Backfilled reverse indexes with {} entries", indexed);
     }
 
     /**
-     * Private helper method to remove a booking from all carer availability lists
+     * Builds the grade indexes from stored carer and booking data the first time the
+     * service starts against a store that predates them
      */
-    private void removeBookingFromAllCarerProjections(UUID bookingId) {
-        Set<String> carerKeys = redisTemplate.keys(AVAILABLE_SHIFTS_PREFIX + "*");
+    private void backfillGradeIndexes() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(GRADE_INDEX_MARKER_KEY))) {
+            return;
+        }
+        
+        long[] indexed = {0};
+        forEachCarerId(carerId -> {
+            EligibilityRulesEngine.CarerProjection carerData = getCarerData(carerId);
+            if (carerData != null && carerData.getGrade() != null) {
+                redisTemplate.opsForSet().add(CARERS_BY_GRADE_PREFIX + carerData.getGrade(), carerId.toString());
+                indexed[0]++;
+            }
+        });
+        forEachBookingId(bookingId -> {
+            EligibilityRulesEngine.BookingProjection bookingData = getBookingData(bookingId);
+            if (bookingData != null && bookingData.getGrade() != null) {
+                redisTemplate.opsForSet().add(BOOKINGS_BY_GRADE_PREFIX + bookingData.getGrade(), bookingId.toString());
+                indexed[0]++;
+            }
+        });
         
-        for (String key : carerKeys) {
-            List<EligibleShiftDto> availableShifts = getAvailableShiftsForCarer(
-                UUID.fromString(key.substring(AVAILABLE_SHIFTS_PREFIX.length())));
+        redisTemplate.opsForValue().set(GRADE_INDEX_MARKER_KEY, String.valueOf(System.currentTimeMillis()));
+        log.info("Backfilled grade indexes with {} entries", indexed[0]);
+    }
+
+    /**
+     * Builds the day buckets from stored booking data the first time the service starts
+     * against a store that predates them
+     */
+    private void backfillIntervalIndex() {
+        if (Boolean.TRUE.equals(redisTemplate.hasKey(INTERVAL_INDEX_MARKER_KEY))) {
+            return;
+        }
+        
+        long[] indexed = {0};
+        forEachBookingId(bookingId -> {
+            EligibilityRulesEngine.BookingProjection bookingData = getBookingData(bookingId);
+            if (bookingData != null) {
+                indexBookingInterval(bookingId, bookingData.getStartTime(), bookingData.getEndTime());
+                indexed[0]++;
+            }
+        });
+        
+        redisTemplate.opsForValue().set(INTERVAL_INDEX_MARKER_KEY, String.valueOf(System.currentTimeMillis()));
+        log.info("Backfilled booking interval index with {} entries", indexed[0]);
+    }
+
+    private void indexBookingInterval(UUID bookingId, LocalDateTime start, LocalDateTime end) {
+        for (String dayKey : dayBucketKeys(start, end)) {
+            redisTemplate.opsForSet().add(dayKey, bookingId.toString());
+            touch(dayKey);
+        }
+    }
+
+    /**
+     * Day bucket keys covering [start, end); a shift ending exactly at midnight does not
+     * occupy the following day
+     */
+    private static List<String> dayBucketKeys(LocalDateTime start, LocalDateTime end) {
+        List<String> keys = new ArrayList<>();
+        if (start == null || end == null || !start.isBefore(end)) {
+            return keys;
+        }
+        
+        LocalDate lastDay = end.minusNanos(1).toLocalDate();
+        for (LocalDate day = start.toLocalDate(); !day.isAfter(lastDay); day = day.plusDays(1)) {
+            keys.add(BOOKINGS_BY_DAY_PREFIX + day);
+        }
+        return keys;
+    }
+
+    /**
+     * Private helper method to remove a carer from the shift eligibility lists that reference them
+     */
+    private void removeCarerFromReferencingShiftProjections(UUID carerId) {
+        for (UUID bookingId : getShiftsWithEligibleCarer(carerId)) {
+            hashOps().delete(ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId.toString(), carerId.toString());
+        }
+        redisTemplate.delete(SHIFTS_WITH_CARER_PREFIX + carerId.toString());
+    }
+
+    /**
+     * Private helper method to remove a booking from the carer availability lists that reference it
+     */
+    private void removeBookingFromReferencingCarerProjections(UUID bookingId) {
+        for (UUID carerId : getCarersWithAvailableShift(bookingId)) {
+            hashOps().delete(ProjectionKeys.AVAILABLE_SHIFTS_PREFIX + carerId.toString(), bookingId.toString());
+        }
+        redisTemplate.delete(CARERS_WITH_SHIFT_PREFIX + bookingId.toString());
+    }
+
+    /**
+     * Replaces a projection hash together with the reverse index entries of its fields, as
+     * one optimistic transaction: the previous fields are read under WATCH on the hash, then
+     * the new content, its TTL, the SREM of every dropped field's index and the SADD of every
+     * kept or added one are queued in MULTI/EXEC. A concurrent entry write or replace of the
+     * same hash discards EXEC and the cycle is retried up to max-attempts times, so the
+     * index diff is never taken against a stale read and readers never see the hash half
+     * written. Index members are re-added for kept fields too, which repairs any drift.
+     * The entries are computed by the caller beforehand, so this keeps the hash and its
+     * index consistent but does not by itself order two recomputes of the same hash.
+     */
+    private void replaceProjection(String key, Map<String, String> entries, String indexPrefix, String member) {
+        for (int attempt = 1; attempt <= maxWriteAttempts; attempt++) {
+            List<Object> results = redisTemplate.execute(new SessionCallback<List<Object>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.watch(key);
+                    Set<String> previousFields = ops.<String, String>opsForHash().keys(key);
+                    
+                    ops.multi();
+                    ops.delete(key);
+                    if (!entries.isEmpty()) {
+                        ops.<String, String>opsForHash().putAll(key, entries);
+                        ops.expire(key, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+                    }
+                    for (String field : previousFields) {
+                        if (!entries.containsKey(field)) {
+                            ops.opsForSet().remove(indexPrefix + field, member);
+                        }
+                    }
+                    for (String field : entries.keySet()) {
+                        ops.opsForSet().add(indexPrefix + field, member);
+                    }
+                    return ops.exec();
+                }
+            });
             
-            availableShifts.removeIf(shift -> shift.getBookingId().equals(bookingId));
+            // An aborted transaction yields no replies; DEL always replies otherwise
+            if (results != null && !results.isEmpty()) {
+                return;
+            }
+            log.debug("Concurrent write to {} detected, retrying (attempt {} of {})", key, attempt, maxWriteAttempts);
+        }
+        throw new OptimisticLockingFailureException(
+            "Failed to replace " + key + " after " + maxWriteAttempts + " attempts due to concurrent writes");
+    }
+
+    /**
+     * Atomically swaps the whole content of a projection hash (MULTI/EXEC), so readers
+     * never observe it half written. Only for the one-off layout migration; live writes go
+     * through {@link #replaceProjection}.
+     */
+    private void replaceHash(String key, Map<String, String> entries) {
+        redisTemplate.execute(new SessionCallback<List<Object>>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> List<Object> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                ops.multi();
+                ops.delete(key);
+                if (!entries.isEmpty()) {
+                    ops.<String, String>opsForHash().putAll(key, entries);
+                    ops.expire(key, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+                }
+                return ops.exec();
+            }
+        });
+    }
+
+    /**
+     * Optimistic read-modify-write of one key: WATCH, read, apply the change to the decoded
+     * value, then queue the resulting writes in MULTI. EXEC is discarded when the key was
+     * modified after the WATCH, and the cycle is retried up to max-attempts times.
+     * Returns null if there is nothing to change.
+     */
+    private <T> ProjectionUpdate<T> compareAndSet(String key, Function<RedisOperations<String, String>, String> read,
+                                                  Function<String, T> decode, Consumer<T> change,
+                                                  BiConsumer<RedisOperations<String, String>, ProjectionUpdate<T>> writes) {
+        for (int attempt = 1; attempt <= maxWriteAttempts; attempt++) {
+            ProjectionUpdate<T> update = redisTemplate.execute(new SessionCallback<ProjectionUpdate<T>>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public <K, V> ProjectionUpdate<T> execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    RedisOperations<String, String> ops = (RedisOperations<String, String>) operations;
+                    ops.watch(key);
+                    String jsonValue = read.apply(ops);
+                    if (jsonValue == null) {
+                        ops.unwatch();
+                        return new ProjectionUpdate<>(null, null);
+                    }
+                    
+                    // Decoded twice so the caller's change cannot alter the previous value
+                    ProjectionUpdate<T> candidate = new ProjectionUpdate<>(decode.apply(jsonValue), decode.apply(jsonValue));
+                    change.accept(candidate.getCurrent());
+                    
+                    ops.multi();
+                    writes.accept(ops, candidate);
+                    List<Object> results = ops.exec();
+                    // An aborted transaction yields no replies
+                    return results == null || results.isEmpty() ? null : candidate;
+                }
+            });
             
-            UUID carerId = UUID.fromString(key.substring(AVAILABLE_SHIFTS_PREFIX.length()));
-            updateAvailableShiftsForCarer(carerId, availableShifts);
+            if (update != null) {
+                return update.getCurrent() != null ? update : null;
+            }
+            log.debug("Concurrent write to {} detected, retrying (attempt {} of {})", key, attempt, maxWriteAttempts);
+        }
+        throw new OptimisticLockingFailureException(
+            "Failed to update " + key + " after " + maxWriteAttempts + " attempts due to concurrent writes");
+    }
+
+    /**
+     * Writes the buffered entries of the thread's unit of work, if any, before a write that
+     * bypasses the unit, so the two cannot be applied out of order
+     */
+    private void flushUnitOfWork() {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        if (unit != null) {
+            unit.flush();
+        }
+    }
+    
+    // Projection and reverse index reads go through the thread's unit of work, if any, so
+    // they see its buffered writes and hit Redis once per key
+
+    private Set<UUID> overlayMembers(String setKey, Set<UUID> members) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        return unit != null ? toUuidSet(unit.readMembers(setKey, () -> toStringSet(members))) : members;
+    }
+
+    private Set<UUID> overlayFields(String hashKey, Set<UUID> fields) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        return unit != null ? toUuidSet(unit.readFields(hashKey, () -> toStringSet(fields))) : fields;
+    }
+
+    private Set<String> readMembers(String setKey) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        return unit != null
+            ? unit.readMembers(setKey, () -> redisTemplate.opsForSet().members(setKey))
+            : redisTemplate.opsForSet().members(setKey);
+    }
+
+    private Set<String> readFields(String hashKey) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        return unit != null ? unit.readFields(hashKey, () -> hashOps().keys(hashKey)) : hashOps().keys(hashKey);
+    }
+
+    private Collection<String> readEntryValues(String hashKey) {
+        ProjectionUnitOfWork unit = ProjectionUnitOfWork.current();
+        return unit != null ? unit.readEntries(hashKey, () -> hashOps().entries(hashKey)).values() : hashOps().values(hashKey);
+    }
+
+    private void touch(String key) {
+        redisTemplate.expire(key, PROJECTION_TTL_HOURS, TimeUnit.HOURS);
+    }
+
+    private HashOperations<String, String, String> hashOps() {
+        return redisTemplate.opsForHash();
+    }
+
+    private String serialize(Object value, String description) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize " + description, e);
+        }
+    }
+
+    private <T> T deserialize(String jsonValue, Class<T> type, String description) {
+        try {
+            return objectMapper.readValue(jsonValue, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to deserialize " + description, e);
+        }
+    }
+
+    private <T> T deserialize(String jsonValue, TypeReference<T> type, String description) {
+        try {
+            return objectMapper.readValue(jsonValue, type);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to deserialize " + description, e);
+        }
+    }
+
+    private void indexShiftForCarer(UUID carerId, UUID bookingId) {
+        redisTemplate.opsForSet().add(CARERS_WITH_SHIFT_PREFIX + bookingId.toString(), carerId.toString());
+    }
+
+    private void unindexShiftForCarer(UUID carerId, UUID bookingId) {
+        redisTemplate.opsForSet().remove(CARERS_WITH_SHIFT_PREFIX + bookingId.toString(), carerId.toString());
+    }
+
+    private void indexCarerForShift(UUID bookingId, UUID carerId) {
+        redisTemplate.opsForSet().add(SHIFTS_WITH_CARER_PREFIX + carerId.toString(), bookingId.toString());
+    }
+
+    private void unindexCarerForShift(UUID bookingId, UUID carerId) {
+        redisTemplate.opsForSet().remove(SHIFTS_WITH_CARER_PREFIX + carerId.toString(), bookingId.toString());
+    }
+
+    private static Set<UUID> bookingIdsOf(List<EligibleShiftDto> shifts) {
+        return shifts.stream().map(EligibleShiftDto::getBookingId).collect(Collectors.toSet());
+    }
+
+    private static Set<UUID> carerIdsOf(List<EligibleCarerDto> carers) {
+        return carers.stream().map(EligibleCarerDto::getCarerId).collect(Collectors.toSet());
+    }
+
+    private static Set<String> toStringSet(Set<UUID> ids) {
+        return ids.stream().map(UUID::toString).collect(Collectors.toSet());
+    }
+
+    private static Set<UUID> toUuidSet(Set<String> members) {
+        if (members == null) {
+            return Set.of();
         }
+        return members.stream().map(UUID::fromString).collect(Collectors.toSet());
     }
 }
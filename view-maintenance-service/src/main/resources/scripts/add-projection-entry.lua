@@ -0,0 +1,11 @@
+-- Adds one entry to a projection hash unless it is already present, refreshing the
+-- hash TTL and recording the entry in the reverse index.
+-- KEYS[1] projection hash, KEYS[2] reverse index set
+-- ARGV[1] entry field, ARGV[2] entry JSON, ARGV[3] TTL in seconds, ARGV[4] reverse index member
+-- Returns 1 if the entry was added, 0 if it already existed
+if redis.call('HSETNX', KEYS[1], ARGV[1], ARGV[2]) == 0 then
+    return 0
+end
+redis.call('EXPIRE', KEYS[1], ARGV[3])
+redis.call('SADD', KEYS[2], ARGV[4])
+return 1
@@ -0,0 +1,24 @@
+-- Applies every buffered change of one projection hash in one call: each entry is
+-- removed with HDEL and/or added with HSETNX together with its reverse index member,
+-- and the hash TTL is refreshed if anything was added.
+-- KEYS[1] projection hash, KEYS[i + 1] reverse index set of the i-th change
+-- ARGV[1] TTL in seconds, then four arguments per change: operation ('put', 'delete' or
+-- 'replace'), entry field, entry JSON (empty for a delete), reverse index member
+-- Returns the number of entries added
+local added = 0
+for i = 1, #KEYS - 1 do
+    local arg = 2 + (i - 1) * 4
+    local operation, field, json, member = ARGV[arg], ARGV[arg + 1], ARGV[arg + 2], ARGV[arg + 3]
+    if operation ~= 'put' then
+        redis.call('HDEL', KEYS[1], field)
+        redis.call('SREM', KEYS[i + 1], member)
+    end
+    if operation ~= 'delete' and redis.call('HSETNX', KEYS[1], field, json) == 1 then
+        redis.call('SADD', KEYS[i + 1], member)
+        added = added + 1
+    end
+end
+if added > 0 then
+    redis.call('EXPIRE', KEYS[1], ARGV[1])
+end
+return added
@@ -0,0 +1,7 @@
+-- Removes one entry from a projection hash together with its reverse index member.
+-- KEYS[1] projection hash, KEYS[2] reverse index set
+-- ARGV[1] entry field, ARGV[2] reverse index member
+-- Returns 1 if the entry was removed, 0 if it was not present
+local removed = redis.call('HDEL', KEYS[1], ARGV[1])
+redis.call('SREM', KEYS[2], ARGV[2])
+return removed
@@ -0,0 +1,35 @@
+package com.healthcare.staffing.viewmaintenance.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NamespacedKeySerializerTest {
+
+    @Test
+    void keysFollowTheCurrentNamespace() {
+        AtomicReference<String> namespace = new AtomicReference<>("");
+        NamespacedKeySerializer serializer = new NamespacedKeySerializer(namespace::get);
+
+        assertEquals("CarerIds", new String(serializer.serialize("CarerIds"), StandardCharsets.UTF_8));
+
+        namespace.set("v2:");
+        assertEquals("v2:CarerIds", new String(serializer.serialize("CarerIds"), StandardCharsets.UTF_8));
+        assertEquals("CarerIds", serializer.deserialize("v2:CarerIds".getBytes(StandardCharsets.UTF_8)));
+        assertNull(serializer.serialize(null));
+    }
+
+    @Test
+    void namespaceOfTemplate() {
+        StringRedisTemplate plain = new StringRedisTemplate();
+        assertEquals("", NamespacedKeySerializer.namespaceOf(plain));
+
+        StringRedisTemplate namespaced = new StringRedisTemplate();
+        namespaced.setKeySerializer(new NamespacedKeySerializer(() -> "v3:"));
+        assertEquals("v3:", NamespacedKeySerializer.namespaceOf(namespaced));
+    }
+}
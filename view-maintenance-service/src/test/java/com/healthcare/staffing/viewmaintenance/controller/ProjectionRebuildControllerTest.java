@@ -0,0 +1,72 @@
+package com.healthcare.staffing.viewmaintenance.controller;
+
+import com.healthcare.staffing.viewmaintenance.eventhandler.ProjectionRebuildService;
+import com.healthcare.staffing.viewmaintenance.eventhandler.RebuildStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectionRebuildControllerTest {
+
+    @Mock
+    private ProjectionRebuildService projectionRebuildService;
+
+    @Mock
+    private RebuildStatus rebuildStatus;
+
+    private ProjectionRebuildController controller;
+
+    @BeforeEach
+    void setUp() {
+        controller = new ProjectionRebuildController(projectionRebuildService);
+    }
+
+    @Test
+    void startRebuild_ShouldAcceptAndReturnNewRebuild() {
+        // Arrange
+        when(projectionRebuildService.start(500)).thenReturn(rebuildStatus);
+
+        // Act
+        ResponseEntity<RebuildStatus> response = controller.startRebuild(500);
+
+        // Assert
+        assertEquals(HttpStatus.ACCEPTED, response.getStatusCode());
+        assertSame(rebuildStatus, response.getBody());
+    }
+
+    @Test
+    void startRebuild_WhileRunning_ShouldReturnConflictWithRunningRebuild() {
+        // Arrange
+        when(projectionRebuildService.start(null)).thenThrow(new IllegalStateException("already running"));
+        when(projectionRebuildService.getStatus()).thenReturn(rebuildStatus);
+
+        // Act
+        ResponseEntity<RebuildStatus> response = controller.startRebuild(null);
+
+        // Assert
+        assertEquals(HttpStatus.CONFLICT, response.getStatusCode());
+        assertSame(rebuildStatus, response.getBody());
+    }
+
+    @Test
+    void throttleRebuild_ShouldChangeRateOfRunningRebuild() {
+        // Arrange
+        when(projectionRebuildService.setMaxEventsPerSecond(0)).thenReturn(rebuildStatus);
+
+        // Act
+        ResponseEntity<RebuildStatus> response = controller.throttleRebuild(0);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(rebuildStatus, response.getBody());
+        verify(projectionRebuildService).setMaxEventsPerSecond(0);
+    }
+}
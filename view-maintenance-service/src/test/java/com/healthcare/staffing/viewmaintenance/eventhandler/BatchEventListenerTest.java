@@ -0,0 +1,204 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.healthcare.staffing.shared.events.booking.BookingBooked;
+import com.healthcare.staffing.shared.events.booking.BookingCancelled;
+import com.healthcare.staffing.shared.events.booking.BookingCreated;
+import com.healthcare.staffing.shared.events.booking.BookingPullout;
+import com.healthcare.staffing.shared.events.carer.CarerUpdated;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionFanOutWriter;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BatchEventListenerTest {
+
+    private static final TopicPartition BOOKINGS = new TopicPartition("booking-events", 0);
+    private static final TopicPartition CARERS = new TopicPartition("carer-events", 0);
+
+    @Mock
+    private BookingEventHandler bookingEventHandler;
+
+    @Mock
+    private CarerEventHandler carerEventHandler;
+
+    @Mock
+    private ProjectionFanOutWriter projectionFanOutWriter;
+
+    @Mock
+    private Consumer<Object, Object> consumer;
+
+    @Captor
+    private ArgumentCaptor<Map<TopicPartition, OffsetAndMetadata>> commits;
+
+    private KeyedEventExecutor keyedEventExecutor;
+    private BatchEventListener batchEventListener;
+
+    @BeforeEach
+    void setUp() {
+        keyedEventExecutor = new KeyedEventExecutor(4);
+        ViewMaintenanceProperties properties = new ViewMaintenanceProperties();
+        properties.getConsumer().setCommitIntervalMs(50);
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(projectionFanOutWriter).runInUnitOfWork(anyString(), any());
+        batchEventListener = new BatchEventListener(bookingEventHandler, carerEventHandler, keyedEventExecutor,
+                projectionFanOutWriter, properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyedEventExecutor.shutdown();
+    }
+
+    @Test
+    void handleEvents_SameBooking_ShouldApplyEventsInOffsetOrder() {
+        // Arrange
+        UUID bookingId = UUID.randomUUID();
+        UUID carerId = UUID.randomUUID();
+        BookingBooked booked = new BookingBooked(bookingId, carerId, "scheduler");
+        BookingPullout pullout = new BookingPullout(bookingId, carerId, "sick", "carer");
+        List<Object> applied = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> applied.add(invocation.getArgument(0))).when(bookingEventHandler).applyEvent(any());
+
+        // Act
+        batchEventListener.handleEvents(List.of(record(BOOKINGS, 0, booked), record(BOOKINGS, 1, pullout)), consumer);
+
+        // Assert
+        assertEquals(List.of(booked, pullout), applied);
+        assertEquals(Map.of(BOOKINGS, 2L), committedOffsets());
+    }
+
+    @Test
+    void handleEvents_BookingAndCarerEvents_ShouldStartCarerLanesAfterBookingLanes() {
+        // Arrange
+        AtomicBoolean bookingApplied = new AtomicBoolean();
+        AtomicBoolean carerSawBooking = new AtomicBoolean();
+        doAnswer(invocation -> {
+            Thread.sleep(100);
+            bookingApplied.set(true);
+            return null;
+        }).when(bookingEventHandler).applyEvent(any());
+        doAnswer(invocation -> {
+            carerSawBooking.set(bookingApplied.get());
+            return null;
+        }).when(carerEventHandler).applyEvent(any());
+
+        // Act
+        batchEventListener.handleEvents(List.of(
+                record(CARERS, 0, carerUpdated()),
+                record(BOOKINGS, 0, new BookingBooked(UUID.randomUUID(), UUID.randomUUID(), "scheduler"))), consumer);
+
+        // Assert
+        assertTrue(carerSawBooking.get());
+        assertEquals(Map.of(BOOKINGS, 1L, CARERS, 1L), committedOffsets());
+    }
+
+    @Test
+    void handleEvents_BookingCreatedAndCancelledInOnePoll_ShouldApplyNothingForItAndCommitPastIt() {
+        // Arrange
+        UUID bookingId = UUID.randomUUID();
+        BookingCreated created = new BookingCreated(bookingId, UUID.randomUUID(), "Day", LocalDateTime.of(2026, 3, 2, 8, 0),
+                LocalDateTime.of(2026, 3, 2, 16, 0), "RN", new BigDecimal("25.00"), "London", null, List.of("BLS"));
+        BookingCancelled cancelled = new BookingCancelled(bookingId, "not needed", "facility");
+        CarerUpdated carerUpdated = carerUpdated();
+
+        // Act
+        batchEventListener.handleEvents(List.of(
+                record(BOOKINGS, 0, created), record(BOOKINGS, 1, cancelled), record(CARERS, 0, carerUpdated)), consumer);
+
+        // Assert
+        verifyNoInteractions(bookingEventHandler);
+        verify(carerEventHandler).applyEvent(carerUpdated);
+        assertEquals(Map.of(BOOKINGS, 2L, CARERS, 1L), committedOffsets());
+    }
+
+    @Test
+    void handleEvents_LaneFails_ShouldCommitCompletedOffsetsAndSkipCarerLanes() {
+        // Arrange
+        BookingBooked applied = new BookingBooked(UUID.randomUUID(), UUID.randomUUID(), "scheduler");
+        BookingBooked failing = new BookingBooked(UUID.randomUUID(), UUID.randomUUID(), "scheduler");
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) == failing) {
+                throw new IllegalStateException("Redis unavailable");
+            }
+            return null;
+        }).when(bookingEventHandler).applyEvent(any());
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> batchEventListener.handleEvents(List.of(
+                record(BOOKINGS, 0, applied), record(BOOKINGS, 1, failing), record(CARERS, 0, carerUpdated())), consumer));
+        assertInstanceOf(IllegalStateException.class, exception.getCause());
+        assertEquals(Map.of(BOOKINGS, 1L, CARERS, 0L), committedOffsets());
+        verifyNoInteractions(carerEventHandler);
+    }
+
+    @Test
+    void handleEvents_LaneFinishesLate_ShouldCommitProgressWhileWaiting() {
+        // Arrange
+        BookingBooked fast = new BookingBooked(UUID.randomUUID(), UUID.randomUUID(), "scheduler");
+        BookingBooked slow = new BookingBooked(UUID.randomUUID(), UUID.randomUUID(), "scheduler");
+        doAnswer(invocation -> {
+            if (invocation.getArgument(0) == slow) {
+                Thread.sleep(300);
+            }
+            return null;
+        }).when(bookingEventHandler).applyEvent(any());
+
+        // Act
+        batchEventListener.handleEvents(List.of(record(BOOKINGS, 0, fast), record(BOOKINGS, 1, slow)), consumer);
+
+        // Assert
+        InOrder inOrder = inOrder(consumer);
+        inOrder.verify(consumer).commitSync(Map.of(BOOKINGS, new OffsetAndMetadata(1)));
+        inOrder.verify(consumer).commitSync(Map.of(BOOKINGS, new OffsetAndMetadata(2)));
+        inOrder.verifyNoMoreInteractions();
+    }
+
+    /**
+     * The last offset committed for each partition
+     */
+    private Map<TopicPartition, Long> committedOffsets() {
+        verify(consumer, atLeastOnce()).commitSync(commits.capture());
+        Map<TopicPartition, Long> offsets = new HashMap<>();
+        commits.getAllValues().forEach(commit -> commit.forEach(
+                (partition, offset) -> offsets.put(partition, offset.offset())));
+        return offsets;
+    }
+
+    private static CarerUpdated carerUpdated() {
+        return new CarerUpdated(UUID.randomUUID(), Map.of("location", Map.of("old", "Leeds", "new", "York")),
+                "relocated");
+    }
+
+    private static ConsumerRecord<String, Object> record(TopicPartition partition, long offset, Object event) {
+        return new ConsumerRecord<>(partition.topic(), partition.partition(), offset, null, event);
+    }
+}
@@ -0,0 +1,378 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.healthcare.staffing.shared.dto.EligibleShiftDto;
+import com.healthcare.staffing.shared.events.booking.BookingCreated;
+import com.healthcare.staffing.shared.events.booking.BookingModified;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityRulesEngine;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityVerdictCache;
+import com.healthcare.staffing.viewmaintenance.service.ParallelEligibilityEvaluator;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionFanOutWriter;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionUpdate;
+import com.healthcare.staffing.viewmaintenance.service.ViewProjectionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookingEventHandlerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 8, 0);
+
+    @Mock
+    private ViewProjectionService viewProjectionService;
+
+    @Mock
+    private ProjectionFanOutWriter projectionFanOutWriter;
+
+    @Mock
+    private ProjectionFanOutWriter.Batch writes;
+
+    @Captor
+    private ArgumentCaptor<List<EligibilityRulesEngine.BookingProjection>> bookingsCaptor;
+
+    private ParallelEligibilityEvaluator parallelEligibilityEvaluator;
+    private BookingEventHandler bookingEventHandler;
+
+    @BeforeEach
+    void setUp() {
+        ViewMaintenanceProperties properties = new ViewMaintenanceProperties();
+        EligibilityVerdictCache eligibilityVerdictCache = new EligibilityVerdictCache(new EligibilityRulesEngine(), properties);
+        parallelEligibilityEvaluator = new ParallelEligibilityEvaluator(eligibilityVerdictCache, properties);
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(projectionFanOutWriter).runInUnitOfWork(anyString(), any());
+        lenient().when(projectionFanOutWriter.newBatch(anyString())).thenReturn(writes);
+        bookingEventHandler = new BookingEventHandler(viewProjectionService, eligibilityVerdictCache,
+                projectionFanOutWriter, parallelEligibilityEvaluator);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelEligibilityEvaluator.shutdown();
+    }
+
+    @Test
+    void applyBookingsCreated_WithCarerRoster_ShouldSweepRosterOncePerGrade() {
+        // Arrange
+        BookingCreated firstNurseShift = bookingCreated("RN", "London");
+        BookingCreated secondNurseShift = bookingCreated("RN", "Leeds");
+        BookingCreated assistantShift = bookingCreated("HCA", "London");
+        BookingCreated ungradedShift = bookingCreated(null, "London");
+        EligibilityRulesEngine.CarerProjection nurse = carer("RN", "London");
+        EligibilityRulesEngine.CarerProjection assistant = carer("HCA", "London");
+        when(viewProjectionService.hasCarerRoster()).thenReturn(true);
+        when(viewProjectionService.getEligibleCarers(anyList())).thenAnswer(invocation -> {
+            List<EligibilityRulesEngine.BookingProjection> bookings = invocation.getArgument(0);
+            EligibilityRulesEngine.CarerProjection match = "RN".equals(bookings.get(0).getGrade()) ? nurse : assistant;
+            return bookings.stream().map(booking -> Map.of(match.getCarerId(), match)).toList();
+        });
+
+        // Act
+        bookingEventHandler.applyBookingsCreated(List.of(firstNurseShift, assistantShift, secondNurseShift, ungradedShift));
+
+        // Assert
+        verify(viewProjectionService, times(4)).storeBookingData(any(), any());
+        verify(viewProjectionService, times(2)).getEligibleCarers(bookingsCaptor.capture());
+        assertEquals(List.of(firstNurseShift.getBookingId(), secondNurseShift.getBookingId()),
+                bookingsCaptor.getAllValues().get(0).stream().map(EligibilityRulesEngine.BookingProjection::getBookingId).toList());
+        assertEquals(List.of(assistantShift.getBookingId()),
+                bookingsCaptor.getAllValues().get(1).stream().map(EligibilityRulesEngine.BookingProjection::getBookingId).toList());
+
+        verify(writes).addCarerForShift(eq(firstNurseShift.getBookingId()), argThat(dto -> dto.getCarerId().equals(nurse.getCarerId())));
+        verify(writes).addCarerForShift(eq(secondNurseShift.getBookingId()), argThat(dto -> dto.getCarerId().equals(nurse.getCarerId())));
+        verify(writes).addCarerForShift(eq(assistantShift.getBookingId()), argThat(dto -> dto.getCarerId().equals(assistant.getCarerId())));
+        verify(writes, never()).addCarerForShift(eq(ungradedShift.getBookingId()), any());
+        verify(writes, times(2)).addShiftForCarer(eq(nurse.getCarerId()), any(EligibleShiftDto.class));
+        verify(writes).addShiftForCarer(eq(assistant.getCarerId()), any(EligibleShiftDto.class));
+        verify(viewProjectionService, never()).updateEligibleCarersForShift(any(), any());
+        verify(writes).flush();
+    }
+
+    @Test
+    void applyBookingsCreated_WithoutCarerRoster_ShouldLoadGradeCarersOnceAndDropExpiredOnes() {
+        // Arrange
+        BookingCreated londonShift = bookingCreated("RN", "London");
+        BookingCreated leedsShift = bookingCreated("RN", "Leeds");
+        EligibilityRulesEngine.CarerProjection londonNurse = carer("RN", "London");
+        EligibilityRulesEngine.CarerProjection leedsNurse = carer("RN", "Leeds");
+        UUID expiredCarerId = UUID.randomUUID();
+        Map<UUID, EligibilityRulesEngine.CarerProjection> roster = new LinkedHashMap<>();
+        roster.put(londonNurse.getCarerId(), londonNurse);
+        roster.put(expiredCarerId, null);
+        roster.put(leedsNurse.getCarerId(), leedsNurse);
+        doAnswer(invocation -> {
+            roster.forEach(invocation.<BiConsumer<UUID, EligibilityRulesEngine.CarerProjection>>getArgument(1));
+            return null;
+        }).when(viewProjectionService).forEachCarerWithGrade(eq("RN"), any());
+
+        // Act
+        bookingEventHandler.applyBookingsCreated(List.of(londonShift, leedsShift));
+
+        // Assert
+        verify(viewProjectionService, times(1)).forEachCarerWithGrade(eq("RN"), any());
+        verify(viewProjectionService).unregisterCarerId(expiredCarerId, "RN");
+        verify(writes).addCarerForShift(eq(londonShift.getBookingId()), argThat(dto -> dto.getCarerId().equals(londonNurse.getCarerId())));
+        verify(writes).addCarerForShift(eq(leedsShift.getBookingId()), argThat(dto -> dto.getCarerId().equals(leedsNurse.getCarerId())));
+        verify(writes, never()).addCarerForShift(eq(londonShift.getBookingId()), argThat(dto -> dto.getCarerId().equals(leedsNurse.getCarerId())));
+        verify(writes, never()).addCarerForShift(eq(leedsShift.getBookingId()), argThat(dto -> dto.getCarerId().equals(londonNurse.getCarerId())));
+        verify(writes).addShiftForCarer(eq(londonNurse.getCarerId()), argThat(shift -> shift.getBookingId().equals(londonShift.getBookingId())));
+        verify(writes).addShiftForCarer(eq(leedsNurse.getCarerId()), argThat(shift -> shift.getBookingId().equals(leedsShift.getBookingId())));
+    }
+
+    @Test
+    void applyEvent_DisplayOnlyModification_ShouldOnlyRewriteSummary() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection booking = booking("RN", List.of("BLS"), null);
+        storedBooking(booking);
+
+        // Act
+        bookingEventHandler.applyEvent(bookingModified(booking, "hourlyRate", "25.00", "30.00"));
+
+        // Assert
+        verify(viewProjectionService).storeBookingSummary(argThat(summary -> "OPEN".equals(summary.getStatus())));
+        verify(projectionFanOutWriter, never()).newBatch(anyString());
+        verify(viewProjectionService, never()).clearBookingEligibility(any());
+    }
+
+    @Test
+    void applyEvent_RequirementDropped_ShouldOnlyAddNewlyEligibleCarers() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection booking = booking("RN", List.of("BLS", "ACLS"), null);
+        EligibilityRulesEngine.CarerProjection listed = carer("RN", "London");
+        EligibilityRulesEngine.CarerProjection newlyEligible = carer("RN", "London");
+        storedBooking(booking);
+        when(viewProjectionService.getEligibleCarerIdsForShift(booking.getBookingId())).thenReturn(Set.of(listed.getCarerId()));
+        when(viewProjectionService.hasCarerRoster()).thenReturn(true);
+        when(viewProjectionService.getEligibleCarers(any(EligibilityRulesEngine.BookingProjection.class))).thenReturn(
+                carersById(listed, newlyEligible));
+
+        // Act
+        bookingEventHandler.applyEvent(bookingModified(booking, "requiredQualifications",
+                List.of("BLS", "ACLS"), List.of("BLS")));
+
+        // Assert
+        verify(writes).addCarerForShift(eq(booking.getBookingId()), argThat(dto -> dto.getCarerId().equals(newlyEligible.getCarerId())));
+        verify(writes).addShiftForCarer(eq(newlyEligible.getCarerId()), any(EligibleShiftDto.class));
+        verify(writes, times(1)).addCarerForShift(any(), any());
+        verify(writes, times(1)).addShiftForCarer(any(), any());
+        verify(viewProjectionService, never()).clearBookingEligibility(any());
+    }
+
+    @Test
+    void applyEvent_RequirementDroppedOnBookedShift_ShouldListCarersButKeepShiftWithAssignedCarer() {
+        // Arrange
+        EligibilityRulesEngine.CarerProjection assigned = carer("RN", "London");
+        EligibilityRulesEngine.CarerProjection newlyEligible = carer("RN", "London");
+        EligibilityRulesEngine.BookingProjection booking = booking("RN", List.of("BLS", "ACLS"), assigned.getCarerId());
+        storedBooking(booking);
+        when(viewProjectionService.getEligibleCarerIdsForShift(booking.getBookingId())).thenReturn(Set.of());
+        when(viewProjectionService.hasCarerRoster()).thenReturn(true);
+        when(viewProjectionService.getEligibleCarers(any(EligibilityRulesEngine.BookingProjection.class))).thenReturn(
+                carersById(assigned, newlyEligible));
+
+        // Act
+        bookingEventHandler.applyEvent(bookingModified(booking, "requiredQualifications",
+                List.of("BLS", "ACLS"), List.of("BLS")));
+
+        // Assert
+        verify(writes).addCarerForShift(eq(booking.getBookingId()), argThat(dto -> dto.getCarerId().equals(assigned.getCarerId())));
+        verify(writes).addCarerForShift(eq(booking.getBookingId()), argThat(dto -> dto.getCarerId().equals(newlyEligible.getCarerId())));
+        verify(writes).addShiftForCarer(eq(assigned.getCarerId()), any(EligibleShiftDto.class));
+        verify(writes, never()).addShiftForCarer(eq(newlyEligible.getCarerId()), any());
+        verify(viewProjectionService).storeBookingSummary(argThat(summary -> "BOOKED".equals(summary.getStatus())));
+    }
+
+    @Test
+    void applyEvent_RequirementAdded_ShouldOnlyDropCarersNoLongerEligible() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection booking = booking("RN", List.of("BLS"), null);
+        EligibilityRulesEngine.CarerProjection qualified = carer("RN", "London", List.of("BLS", "ACLS"));
+        EligibilityRulesEngine.CarerProjection unqualified = carer("RN", "London", List.of("BLS"));
+        UUID expiredCarerId = UUID.randomUUID();
+        Set<UUID> currentCarerIds = Set.of(qualified.getCarerId(), unqualified.getCarerId(), expiredCarerId);
+        storedBooking(booking);
+        when(viewProjectionService.getEligibleCarerIdsForShift(booking.getBookingId())).thenReturn(currentCarerIds);
+        when(viewProjectionService.getCarerData(currentCarerIds)).thenReturn(carersById(qualified, unqualified));
+
+        // Act
+        bookingEventHandler.applyEvent(bookingModified(booking, "requiredQualifications",
+                List.of("BLS"), List.of("BLS", "ACLS")));
+
+        // Assert
+        verify(writes).removeCarerForShift(booking.getBookingId(), unqualified.getCarerId());
+        verify(writes).removeShiftForCarer(unqualified.getCarerId(), booking.getBookingId());
+        verify(writes).removeCarerForShift(booking.getBookingId(), expiredCarerId);
+        verify(writes).removeShiftForCarer(expiredCarerId, booking.getBookingId());
+        verify(writes, never()).removeCarerForShift(booking.getBookingId(), qualified.getCarerId());
+        verify(writes, never()).addCarerForShift(any(), any());
+    }
+
+    @Test
+    void applyEvent_RequirementsSwappedOnOpenShift_ShouldRecomputeBothSides() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection booking = booking("RN", List.of("BLS"), null);
+        EligibilityRulesEngine.CarerProjection first = carer("RN", "London");
+        EligibilityRulesEngine.CarerProjection second = carer("RN", "London");
+        storedBooking(booking);
+        when(viewProjectionService.hasCarerRoster()).thenReturn(true);
+        when(viewProjectionService.getEligibleCarers(any(EligibilityRulesEngine.BookingProjection.class))).thenReturn(
+                carersById(first, second));
+
+        // Act
+        bookingEventHandler.applyEvent(bookingModified(booking, "requiredQualifications", List.of("BLS"), List.of("PALS")));
+
+        // Assert
+        verify(viewProjectionService).clearBookingEligibility(booking.getBookingId());
+        verify(writes, times(2)).addCarerForShift(eq(booking.getBookingId()), any());
+        verify(writes).addShiftForCarer(eq(first.getCarerId()), any(EligibleShiftDto.class));
+        verify(writes).addShiftForCarer(eq(second.getCarerId()), any(EligibleShiftDto.class));
+    }
+
+    @Test
+    void applyEvent_GradeChangedOnBookedShift_ShouldKeepShiftOutOfOtherCarersAvailableShifts() {
+        // Arrange
+        EligibilityRulesEngine.CarerProjection assigned = carer("HCA", "London");
+        EligibilityRulesEngine.CarerProjection other = carer("HCA", "London");
+        EligibilityRulesEngine.BookingProjection booking = booking("RN", List.of("BLS"), assigned.getCarerId());
+        storedBooking(booking);
+        when(viewProjectionService.hasCarerRoster()).thenReturn(true);
+        when(viewProjectionService.getEligibleCarers(any(EligibilityRulesEngine.BookingProjection.class))).thenReturn(
+                carersById(assigned, other));
+
+        // Act
+        bookingEventHandler.applyEvent(bookingModified(booking, "grade", "RN", "HCA"));
+
+        // Assert
+        verify(viewProjectionService).clearBookingEligibility(booking.getBookingId());
+        verify(writes).addCarerForShift(eq(booking.getBookingId()), argThat(dto -> dto.getCarerId().equals(assigned.getCarerId())));
+        verify(writes).addCarerForShift(eq(booking.getBookingId()), argThat(dto -> dto.getCarerId().equals(other.getCarerId())));
+        verify(writes).addShiftForCarer(eq(assigned.getCarerId()), any(EligibleShiftDto.class));
+        verify(writes, never()).addShiftForCarer(eq(other.getCarerId()), any());
+        verify(viewProjectionService).storeBookingSummary(argThat(summary -> "BOOKED".equals(summary.getStatus())));
+    }
+
+    @Test
+    void applyEvent_OpenShiftMoved_ShouldExcludeNewlyConflictingAndRestoreFreedCarers() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection booking = booking("RN", List.of("BLS"), null);
+        LocalDateTime newStart = START.plusHours(10);
+        UUID busyCarerId = UUID.randomUUID();
+        EligibilityRulesEngine.CarerProjection freedCarer = carer("RN", "London");
+        EligibilityRulesEngine.BookingProjection overlappingNewWindow = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of(), "London", newStart.plusHours(1), newStart.plusHours(4));
+        overlappingNewWindow.setAssignedCarerId(busyCarerId);
+        EligibilityRulesEngine.BookingProjection overlappingOldWindow = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of(), "London", START.plusHours(1), START.plusHours(4));
+        overlappingOldWindow.setAssignedCarerId(freedCarer.getCarerId());
+        storedBooking(booking);
+        when(viewProjectionService.getBookingIdsInWindow(any(), any())).thenAnswer(invocation -> new HashSet<>(
+                invocation.getArgument(0).equals(newStart)
+                        ? Set.of(overlappingNewWindow.getBookingId())
+                        : Set.of(overlappingOldWindow.getBookingId(), booking.getBookingId())));
+        when(viewProjectionService.getBookingData(Set.of(overlappingNewWindow.getBookingId(), overlappingOldWindow.getBookingId())))
+                .thenReturn(Map.of(overlappingNewWindow.getBookingId(), overlappingNewWindow,
+                        overlappingOldWindow.getBookingId(), overlappingOldWindow));
+        when(viewProjectionService.getCarerData(Set.of(freedCarer.getCarerId()))).thenReturn(carersById(freedCarer));
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("startTime", change(START, newStart));
+        changes.put("endTime", change(START.plusHours(8), newStart.plusHours(8)));
+
+        // Act
+        bookingEventHandler.applyEvent(new BookingModified(booking.getBookingId(), changes, "moved"));
+
+        // Assert
+        verify(writes).removeCarerForShift(booking.getBookingId(), busyCarerId);
+        verify(writes).removeShiftForCarer(busyCarerId, booking.getBookingId());
+        verify(writes).addCarerForShift(eq(booking.getBookingId()), argThat(dto -> dto.getCarerId().equals(freedCarer.getCarerId())));
+        verify(writes).addShiftForCarer(eq(freedCarer.getCarerId()), any(EligibleShiftDto.class));
+        verify(viewProjectionService, never()).clearBookingEligibility(any());
+    }
+
+    /**
+     * Stubs the compare-and-set update of the booking, applying the event's change to a copy
+     */
+    private void storedBooking(EligibilityRulesEngine.BookingProjection booking) {
+        when(viewProjectionService.updateBookingData(eq(booking.getBookingId()), any())).thenAnswer(invocation -> {
+            EligibilityRulesEngine.BookingProjection current = copyOf(booking);
+            invocation.<Consumer<EligibilityRulesEngine.BookingProjection>>getArgument(1).accept(current);
+            return new ProjectionUpdate<>(copyOf(booking), current);
+        });
+    }
+
+    private static EligibilityRulesEngine.BookingProjection copyOf(EligibilityRulesEngine.BookingProjection booking) {
+        EligibilityRulesEngine.BookingProjection copy = new EligibilityRulesEngine.BookingProjection(
+                booking.getBookingId(), booking.getFacilityId(), booking.getShift(), booking.getGrade(),
+                booking.getHourlyRate(), booking.getRequiredQualifications(), booking.getLocation(),
+                booking.getSpecialRequirements(), booking.getStartTime(), booking.getEndTime());
+        copy.setAssignedCarerId(booking.getAssignedCarerId());
+        return copy;
+    }
+
+    private static EligibilityRulesEngine.BookingProjection booking(String grade, List<String> requiredQualifications,
+                                                                    UUID assignedCarerId) {
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "Day", grade, new BigDecimal("25.00"), requiredQualifications,
+                "London", null, START, START.plusHours(8));
+        booking.setAssignedCarerId(assignedCarerId);
+        return booking;
+    }
+
+    private static BookingModified bookingModified(EligibilityRulesEngine.BookingProjection booking, String field,
+                                                   Object oldValue, Object newValue) {
+        return new BookingModified(booking.getBookingId(), Map.of(field, change(oldValue, newValue)), "amended");
+    }
+
+    private static Map<String, Object> change(Object oldValue, Object newValue) {
+        Map<String, Object> change = new HashMap<>();
+        change.put("old", oldValue);
+        change.put("new", newValue);
+        return change;
+    }
+
+    private static Map<UUID, EligibilityRulesEngine.CarerProjection> carersById(
+            EligibilityRulesEngine.CarerProjection... carers) {
+        Map<UUID, EligibilityRulesEngine.CarerProjection> result = new LinkedHashMap<>();
+        for (EligibilityRulesEngine.CarerProjection carer : carers) {
+            result.put(carer.getCarerId(), carer);
+        }
+        return result;
+    }
+
+    private static BookingCreated bookingCreated(String grade, String location) {
+        return new BookingCreated(UUID.randomUUID(), UUID.randomUUID(), "Day", START, START.plusHours(8),
+                grade, new BigDecimal("25.00"), location, null, List.of("BLS"));
+    }
+
+    private static EligibilityRulesEngine.CarerProjection carer(String grade, String location) {
+        return carer(grade, location, List.of("BLS"));
+    }
+
+    private static EligibilityRulesEngine.CarerProjection carer(String grade, String location, List<String> qualifications) {
+        return new EligibilityRulesEngine.CarerProjection(UUID.randomUUID(), grade, qualifications, location, "CITIZEN", 10);
+    }
+}
@@ -0,0 +1,258 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.healthcare.staffing.shared.dto.EligibleShiftDto;
+import com.healthcare.staffing.shared.events.carer.CarerUpdated;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityRulesEngine;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityVerdictCache;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionFanOutWriter;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionUpdate;
+import com.healthcare.staffing.viewmaintenance.service.ViewProjectionService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CarerEventHandlerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 8, 0);
+
+    @Mock
+    private ViewProjectionService viewProjectionService;
+
+    @Mock
+    private ProjectionFanOutWriter projectionFanOutWriter;
+
+    @Mock
+    private ProjectionFanOutWriter.Batch writes;
+
+    private CarerEventHandler carerEventHandler;
+    private UUID carerId;
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(projectionFanOutWriter).runInUnitOfWork(anyString(), any());
+        lenient().when(projectionFanOutWriter.newBatch(anyString())).thenReturn(writes);
+        carerEventHandler = new CarerEventHandler(viewProjectionService,
+                new EligibilityVerdictCache(new EligibilityRulesEngine(), 1000), projectionFanOutWriter);
+        carerId = UUID.randomUUID();
+    }
+
+    @Test
+    void applyEvent_DisplayOnlyChange_ShouldPatchExistingEntriesOnly() {
+        // Arrange
+        UUID bookingId = UUID.randomUUID();
+        storedCarer(List.of("BLS"), 10);
+        when(viewProjectionService.getShiftsWithEligibleCarer(carerId)).thenReturn(Set.of(bookingId));
+
+        // Act
+        carerEventHandler.applyEvent(carerUpdated("phone", "0100", "0200"));
+
+        // Assert
+        verify(viewProjectionService).patchCarerForShift(eq(bookingId), eq(carerId),
+                argThat(attributes -> "0200".equals(attributes.get("phone"))));
+        verify(projectionFanOutWriter, never()).newBatch(anyString());
+        verify(viewProjectionService, never()).clearCarerEligibility(any());
+    }
+
+    @Test
+    void applyEvent_QualificationAdded_ShouldOnlyAddNewlyEligibleShifts() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection listed = booking(List.of("BLS"), "London");
+        EligibilityRulesEngine.BookingProjection newlyEligible = booking(List.of("ACLS"), "London");
+        EligibilityRulesEngine.BookingProjection tooFar = booking(List.of("ACLS"), "Leeds");
+        UUID expiredBookingId = UUID.randomUUID();
+        storedCarer(List.of("BLS"), 10);
+        when(viewProjectionService.getAvailableShiftIdsForCarer(carerId)).thenReturn(Set.of(listed.getBookingId()));
+        when(viewProjectionService.getShiftsWithEligibleCarer(carerId)).thenReturn(Set.of(listed.getBookingId()));
+        bookingsWithGrade(listed, newlyEligible, tooFar, expiredBookingId);
+
+        // Act
+        carerEventHandler.applyEvent(carerUpdated("qualifications", List.of("BLS"), List.of("BLS", "ACLS")));
+
+        // Assert
+        verify(writes).addShiftForCarer(eq(carerId), argThat(shift -> shift.getBookingId().equals(newlyEligible.getBookingId())));
+        verify(writes).addCarerForShift(eq(newlyEligible.getBookingId()), argThat(dto -> dto.getCarerId().equals(carerId)));
+        verify(writes, times(1)).addShiftForCarer(any(), any(EligibleShiftDto.class));
+        verify(writes, times(1)).addCarerForShift(any(), any());
+        verify(writes).flush();
+        verify(viewProjectionService).patchCarerForShift(eq(listed.getBookingId()), eq(carerId), anyMap());
+        verify(viewProjectionService, never()).clearCarerEligibility(any());
+    }
+
+    @Test
+    void applyEvent_QualificationAdded_ShouldKeepShiftsBookedByOthersOutOfAvailableShifts() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection open = booking(List.of("ACLS"), "London");
+        EligibilityRulesEngine.BookingProjection bookedByOther = booking(List.of("ACLS"), "London");
+        bookedByOther.setAssignedCarerId(UUID.randomUUID());
+        storedCarer(List.of("BLS"), 10);
+        when(viewProjectionService.getAvailableShiftIdsForCarer(carerId)).thenReturn(Set.of());
+        when(viewProjectionService.getShiftsWithEligibleCarer(carerId)).thenReturn(Set.of());
+        bookingsWithGrade(open, bookedByOther);
+
+        // Act
+        carerEventHandler.applyEvent(carerUpdated("qualifications", List.of("BLS"), List.of("BLS", "ACLS")));
+
+        // Assert
+        verify(writes).addShiftForCarer(eq(carerId), argThat(shift -> shift.getBookingId().equals(open.getBookingId())));
+        verify(writes, never()).addShiftForCarer(eq(carerId), argThat(shift -> shift.getBookingId().equals(bookedByOther.getBookingId())));
+        verify(writes).addCarerForShift(eq(open.getBookingId()), argThat(dto -> dto.getCarerId().equals(carerId)));
+        verify(writes).addCarerForShift(eq(bookedByOther.getBookingId()), argThat(dto -> dto.getCarerId().equals(carerId)));
+    }
+
+    @Test
+    void applyEvent_QualificationRemoved_ShouldOnlyDropShiftsNoLongerEligible() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection kept = booking(List.of("BLS"), "London");
+        EligibilityRulesEngine.BookingProjection lost = booking(List.of("ACLS"), "London");
+        UUID expiredBookingId = UUID.randomUUID();
+        storedCarer(List.of("BLS", "ACLS"), 10);
+        Set<UUID> currentBookingIds = Set.of(kept.getBookingId(), lost.getBookingId(), expiredBookingId);
+        when(viewProjectionService.getAvailableShiftIdsForCarer(carerId)).thenReturn(currentBookingIds);
+        when(viewProjectionService.getShiftsWithEligibleCarer(carerId)).thenReturn(currentBookingIds);
+        when(viewProjectionService.getBookingData(currentBookingIds)).thenReturn(Map.of(
+                kept.getBookingId(), kept, lost.getBookingId(), lost));
+
+        // Act
+        carerEventHandler.applyEvent(carerUpdated("qualifications", List.of("BLS", "ACLS"), List.of("BLS")));
+
+        // Assert
+        verify(writes).removeShiftForCarer(carerId, lost.getBookingId());
+        verify(writes).removeCarerForShift(lost.getBookingId(), carerId);
+        verify(writes).removeShiftForCarer(carerId, expiredBookingId);
+        verify(writes).removeCarerForShift(expiredBookingId, carerId);
+        verify(writes, never()).removeShiftForCarer(carerId, kept.getBookingId());
+        verify(writes, never()).addShiftForCarer(any(), any());
+        verify(viewProjectionService).patchCarerForShift(eq(kept.getBookingId()), eq(carerId), anyMap());
+        verify(viewProjectionService, never()).patchCarerForShift(eq(lost.getBookingId()), any(), anyMap());
+    }
+
+    @Test
+    void applyEvent_QualificationRemoved_ShouldAlsoRecheckShiftsBookedByOthers() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection keptBookedByOther = booking(List.of("BLS"), "London");
+        EligibilityRulesEngine.BookingProjection lostBookedByOther = booking(List.of("ACLS"), "London");
+        keptBookedByOther.setAssignedCarerId(UUID.randomUUID());
+        lostBookedByOther.setAssignedCarerId(UUID.randomUUID());
+        storedCarer(List.of("BLS", "ACLS"), 10);
+        Set<UUID> listedBookingIds = Set.of(keptBookedByOther.getBookingId(), lostBookedByOther.getBookingId());
+        when(viewProjectionService.getAvailableShiftIdsForCarer(carerId)).thenReturn(Set.of());
+        when(viewProjectionService.getShiftsWithEligibleCarer(carerId)).thenReturn(listedBookingIds);
+        when(viewProjectionService.getBookingData(listedBookingIds)).thenReturn(Map.of(
+                keptBookedByOther.getBookingId(), keptBookedByOther, lostBookedByOther.getBookingId(), lostBookedByOther));
+
+        // Act
+        carerEventHandler.applyEvent(carerUpdated("qualifications", List.of("BLS", "ACLS"), List.of("BLS")));
+
+        // Assert
+        verify(writes).removeCarerForShift(lostBookedByOther.getBookingId(), carerId);
+        verify(writes, never()).removeCarerForShift(eq(keptBookedByOther.getBookingId()), any());
+        verify(viewProjectionService).patchCarerForShift(eq(keptBookedByOther.getBookingId()), eq(carerId), anyMap());
+        verify(viewProjectionService, never()).patchCarerForShift(eq(lostBookedByOther.getBookingId()), any(), anyMap());
+    }
+
+    @Test
+    void applyEvent_QualificationsSwapped_ShouldClearAndRecomputeCarer() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection eligible = booking(List.of("ACLS"), "London");
+        EligibilityRulesEngine.BookingProjection ineligible = booking(List.of("BLS"), "London");
+        storedCarer(List.of("BLS"), 10);
+        bookingsWithGrade(eligible, ineligible);
+
+        // Act
+        carerEventHandler.applyEvent(carerUpdated("qualifications", List.of("BLS"), List.of("ACLS")));
+
+        // Assert
+        verify(viewProjectionService).clearCarerEligibility(carerId);
+        verify(writes).addShiftForCarer(eq(carerId), argThat(shift -> shift.getBookingId().equals(eligible.getBookingId())));
+        verify(writes).addCarerForShift(eq(eligible.getBookingId()), argThat(dto -> dto.getCarerId().equals(carerId)));
+        verify(writes, never()).addCarerForShift(eq(ineligible.getBookingId()), any());
+        verify(viewProjectionService, never()).getAvailableShiftIdsForCarer(any());
+    }
+
+    @Test
+    void applyEvent_TravelLimitWidenedWithLocationChange_ShouldRecomputeCarer() {
+        // Arrange
+        EligibilityRulesEngine.BookingProjection leedsShift = booking(List.of("BLS"), "Leeds");
+        storedCarer(List.of("BLS"), 10);
+        bookingsWithGrade(leedsShift);
+        Map<String, Object> changes = new LinkedHashMap<>();
+        changes.put("location", change("London", "Leeds"));
+        changes.put("maxTravelDistance", change(10, 50));
+
+        // Act
+        carerEventHandler.applyEvent(new CarerUpdated(carerId, changes, "relocated"));
+
+        // Assert
+        verify(viewProjectionService).clearCarerEligibility(carerId);
+        verify(writes).addShiftForCarer(eq(carerId), argThat(shift -> shift.getBookingId().equals(leedsShift.getBookingId())));
+    }
+
+    /**
+     * Stubs the compare-and-set update of the carer, applying the event's change to a copy
+     */
+    private void storedCarer(List<String> qualifications, Integer maxTravelDistance) {
+        when(viewProjectionService.updateCarerData(eq(carerId), any())).thenAnswer(invocation -> {
+            EligibilityRulesEngine.CarerProjection previous = carer(qualifications, maxTravelDistance);
+            EligibilityRulesEngine.CarerProjection current = carer(qualifications, maxTravelDistance);
+            invocation.<Consumer<EligibilityRulesEngine.CarerProjection>>getArgument(1).accept(current);
+            return new ProjectionUpdate<>(previous, current);
+        });
+    }
+
+    private void bookingsWithGrade(Object... bookings) {
+        doAnswer(invocation -> {
+            BiConsumer<UUID, EligibilityRulesEngine.BookingProjection> action = invocation.getArgument(1);
+            for (Object booking : bookings) {
+                if (booking instanceof EligibilityRulesEngine.BookingProjection projection) {
+                    action.accept(projection.getBookingId(), projection);
+                } else {
+                    action.accept((UUID) booking, null);
+                }
+            }
+            return null;
+        }).when(viewProjectionService).forEachBookingWithGrade(eq("RN"), any());
+    }
+
+    private EligibilityRulesEngine.CarerProjection carer(List<String> qualifications, Integer maxTravelDistance) {
+        return new EligibilityRulesEngine.CarerProjection(carerId, "Ann", "Lee", "ann@example.com", "0100",
+                "RN", qualifications, "London", "CITIZEN", maxTravelDistance);
+    }
+
+    private static EligibilityRulesEngine.BookingProjection booking(List<String> requiredQualifications, String location) {
+        return new EligibilityRulesEngine.BookingProjection(UUID.randomUUID(), UUID.randomUUID(), "RN",
+                requiredQualifications, location, START, START.plusHours(8));
+    }
+
+    private CarerUpdated carerUpdated(String field, Object oldValue, Object newValue) {
+        return new CarerUpdated(carerId, Map.of(field, change(oldValue, newValue)), "profile update");
+    }
+
+    private static Map<String, Object> change(Object oldValue, Object newValue) {
+        Map<String, Object> change = new HashMap<>();
+        change.put("old", oldValue);
+        change.put("new", newValue);
+        return change;
+    }
+}
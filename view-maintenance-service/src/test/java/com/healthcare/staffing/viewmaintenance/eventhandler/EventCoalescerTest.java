@@ -0,0 +1,85 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.healthcare.staffing.shared.events.booking.BookingCancelled;
+import com.healthcare.staffing.shared.events.booking.BookingCreated;
+import com.healthcare.staffing.shared.events.booking.BookingModified;
+import com.healthcare.staffing.shared.events.carer.CarerUpdated;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventCoalescerTest {
+
+    private EventCoalescer eventCoalescer;
+
+    @BeforeEach
+    void setUp() {
+        eventCoalescer = new EventCoalescer();
+    }
+
+    @Test
+    void coalesce_CreatedModifiedCancelledInOneBatch_ShouldBeNoOp() {
+        // Arrange
+        UUID bookingId = UUID.randomUUID();
+        List<Object> events = List.of(
+                created(bookingId),
+                new BookingModified(bookingId, change("grade", "RN", "HCA"), "regrade"),
+                new BookingCancelled(bookingId, "no longer needed", "admin")
+        );
+
+        // Act
+        List<Object> result = eventCoalescer.coalesce(events);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void coalesce_ConsecutiveUpdates_ShouldMergeKeepingFirstOldAndLastNew() {
+        // Arrange
+        UUID carerId = UUID.randomUUID();
+        UUID otherCarerId = UUID.randomUUID();
+        CarerUpdated other = new CarerUpdated(otherCarerId, change("phone", "1", "2"), "contact");
+        List<Object> events = List.of(
+                new CarerUpdated(carerId, change("maxTravelDistance", 10, 20), "first"),
+                other,
+                new CarerUpdated(carerId, change("maxTravelDistance", 20, 30), "second")
+        );
+
+        // Act
+        List<Object> result = eventCoalescer.coalesce(events);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertSame(other, result.get(0));
+        CarerUpdated merged = (CarerUpdated) result.get(1);
+        assertEquals(carerId, merged.getCarerId());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> distance = (Map<String, Object>) merged.getChangedFields().get("maxTravelDistance");
+        assertEquals(10, distance.get("old"));
+        assertEquals(30, distance.get("new"));
+    }
+
+    private static BookingCreated created(UUID bookingId) {
+        return new BookingCreated(bookingId, UUID.randomUUID(), "DAY",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8),
+                "RN", new BigDecimal("35.00"), "London", null, List.of("BLS"));
+    }
+
+    private static Map<String, Object> change(String field, Object oldValue, Object newValue) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("old", oldValue);
+        values.put("new", newValue);
+        Map<String, Object> changedFields = new HashMap<>();
+        changedFields.put(field, values);
+        return changedFields;
+    }
+}
@@ -0,0 +1,81 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeyedEventExecutorTest {
+
+    private KeyedEventExecutor keyedEventExecutor;
+
+    @BeforeEach
+    void setUp() {
+        keyedEventExecutor = new KeyedEventExecutor(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyedEventExecutor.shutdown();
+    }
+
+    @Test
+    void submit_SameKey_ShouldRunInSubmissionOrder() {
+        // Arrange
+        List<Integer> applied = Collections.synchronizedList(new ArrayList<>());
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < 100; i++) {
+            int position = i;
+            futures.add(keyedEventExecutor.submit("booking:1", () -> applied.add(position)));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+
+        // Assert
+        assertEquals(IntStream.range(0, 100).boxed().toList(), applied);
+    }
+
+    @Test
+    void submit_KeysOnDifferentLanes_ShouldRunInParallel() throws Exception {
+        // Arrange
+        String firstKey = "booking:1";
+        String secondKey = keyOnOtherLane(firstKey);
+        CountDownLatch secondStarted = new CountDownLatch(1);
+        AtomicBoolean overlapped = new AtomicBoolean();
+
+        // Act: the first task only finishes early if the second runs while it waits
+        CompletableFuture<Void> first = keyedEventExecutor.submit(firstKey, () -> {
+            try {
+                overlapped.set(secondStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        CompletableFuture<Void> second = keyedEventExecutor.submit(secondKey, secondStarted::countDown);
+        CompletableFuture.allOf(first, second).get(10, TimeUnit.SECONDS);
+
+        // Assert
+        assertTrue(overlapped.get());
+    }
+
+    private String keyOnOtherLane(String key) {
+        int lane = Math.floorMod(key.hashCode(), keyedEventExecutor.getLaneCount());
+        for (int i = 0; ; i++) {
+            String candidate = "carer:" + i;
+            if (Math.floorMod(candidate.hashCode(), keyedEventExecutor.getLaneCount()) != lane) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartitionOffsetTrackerTest {
+
+    private static final TopicPartition BOOKINGS = new TopicPartition("booking-events", 0);
+
+    private PartitionOffsetTracker partitionOffsetTracker;
+
+    @BeforeEach
+    void setUp() {
+        partitionOffsetTracker = new PartitionOffsetTracker();
+        for (long offset = 10; offset <= 13; offset++) {
+            partitionOffsetTracker.register(BOOKINGS, offset);
+        }
+    }
+
+    @Test
+    void takeCommittableOffsets_LaterOffsetsFinishedFirst_ShouldStopAtLowestUnfinished() {
+        // Arrange
+        partitionOffsetTracker.complete(BOOKINGS, 10);
+        partitionOffsetTracker.complete(BOOKINGS, 12);
+        partitionOffsetTracker.complete(BOOKINGS, 13);
+
+        // Act
+        Map<TopicPartition, OffsetAndMetadata> result = partitionOffsetTracker.takeCommittableOffsets();
+
+        // Assert
+        assertEquals(11, result.get(BOOKINGS).offset());
+    }
+
+    @Test
+    void takeCommittableOffsets_AllFinished_ShouldCommitPastBatchOnce() {
+        // Arrange
+        for (long offset = 10; offset <= 13; offset++) {
+            partitionOffsetTracker.complete(BOOKINGS, offset);
+        }
+
+        // Act
+        Map<TopicPartition, OffsetAndMetadata> first = partitionOffsetTracker.takeCommittableOffsets();
+        Map<TopicPartition, OffsetAndMetadata> second = partitionOffsetTracker.takeCommittableOffsets();
+
+        // Assert
+        assertEquals(14, first.get(BOOKINGS).offset());
+        assertTrue(second.isEmpty());
+    }
+}
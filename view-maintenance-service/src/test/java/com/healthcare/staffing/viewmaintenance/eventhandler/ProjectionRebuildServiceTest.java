@@ -0,0 +1,538 @@
+package com.healthcare.staffing.viewmaintenance.eventhandler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.staffing.shared.dto.EligibleCarerDto;
+import com.healthcare.staffing.shared.dto.EligibleShiftDto;
+import com.healthcare.staffing.shared.events.booking.BookingBooked;
+import com.healthcare.staffing.shared.events.booking.BookingCancelled;
+import com.healthcare.staffing.shared.events.booking.BookingCreated;
+import com.healthcare.staffing.shared.events.booking.BookingModified;
+import com.healthcare.staffing.shared.events.booking.BookingPullout;
+import com.healthcare.staffing.shared.events.carer.CarerUpdated;
+import com.healthcare.staffing.shared.events.carer.NewCarer;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityRulesEngine;
+import com.healthcare.staffing.viewmaintenance.service.EligibilityVerdictCache;
+import com.healthcare.staffing.viewmaintenance.service.ParallelEligibilityEvaluator;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionFanOutWriter;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionNamespace;
+import com.healthcare.staffing.viewmaintenance.service.ProjectionUpdate;
+import com.healthcare.staffing.viewmaintenance.service.ViewProjectionService;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.MockConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.consumer.OffsetResetStrategy;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectionRebuildServiceTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 2, 8, 0);
+    private static final TopicPartition BOOKING_PARTITION = new TopicPartition("booking-events", 0);
+    private static final TopicPartition CARER_PARTITION = new TopicPartition("carer-events", 0);
+
+    @Mock
+    private ConsumerFactory<Object, Object> consumerFactory;
+
+    @Mock
+    private KafkaListenerEndpointRegistry listenerRegistry;
+
+    @Mock
+    private RedisConnectionFactory connectionFactory;
+
+    @Mock
+    private ProjectionNamespace projectionNamespace;
+
+    @Mock
+    private ViewProjectionService viewProjectionService;
+
+    @Mock
+    private ProjectionFanOutWriter projectionFanOutWriter;
+
+    @Mock
+    private ProjectionFanOutWriter.Batch writes;
+
+    @Mock
+    private ViewProjectionService shadow;
+
+    @Mock
+    private MessageListenerContainer runningContainer;
+
+    @Mock
+    private MessageListenerContainer stoppedContainer;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    // What the live handlers wrote, as maintained by the stubbed projection service
+    private final Map<UUID, EligibilityRulesEngine.CarerProjection> liveCarers = new HashMap<>();
+    private final Map<UUID, EligibilityRulesEngine.BookingProjection> liveBookings = new HashMap<>();
+    private final Map<UUID, Set<UUID>> liveEligibleCarers = new HashMap<>();
+    private final Map<UUID, Set<UUID>> liveAvailableShifts = new HashMap<>();
+
+    private ParallelEligibilityEvaluator parallelEligibilityEvaluator;
+    private BookingEventHandler bookingEventHandler;
+    private CarerEventHandler carerEventHandler;
+    private ProjectionRebuildService rebuildService;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        ViewMaintenanceProperties properties = new ViewMaintenanceProperties();
+        EligibilityVerdictCache eligibilityVerdictCache = new EligibilityVerdictCache(new EligibilityRulesEngine(), properties);
+        parallelEligibilityEvaluator = new ParallelEligibilityEvaluator(eligibilityVerdictCache, properties);
+        lenient().doAnswer(invocation -> {
+            invocation.<Runnable>getArgument(1).run();
+            return null;
+        }).when(projectionFanOutWriter).runInUnitOfWork(anyString(), any());
+        lenient().when(projectionFanOutWriter.newBatch(anyString())).thenReturn(writes);
+        bookingEventHandler = new BookingEventHandler(viewProjectionService, eligibilityVerdictCache,
+                projectionFanOutWriter, parallelEligibilityEvaluator);
+        carerEventHandler = new CarerEventHandler(viewProjectionService, eligibilityVerdictCache, projectionFanOutWriter);
+        rebuildService = new ProjectionRebuildService(consumerFactory, listenerRegistry, connectionFactory, objectMapper,
+                properties, projectionNamespace, viewProjectionService, eligibilityVerdictCache, new EligibilityRulesEngine(),
+                bookingEventHandler, carerEventHandler);
+        pool = new ForkJoinPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelEligibilityEvaluator.shutdown();
+        rebuildService.shutdown();
+        pool.shutdown();
+    }
+
+    @Test
+    void replayState_ShouldComputeSameEligibilityAsLiveHandlersAfterEachEvent() {
+        // Arrange
+        liveProjectionStore();
+        ProjectionRebuildService.ReplayState state = rebuildService.new ReplayState();
+        NewCarer first = newCarer("RN", List.of("BLS"));
+        NewCarer second = newCarer("RN", List.of("BLS", "ACLS"));
+        NewCarer assistant = newCarer("HCA", List.of("BLS"));
+        BookingCreated morning = bookingCreated("RN", START);
+        BookingCreated overlapping = bookingCreated("RN", START.plusHours(4));
+        BookingCreated nextDay = bookingCreated("RN", START.plusDays(1));
+
+        // Act & Assert
+        applyAndCompare(state, first);
+        applyAndCompare(state, second);
+        applyAndCompare(state, assistant);
+        applyAndCompare(state, morning);
+        applyAndCompare(state, overlapping);
+        applyAndCompare(state, nextDay);
+        applyAndCompare(state, new BookingModified(nextDay.getBookingId(), Map.of("requiredQualifications",
+                change(List.of("BLS"), List.of("BLS", "ACLS"))), "amended"));
+        applyAndCompare(state, new BookingBooked(morning.getBookingId(), first.getCarerId(), "agency"));
+        applyAndCompare(state, new BookingPullout(morning.getBookingId(), first.getCarerId(), "sick", "agency"));
+        applyAndCompare(state, new BookingBooked(morning.getBookingId(), second.getCarerId(), "agency"));
+        Map<String, Object> moved = new HashMap<>();
+        moved.put("startTime", change(START.plusDays(1), START.plusHours(1)));
+        moved.put("endTime", change(START.plusDays(1).plusHours(8), START.plusHours(9)));
+        applyAndCompare(state, new BookingModified(nextDay.getBookingId(), moved, "moved"));
+        applyAndCompare(state, new CarerUpdated(first.getCarerId(), Map.of("qualifications",
+                change(List.of("BLS"), List.of("BLS", "ACLS"))), "course passed"));
+        applyAndCompare(state, new BookingCancelled(overlapping.getBookingId(), "not needed", "facility"));
+
+        assertEquals(Set.of(first.getCarerId()), liveEligibleCarers.get(nextDay.getBookingId()));
+        assertEquals(Set.of(morning.getBookingId()), liveAvailableShifts.get(second.getCarerId()));
+    }
+
+    @Test
+    void cutOver_ShouldRewriteOnlyWhatTheTailChangedAndMoveIndexEntries() throws Exception {
+        // Arrange
+        ProjectionRebuildService.ReplayState state = rebuildService.new ReplayState();
+        NewCarer nurse = newCarer("RN", List.of("BLS"));
+        NewCarer regraded = newCarer("RN", List.of("BLS"));
+        NewCarer assistant = newCarer("HCA", List.of("BLS"));
+        NewCarer untouchedCarer = newCarer("SN", List.of("BLS"));
+        BookingCreated moved = bookingCreated("RN", START);
+        BookingCreated cancelled = bookingCreated("RN", START.plusDays(1));
+        BookingCreated assistantShift = bookingCreated("HCA", START.plusDays(2));
+        BookingCreated untouchedBooking = bookingCreated("SN", START.plusDays(3));
+        MockConsumer<Object, Object> consumer = snapshotConsumer(state,
+                List.of(moved, cancelled, assistantShift, untouchedBooking),
+                List.of(nurse, regraded, assistant, untouchedCarer));
+        Map<UUID, Set<UUID>> eligibleCarers = rebuildService.computeEligibleCarers(state, pool);
+        Map<UUID, Set<UUID>> availableShifts = ProjectionRebuildService.availableShiftsOf(state, eligibleCarers);
+
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("grade", change("RN", "HCA"));
+        changes.put("startTime", change(START, START.plusHours(2)));
+        changes.put("endTime", change(START.plusHours(8), START.plusHours(10)));
+        addRecord(consumer, BOOKING_PARTITION, 4, new BookingModified(moved.getBookingId(), changes, "regraded"));
+        addRecord(consumer, BOOKING_PARTITION, 5, new BookingCancelled(cancelled.getBookingId(), "not needed", "facility"));
+        addRecord(consumer, CARER_PARTITION, 4, new CarerUpdated(regraded.getCarerId(),
+                Map.of("grade", change("RN", "HCA")), "regraded"));
+        consumer.commitSync(Map.of(BOOKING_PARTITION, new OffsetAndMetadata(6), CARER_PARTITION, new OffsetAndMetadata(5)));
+        listenerContainers();
+        when(projectionNamespace.getActive()).thenReturn("v1:");
+        RebuildStatus rebuild = new RebuildStatus("v2:", 0);
+
+        // Act
+        String previousNamespace = rebuildService.cutOver(consumer, List.of(BOOKING_PARTITION, CARER_PARTITION), shadow,
+                state, eligibleCarers, availableShifts, pool, rebuild);
+
+        // Assert
+        assertEquals("v1:", previousNamespace);
+        assertEquals(3, rebuild.getEventsReplayed());
+        verify(shadow).unindexBookingGrade(moved.getBookingId(), "RN");
+        verify(shadow).unindexBookingInterval(moved.getBookingId(), START, START.plusHours(8));
+        verify(shadow).storeBookingData(eq(moved.getBookingId()), argThat(booking -> "HCA".equals(booking.getGrade())));
+        verify(shadow).unindexCarerGrade(regraded.getCarerId(), "RN");
+        verify(shadow).storeCarerData(eq(regraded.getCarerId()), argThat(carer -> "HCA".equals(carer.getGrade())));
+        verify(shadow).removeBookingProjections(cancelled.getBookingId());
+        verify(shadow).updateEligibleCarersForShift(eq(moved.getBookingId()), argThat(carers ->
+                carerIdsOf(carers).equals(Set.of(regraded.getCarerId(), assistant.getCarerId()))));
+        verify(shadow).updateEligibleCarersForShift(eq(assistantShift.getBookingId()), argThat(carers ->
+                carerIdsOf(carers).equals(Set.of(regraded.getCarerId(), assistant.getCarerId()))));
+        verify(shadow).updateAvailableShiftsForCarer(eq(nurse.getCarerId()), argThat(List::isEmpty));
+        verify(shadow).updateAvailableShiftsForCarer(eq(assistant.getCarerId()), argThat(shifts ->
+                bookingIdsOf(shifts).equals(Set.of(moved.getBookingId(), assistantShift.getBookingId()))));
+
+        // Entities and eligibility the tail left alone are not rewritten
+        verify(shadow, never()).storeBookingData(eq(assistantShift.getBookingId()), any());
+        verify(shadow, never()).unindexBookingGrade(eq(assistantShift.getBookingId()), any());
+        verify(shadow, never()).updateEligibleCarersForShift(eq(untouchedBooking.getBookingId()), any());
+        verify(shadow, never()).updateAvailableShiftsForCarer(eq(untouchedCarer.getCarerId()), any());
+        verify(shadow, never()).storeCarerData(eq(nurse.getCarerId()), any());
+
+        // The listeners were ahead of the snapshot, so their offsets stay put
+        assertEquals(6, consumer.committed(Set.of(BOOKING_PARTITION)).get(BOOKING_PARTITION).offset());
+        assertEquals(5, consumer.committed(Set.of(CARER_PARTITION)).get(CARER_PARTITION).offset());
+        verify(projectionNamespace).activate("v2:");
+        verify(viewProjectionService).reloadLocalState();
+        verify(runningContainer).stop();
+        verify(runningContainer).start();
+        verify(stoppedContainer, never()).start();
+    }
+
+    @Test
+    void cutOver_ListenersBehindSnapshot_ShouldMoveTheirOffsetsPastIt() throws Exception {
+        // Arrange
+        ProjectionRebuildService.ReplayState state = rebuildService.new ReplayState();
+        BookingCreated booking = bookingCreated("RN", START);
+        NewCarer carer = newCarer("RN", List.of("BLS"));
+        MockConsumer<Object, Object> consumer = snapshotConsumer(state, List.of(booking), List.of(carer));
+        Map<UUID, Set<UUID>> eligibleCarers = rebuildService.computeEligibleCarers(state, pool);
+        Map<UUID, Set<UUID>> availableShifts = ProjectionRebuildService.availableShiftsOf(state, eligibleCarers);
+        // The booking listener has committed nothing past the snapshot and the carer listener nothing at all
+        consumer.commitSync(Map.of(BOOKING_PARTITION, new OffsetAndMetadata(0)));
+        listenerContainers();
+        when(projectionNamespace.getActive()).thenReturn("");
+
+        // Act
+        String previousNamespace = rebuildService.cutOver(consumer, List.of(BOOKING_PARTITION, CARER_PARTITION), shadow,
+                state, eligibleCarers, availableShifts, pool, new RebuildStatus("v1:", 0));
+
+        // Assert
+        assertEquals("", previousNamespace);
+        assertEquals(1, consumer.committed(Set.of(BOOKING_PARTITION)).get(BOOKING_PARTITION).offset());
+        assertEquals(1, consumer.committed(Set.of(CARER_PARTITION)).get(CARER_PARTITION).offset());
+        verify(shadow, never()).updateEligibleCarersForShift(any(), any());
+        verify(shadow, never()).updateAvailableShiftsForCarer(any(), any());
+        verify(projectionNamespace).activate("v1:");
+    }
+
+    @Test
+    void cutOver_WhenSwitchFails_ShouldRestartListenersAndKeepOldNamespace() throws Exception {
+        // Arrange
+        ProjectionRebuildService.ReplayState state = rebuildService.new ReplayState();
+        MockConsumer<Object, Object> consumer = snapshotConsumer(state, List.of(bookingCreated("RN", START)),
+                List.of(newCarer("RN", List.of("BLS"))));
+        Map<UUID, Set<UUID>> eligibleCarers = rebuildService.computeEligibleCarers(state, pool);
+        Map<UUID, Set<UUID>> availableShifts = ProjectionRebuildService.availableShiftsOf(state, eligibleCarers);
+        consumer.commitSync(Map.of(BOOKING_PARTITION, new OffsetAndMetadata(1), CARER_PARTITION, new OffsetAndMetadata(1)));
+        listenerContainers();
+        when(projectionNamespace.getActive()).thenReturn("v1:");
+        doThrow(new RuntimeException("Redis unavailable")).when(projectionNamespace).activate("v2:");
+
+        // Act & Assert
+        assertThrows(RuntimeException.class, () -> rebuildService.cutOver(consumer,
+                List.of(BOOKING_PARTITION, CARER_PARTITION), shadow, state, eligibleCarers, availableShifts, pool,
+                new RebuildStatus("v2:", 0)));
+        verify(runningContainer).stop();
+        verify(runningContainer).start();
+        verify(stoppedContainer, never()).start();
+        verify(viewProjectionService, never()).reloadLocalState();
+    }
+
+    @Test
+    void start_WhenReplayFails_ShouldReportFailureAndAllowAnotherRebuild() throws Exception {
+        // Arrange
+        when(projectionNamespace.allocate()).thenReturn("v2:", "v3:");
+        when(projectionNamespace.getActive()).thenReturn("v1:");
+        when(consumerFactory.createConsumer(anyString(), anyString(), isNull(), any(Properties.class)))
+                .thenThrow(new IllegalStateException("Broker unavailable"));
+
+        // Act
+        RebuildStatus failed = rebuildService.start(10);
+        awaitFinished(failed);
+
+        // Assert
+        assertEquals(RebuildStatus.Phase.FAILED, failed.getPhase());
+        assertEquals("Broker unavailable", failed.getError());
+        verify(projectionNamespace, never()).activate(any());
+        assertEquals("v3:", rebuildService.start(10).getNamespace());
+    }
+
+    @Test
+    void start_WhileRunning_ShouldBeRejected() {
+        // Arrange
+        when(projectionNamespace.allocate()).thenReturn("v2:");
+        // Keeps the first rebuild replaying until the test ends
+        lenient().when(consumerFactory.createConsumer(anyString(), anyString(), isNull(), any(Properties.class))).thenAnswer(invocation -> {
+            Thread.sleep(60_000);
+            return null;
+        });
+        rebuildService.start(null);
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> rebuildService.start(null));
+        verify(projectionNamespace, times(1)).allocate();
+    }
+
+    /**
+     * Applies the event through the live handlers and to the replay state, then checks that
+     * the eligibility the rebuild computes matches the projections the handlers maintain
+     */
+    private void applyAndCompare(ProjectionRebuildService.ReplayState state, Object event) {
+        if (event instanceof NewCarer || event instanceof CarerUpdated) {
+            carerEventHandler.applyEvent(event);
+        } else {
+            bookingEventHandler.applyEvent(event);
+        }
+        state.apply(event);
+
+        Map<UUID, Set<UUID>> eligibleCarers = rebuildService.computeEligibleCarers(state, pool);
+        Map<UUID, Set<UUID>> availableShifts = ProjectionRebuildService.availableShiftsOf(state, eligibleCarers);
+        String step = event.getClass().getSimpleName();
+        assertEquals(withoutEmpty(liveEligibleCarers), withoutEmpty(eligibleCarers), "eligible carers after " + step);
+        assertEquals(withoutEmpty(liveAvailableShifts), withoutEmpty(availableShifts), "available shifts after " + step);
+    }
+
+    /**
+     * Backs the mocked projection service and write batch with in-memory maps, so the live
+     * handlers read back what they wrote
+     */
+    private void liveProjectionStore() {
+        lenient().doAnswer(invocation -> liveCarers.put(invocation.getArgument(0), copyOf(invocation.getArgument(1))))
+                .when(viewProjectionService).storeCarerData(any(), any());
+        lenient().doAnswer(invocation -> liveBookings.put(invocation.getArgument(0), copyOf(invocation.getArgument(1))))
+                .when(viewProjectionService).storeBookingData(any(), any());
+        lenient().when(viewProjectionService.updateCarerData(any(), any())).thenAnswer(invocation ->
+                update(liveCarers, invocation.getArgument(0), invocation.getArgument(1)));
+        lenient().when(viewProjectionService.updateBookingData(any(), any())).thenAnswer(invocation ->
+                update(liveBookings, invocation.getArgument(0), invocation.getArgument(1)));
+        lenient().when(viewProjectionService.getCarerData(any(UUID.class))).thenAnswer(invocation ->
+                liveCarers.get(invocation.<UUID>getArgument(0)));
+        lenient().when(viewProjectionService.getCarerData(anyCollection())).thenAnswer(invocation ->
+                present(liveCarers, invocation.getArgument(0)));
+        lenient().when(viewProjectionService.getBookingData(anyCollection())).thenAnswer(invocation ->
+                present(liveBookings, invocation.getArgument(0)));
+        lenient().doAnswer(invocation -> {
+            forEachWithGrade(liveCarers, invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(viewProjectionService).forEachCarerWithGrade(any(), any());
+        lenient().doAnswer(invocation -> {
+            forEachWithGrade(liveBookings, invocation.getArgument(0), invocation.getArgument(1));
+            return null;
+        }).when(viewProjectionService).forEachBookingWithGrade(any(), any());
+        // Every booking is a same-day candidate; the handlers check the overlap themselves
+        lenient().when(viewProjectionService.getBookingIdsInWindow(any(), any())).thenAnswer(invocation ->
+                new HashSet<>(liveBookings.keySet()));
+        lenient().when(viewProjectionService.getEligibleCarerIdsForShift(any())).thenAnswer(invocation ->
+                new HashSet<>(liveEligibleCarers.getOrDefault(invocation.<UUID>getArgument(0), Set.of())));
+        lenient().when(viewProjectionService.getAvailableShiftIdsForCarer(any())).thenAnswer(invocation ->
+                new HashSet<>(liveAvailableShifts.getOrDefault(invocation.<UUID>getArgument(0), Set.of())));
+        lenient().when(viewProjectionService.getCarersWithAvailableShift(any())).thenAnswer(invocation ->
+                holdersOf(liveAvailableShifts, invocation.getArgument(0)));
+        lenient().when(viewProjectionService.getShiftsWithEligibleCarer(any())).thenAnswer(invocation ->
+                holdersOf(liveEligibleCarers, invocation.getArgument(0)));
+        lenient().doAnswer(invocation -> remove(liveAvailableShifts, invocation.getArgument(0), invocation.getArgument(1)))
+                .when(viewProjectionService).removeShiftForCarer(any(), any());
+        lenient().doAnswer(invocation -> {
+            clearBookingEligibility(invocation.getArgument(0));
+            return null;
+        }).when(viewProjectionService).clearBookingEligibility(any());
+        lenient().doAnswer(invocation -> {
+            UUID carerId = invocation.getArgument(0);
+            liveAvailableShifts.remove(carerId);
+            liveEligibleCarers.values().forEach(carerIds -> carerIds.remove(carerId));
+            return null;
+        }).when(viewProjectionService).clearCarerEligibility(any());
+        lenient().doAnswer(invocation -> {
+            clearBookingEligibility(invocation.getArgument(0));
+            liveBookings.remove(invocation.<UUID>getArgument(0));
+            return null;
+        }).when(viewProjectionService).removeBookingProjections(any());
+
+        lenient().doAnswer(invocation -> liveEligibleCarers.computeIfAbsent(invocation.getArgument(0), id -> new HashSet<>())
+                .add(invocation.<EligibleCarerDto>getArgument(1).getCarerId()))
+                .when(writes).addCarerForShift(any(), any());
+        lenient().doAnswer(invocation -> liveAvailableShifts.computeIfAbsent(invocation.getArgument(0), id -> new HashSet<>())
+                .add(invocation.<EligibleShiftDto>getArgument(1).getBookingId()))
+                .when(writes).addShiftForCarer(any(), any());
+        lenient().doAnswer(invocation -> remove(liveEligibleCarers, invocation.getArgument(0), invocation.getArgument(1)))
+                .when(writes).removeCarerForShift(any(), any());
+        lenient().doAnswer(invocation -> remove(liveAvailableShifts, invocation.getArgument(0), invocation.getArgument(1)))
+                .when(writes).removeShiftForCarer(any(), any());
+    }
+
+    private void clearBookingEligibility(UUID bookingId) {
+        liveEligibleCarers.remove(bookingId);
+        liveAvailableShifts.values().forEach(bookingIds -> bookingIds.remove(bookingId));
+    }
+
+    private <T> ProjectionUpdate<T> update(Map<UUID, T> store, UUID id, Consumer<T> change) {
+        T stored = store.get(id);
+        if (stored == null) {
+            return null;
+        }
+        T current = copyOf(stored);
+        change.accept(current);
+        store.put(id, copyOf(current));
+        return new ProjectionUpdate<>(copyOf(stored), current);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T copyOf(T projection) {
+        return (T) objectMapper.convertValue(projection, projection.getClass());
+    }
+
+    private static <T> Map<UUID, T> present(Map<UUID, T> store, Collection<UUID> ids) {
+        Map<UUID, T> result = new HashMap<>();
+        for (UUID id : ids) {
+            if (store.containsKey(id)) {
+                result.put(id, store.get(id));
+            }
+        }
+        return result;
+    }
+
+    private static <T> void forEachWithGrade(Map<UUID, T> store, String grade, BiConsumer<UUID, T> action) {
+        new HashMap<>(store).forEach((id, projection) -> {
+            String projectionGrade = projection instanceof EligibilityRulesEngine.CarerProjection carer
+                    ? carer.getGrade() : ((EligibilityRulesEngine.BookingProjection) projection).getGrade();
+            if (grade.equals(projectionGrade)) {
+                action.accept(id, projection);
+            }
+        });
+    }
+
+    private static Set<UUID> holdersOf(Map<UUID, Set<UUID>> projections, UUID member) {
+        Set<UUID> holders = new HashSet<>();
+        projections.forEach((id, members) -> {
+            if (members.contains(member)) {
+                holders.add(id);
+            }
+        });
+        return holders;
+    }
+
+    private static boolean remove(Map<UUID, Set<UUID>> projections, UUID id, UUID member) {
+        return projections.getOrDefault(id, new HashSet<>()).remove(member);
+    }
+
+    private static Map<UUID, Set<UUID>> withoutEmpty(Map<UUID, Set<UUID>> projections) {
+        Map<UUID, Set<UUID>> result = new HashMap<>();
+        projections.forEach((id, members) -> {
+            if (!members.isEmpty()) {
+                result.put(id, members);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * A consumer positioned right after the given events, as the snapshot left it, with
+     * the events folded into the state
+     */
+    private static MockConsumer<Object, Object> snapshotConsumer(ProjectionRebuildService.ReplayState state,
+                                                                 List<?> bookingEvents, List<?> carerEvents) {
+        MockConsumer<Object, Object> consumer = new MockConsumer<>(OffsetResetStrategy.EARLIEST);
+        consumer.assign(List.of(BOOKING_PARTITION, CARER_PARTITION));
+        consumer.updateBeginningOffsets(Map.of(BOOKING_PARTITION, 0L, CARER_PARTITION, 0L));
+        carerEvents.forEach(state::apply);
+        bookingEvents.forEach(state::apply);
+        consumer.seek(BOOKING_PARTITION, bookingEvents.size());
+        consumer.seek(CARER_PARTITION, carerEvents.size());
+        return consumer;
+    }
+
+    private static void addRecord(MockConsumer<Object, Object> consumer, TopicPartition partition, long offset, Object event) {
+        consumer.addRecord(new ConsumerRecord<>(partition.topic(), partition.partition(), offset, null, event));
+    }
+
+    private void listenerContainers() {
+        when(runningContainer.isRunning()).thenReturn(true);
+        when(stoppedContainer.isRunning()).thenReturn(false);
+        when(listenerRegistry.getListenerContainers()).thenReturn(List.of(runningContainer, stoppedContainer));
+    }
+
+    private static void awaitFinished(RebuildStatus rebuild) throws InterruptedException {
+        for (int i = 0; i < 500 && rebuild.isRunning(); i++) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static Set<UUID> carerIdsOf(List<EligibleCarerDto> carers) {
+        Set<UUID> carerIds = new HashSet<>();
+        carers.forEach(carer -> carerIds.add(carer.getCarerId()));
+        return carerIds;
+    }
+
+    private static Set<UUID> bookingIdsOf(List<EligibleShiftDto> shifts) {
+        Set<UUID> bookingIds = new HashSet<>();
+        shifts.forEach(shift -> bookingIds.add(shift.getBookingId()));
+        return bookingIds;
+    }
+
+    private static Map<String, Object> change(Object oldValue, Object newValue) {
+        Map<String, Object> change = new HashMap<>();
+        change.put("old", oldValue);
+        change.put("new", newValue);
+        return change;
+    }
+
+    private static NewCarer newCarer(String grade, List<String> qualifications) {
+        return new NewCarer(UUID.randomUUID(), "Ann", "Lee", "ann@example.com", "0100", "London", grade,
+                qualifications, "CITIZEN", 10);
+    }
+
+    private static BookingCreated bookingCreated(String grade, LocalDateTime start) {
+        return new BookingCreated(UUID.randomUUID(), UUID.randomUUID(), "Day", start, start.plusHours(8),
+                grade, new BigDecimal("25.00"), "London", null, List.of("BLS"));
+    }
+}
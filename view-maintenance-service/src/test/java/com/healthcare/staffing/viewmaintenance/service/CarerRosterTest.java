@@ -0,0 +1,133 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CarerRosterTest {
+
+    private EligibilityRulesEngine eligibilityRulesEngine;
+    private CarerRoster carerRoster;
+
+    @BeforeEach
+    void setUp() {
+        eligibilityRulesEngine = new EligibilityRulesEngine();
+        carerRoster = new CarerRoster();
+    }
+
+    @Test
+    void eligibleFor_ShouldMatchRulesEngineForEveryCarer() {
+        // Arrange - a roster crossing every grade, qualification, location, visa and distance
+        List<EligibilityRulesEngine.CarerProjection> carers = new ArrayList<>();
+        String[] grades = {"RN", "HCA"};
+        List<List<String>> qualificationSets = List.of(List.of(), List.of("BLS"), List.of("BLS", "ACLS"));
+        String[] locations = {"London", "Manchester", "Leeds"};
+        String[] visaStatuses = {"CITIZEN", "WORK_VISA", "STUDENT_VISA"};
+        Integer[] maxDistances = {5, 50, null};
+        for (String grade : grades) {
+            for (List<String> qualifications : qualificationSets) {
+                for (String location : locations) {
+                    for (String visaStatus : visaStatuses) {
+                        for (Integer maxDistance : maxDistances) {
+                            EligibilityRulesEngine.CarerProjection carer = new EligibilityRulesEngine.CarerProjection(
+                                    UUID.randomUUID(), grade, qualifications, location, visaStatus, maxDistance
+                            );
+                            carerRoster.put(carers.size(), carer, eligibilityRulesEngine.qualificationMaskOf(carer));
+                            carers.add(carer);
+                        }
+                    }
+                }
+            }
+        }
+
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of("BLS"), "London",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8)
+        );
+
+        // Act
+        BitSet eligible = carerRoster.eligibleFor(booking, eligibilityRulesEngine);
+
+        // Assert
+        assertFalse(eligible.isEmpty());
+        for (int code = 0; code < carers.size(); code++) {
+            assertEquals(eligibilityRulesEngine.isCarerEligibleForBooking(carers.get(code), booking),
+                    eligible.get(code), "carer row " + code);
+        }
+    }
+
+    @Test
+    void eligibleFor_RemovedCarer_ShouldBeSkipped() {
+        // Arrange
+        EligibilityRulesEngine.CarerProjection carer = new EligibilityRulesEngine.CarerProjection(
+                UUID.randomUUID(), "RN", List.of("BLS"), "London", "CITIZEN", 50
+        );
+        carerRoster.put(0, carer, eligibilityRulesEngine.qualificationMaskOf(carer));
+        carerRoster.put(1, carer, eligibilityRulesEngine.qualificationMaskOf(carer));
+
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of("BLS"), "London",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8)
+        );
+
+        // Act
+        carerRoster.remove(0);
+        BitSet eligible = carerRoster.eligibleFor(booking, eligibilityRulesEngine);
+
+        // Assert
+        assertFalse(eligible.get(0));
+        assertTrue(eligible.get(1));
+    }
+
+    @Test
+    void eligibleForAll_ShouldMatchEligibleForOfEachBooking() {
+        // Arrange
+        String[] locations = {"London", "Manchester", "Leeds"};
+        String[] visaStatuses = {"CITIZEN", "WORK_VISA", "STUDENT_VISA"};
+        int code = 0;
+        for (String grade : new String[] {"RN", "HCA"}) {
+            for (List<String> qualifications : List.of(List.of("BLS"), List.of("BLS", "ACLS"))) {
+                for (String location : locations) {
+                    for (String visaStatus : visaStatuses) {
+                        EligibilityRulesEngine.CarerProjection carer = new EligibilityRulesEngine.CarerProjection(
+                                UUID.randomUUID(), grade, qualifications, location, visaStatus, 50
+                        );
+                        carerRoster.put(code++, carer, eligibilityRulesEngine.qualificationMaskOf(carer));
+                    }
+                }
+            }
+        }
+
+        UUID facilityId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.now().plusDays(1);
+        List<EligibilityRulesEngine.BookingProjection> bookings = List.of(
+                new EligibilityRulesEngine.BookingProjection(UUID.randomUUID(), facilityId, "RN", List.of("BLS"),
+                        "London", start, start.plusHours(8)),
+                new EligibilityRulesEngine.BookingProjection(UUID.randomUUID(), facilityId, "RN", List.of("ACLS"),
+                        "Leeds", start, start.plusHours(8)),
+                new EligibilityRulesEngine.BookingProjection(UUID.randomUUID(), UUID.randomUUID(), "RN", List.of(),
+                        "London", start, start.plusHours(8)),
+                new EligibilityRulesEngine.BookingProjection(UUID.randomUUID(), facilityId, "RN", List.of("BLS"),
+                        null, start, start.plusHours(8))
+        );
+
+        // Act
+        List<BitSet> eligible = carerRoster.eligibleForAll(bookings, eligibilityRulesEngine);
+
+        // Assert
+        assertEquals(bookings.size(), eligible.size());
+        assertFalse(eligible.get(0).isEmpty());
+        assertTrue(eligible.get(3).isEmpty());
+        for (int i = 0; i < bookings.size(); i++) {
+            assertEquals(carerRoster.eligibleFor(bookings.get(i), eligibilityRulesEngine), eligible.get(i),
+                    "booking " + i);
+        }
+    }
+}
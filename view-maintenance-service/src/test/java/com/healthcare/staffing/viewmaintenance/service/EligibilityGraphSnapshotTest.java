@@ -0,0 +1,107 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EligibilityGraphSnapshotTest {
+
+    @TempDir
+    Path tempDir;
+
+    private EligibilityGraph eligibilityGraph;
+
+    @BeforeEach
+    void setUp() {
+        eligibilityGraph = newGraph();
+        eligibilityGraph.markLoaded();
+    }
+
+    @Test
+    void read_ShouldRestoreDataEdgesAndOffsetsWritten() throws IOException {
+        // Arrange
+        UUID carerId = UUID.randomUUID();
+        UUID bookingId = UUID.randomUUID();
+        UUID otherBookingId = UUID.randomUUID();
+        UUID carerWithoutDataId = UUID.randomUUID();
+        LocalDateTime start = LocalDateTime.of(2026, 3, 2, 8, 0, 0, 500);
+        eligibilityGraph.putCarer(carerId, new EligibilityRulesEngine.CarerProjection(
+                carerId, "Ann", "Lee", "ann@example.com", null, "RN", List.of("BLS", "ACLS"),
+                "London", "WORK_VISA", 25
+        ));
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                bookingId, UUID.randomUUID(), "Day", "RN", new BigDecimal("31.50"), List.of("BLS"),
+                "London", null, start, start.plusHours(8)
+        );
+        booking.setAssignedCarerId(carerId);
+        eligibilityGraph.putBooking(bookingId, booking);
+        eligibilityGraph.replaceEligibleCarers(bookingId, List.of(carerId, carerWithoutDataId));
+        eligibilityGraph.replaceAvailableShifts(carerId, List.of(bookingId, otherBookingId));
+        Map<TopicPartition, Long> offsets = Map.of(new TopicPartition("booking-events", 0), 42L,
+                new TopicPartition("carer-events", 1), 7L);
+        Path path = tempDir.resolve("graph.snapshot");
+
+        // Act
+        EligibilityGraphSnapshot.write(eligibilityGraph, path, "v3:", offsets);
+        EligibilityGraph restored = newGraph();
+        EligibilityGraphSnapshot snapshot = EligibilityGraphSnapshot.read(restored, path);
+        restored.markLoaded();
+
+        // Assert
+        assertEquals("v3:", snapshot.getNamespace());
+        assertEquals(offsets, snapshot.getOffsets());
+
+        EligibilityRulesEngine.CarerProjection carer = restored.getCarer(carerId);
+        assertEquals("Ann", carer.getFirstName());
+        assertNull(carer.getPhone());
+        assertEquals(List.of("BLS", "ACLS"), carer.getQualifications());
+        assertEquals(25, carer.getMaxTravelDistance());
+        assertNull(restored.getCarer(carerWithoutDataId));
+
+        EligibilityRulesEngine.BookingProjection restoredBooking = restored.getBooking(bookingId);
+        assertEquals(new BigDecimal("31.50"), restoredBooking.getHourlyRate());
+        assertEquals(start, restoredBooking.getStartTime());
+        assertEquals(carerId, restoredBooking.getAssignedCarerId());
+        assertNull(restoredBooking.getSpecialRequirements());
+
+        assertEquals(Set.of(carerId, carerWithoutDataId), restored.getEligibleCarerIds(bookingId));
+        assertEquals(Set.of(bookingId), restored.getShiftsWithEligibleCarer(carerWithoutDataId));
+        assertEquals(Set.of(bookingId, otherBookingId), restored.getAvailableShiftIds(carerId));
+        assertEquals(Set.of(carerId), restored.getCarersWithAvailableShift(otherBookingId));
+    }
+
+    @Test
+    void read_ShouldRejectTruncatedSnapshot() throws IOException {
+        // Arrange
+        UUID carerId = UUID.randomUUID();
+        eligibilityGraph.replaceAvailableShifts(carerId, List.of(UUID.randomUUID()));
+        Path path = tempDir.resolve("graph.snapshot");
+        EligibilityGraphSnapshot.write(eligibilityGraph, path, "", Map.of());
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - Integer.BYTES));
+
+        // Act & Assert
+        assertThrows(Exception.class, () -> EligibilityGraphSnapshot.read(newGraph(), path));
+    }
+
+    private static EligibilityGraph newGraph() {
+        ViewMaintenanceProperties properties = new ViewMaintenanceProperties();
+        properties.getLocalState().setEnabled(true);
+        return new EligibilityGraph(properties, new EligibilityRulesEngine());
+    }
+}
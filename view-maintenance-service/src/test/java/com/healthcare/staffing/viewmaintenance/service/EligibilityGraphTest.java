@@ -0,0 +1,69 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EligibilityGraphTest {
+
+    private EligibilityGraph eligibilityGraph;
+
+    @BeforeEach
+    void setUp() {
+        ViewMaintenanceProperties properties = new ViewMaintenanceProperties();
+        properties.getLocalState().setEnabled(true);
+        eligibilityGraph = new EligibilityGraph(properties, new EligibilityRulesEngine());
+        eligibilityGraph.markLoaded();
+    }
+
+    @Test
+    void replaceAvailableShifts_ShouldKeepReverseIndexInStep() {
+        // Arrange
+        UUID carerId = UUID.randomUUID();
+        UUID kept = UUID.randomUUID();
+        UUID dropped = UUID.randomUUID();
+        UUID added = UUID.randomUUID();
+        eligibilityGraph.replaceAvailableShifts(carerId, List.of(kept, dropped));
+
+        // Act
+        eligibilityGraph.replaceAvailableShifts(carerId, List.of(kept, added));
+
+        // Assert
+        assertEquals(Set.of(kept, added), eligibilityGraph.getAvailableShiftIds(carerId));
+        assertEquals(Set.of(carerId), eligibilityGraph.getCarersWithAvailableShift(kept));
+        assertEquals(Set.of(carerId), eligibilityGraph.getCarersWithAvailableShift(added));
+        assertTrue(eligibilityGraph.getCarersWithAvailableShift(dropped).isEmpty());
+    }
+
+    @Test
+    void clearBookingEdges_ShouldRemoveBookingFromBothSides() {
+        // Arrange
+        UUID bookingId = UUID.randomUUID();
+        UUID carerId = UUID.randomUUID();
+        eligibilityGraph.putBooking(bookingId, new EligibilityRulesEngine.BookingProjection(
+                bookingId, UUID.randomUUID(), "RN", List.of("BLS"), "London",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8)
+        ));
+        eligibilityGraph.addEligibleCarer(bookingId, carerId);
+        eligibilityGraph.addAvailableShift(carerId, bookingId);
+
+        // Act
+        eligibilityGraph.clearBookingEdges(bookingId);
+
+        // Assert
+        assertTrue(eligibilityGraph.getEligibleCarerIds(bookingId).isEmpty());
+        assertTrue(eligibilityGraph.getAvailableShiftIds(carerId).isEmpty());
+        assertTrue(eligibilityGraph.getShiftsWithEligibleCarer(carerId).isEmpty());
+        List<UUID> rnBookings = new ArrayList<>();
+        eligibilityGraph.forEachBookingWithGrade("RN", (id, booking) -> rnBookings.add(id));
+        assertEquals(List.of(bookingId), rnBookings);
+    }
+}
@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -77,4 +78,48 @@ class EligibilityRulesEngineTest {
         // Assert
         assertFalse(result);
     }
+
+    @Test
+    void isCarerEligibleForBooking_QualificationsChangedAfterCheck_ShouldUseNewQualifications() {
+        // Arrange
+        EligibilityRulesEngine.CarerProjection carer = new EligibilityRulesEngine.CarerProjection(
+                UUID.randomUUID(), "RN", List.of("BLS"), "London", "CITIZEN", 50
+        );
+
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of("BLS", "ACLS"), "London",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8)
+        );
+        assertFalse(eligibilityRulesEngine.isCarerEligibleForBooking(carer, booking));
+
+        // Act
+        carer.setQualifications(List.of("BLS", "ACLS", "PALS"));
+        boolean result = eligibilityRulesEngine.isCarerEligibleForBooking(carer, booking);
+
+        // Assert
+        assertTrue(result);
+    }
+
+    @Test
+    void isCarerEligibleForBooking_MoreThan64QualificationCodes_ShouldStillMatchOnOverflowCodes() {
+        // Arrange - push the dictionary past the 64 codes a single long mask can hold
+        List<String> manyQualifications = IntStream.range(0, 70)
+                .mapToObj(i -> "QUAL-" + i)
+                .toList();
+        EligibilityRulesEngine.CarerProjection seasonedCarer = new EligibilityRulesEngine.CarerProjection(
+                UUID.randomUUID(), "RN", manyQualifications, "London", "CITIZEN", 50
+        );
+        EligibilityRulesEngine.CarerProjection juniorCarer = new EligibilityRulesEngine.CarerProjection(
+                UUID.randomUUID(), "RN", manyQualifications.subList(0, 65), "London", "CITIZEN", 50
+        );
+
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of("QUAL-3", "QUAL-68"), "London",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8)
+        );
+
+        // Act & Assert
+        assertTrue(eligibilityRulesEngine.isCarerEligibleForBooking(seasonedCarer, booking));
+        assertFalse(eligibilityRulesEngine.isCarerEligibleForBooking(juniorCarer, booking));
+    }
 }
@@ -0,0 +1,68 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EligibilityVerdictCacheTest {
+
+    private EligibilityVerdictCache eligibilityVerdictCache;
+
+    @BeforeEach
+    void setUp() {
+        eligibilityVerdictCache = new EligibilityVerdictCache(new EligibilityRulesEngine(), 100);
+    }
+
+    @Test
+    void isCarerEligibleForBooking_CarersInSameClass_ShouldReuseVerdict() {
+        // Arrange - same attributes, qualifications listed in a different order
+        EligibilityRulesEngine.CarerProjection first = new EligibilityRulesEngine.CarerProjection(
+                UUID.randomUUID(), "RN", List.of("BLS", "ACLS"), "London", "CITIZEN", 50
+        );
+        EligibilityRulesEngine.CarerProjection second = new EligibilityRulesEngine.CarerProjection(
+                UUID.randomUUID(), "RN", List.of("ACLS", "BLS"), "London", "CITIZEN", 50
+        );
+
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of("BLS"), "London",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8)
+        );
+
+        // Act
+        boolean firstResult = eligibilityVerdictCache.isCarerEligibleForBooking(first, booking);
+        boolean secondResult = eligibilityVerdictCache.isCarerEligibleForBooking(second, booking);
+
+        // Assert
+        assertTrue(firstResult);
+        assertTrue(secondResult);
+        assertEquals(1, eligibilityVerdictCache.getMissCount());
+        assertEquals(1, eligibilityVerdictCache.getHitCount());
+    }
+
+    @Test
+    void isCarerEligibleForBooking_CarerAttributeChanged_ShouldMoveToNewClass() {
+        // Arrange
+        EligibilityRulesEngine.CarerProjection carer = new EligibilityRulesEngine.CarerProjection(
+                UUID.randomUUID(), "RN", List.of("BLS"), "London", "CITIZEN", 50
+        );
+
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of("BLS"), "London",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8)
+        );
+        assertTrue(eligibilityVerdictCache.isCarerEligibleForBooking(carer, booking));
+
+        // Act
+        carer.setGrade("HCA");
+        boolean result = eligibilityVerdictCache.isCarerEligibleForBooking(carer, booking);
+
+        // Assert
+        assertFalse(result);
+        assertEquals(2, eligibilityVerdictCache.getMissCount());
+    }
+}
@@ -0,0 +1,58 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelEligibilityEvaluatorTest {
+
+    private EligibilityRulesEngine eligibilityRulesEngine;
+    private ParallelEligibilityEvaluator parallelEligibilityEvaluator;
+
+    @BeforeEach
+    void setUp() {
+        eligibilityRulesEngine = new EligibilityRulesEngine();
+        parallelEligibilityEvaluator = new ParallelEligibilityEvaluator(
+                new EligibilityVerdictCache(eligibilityRulesEngine, 1_000), 4, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelEligibilityEvaluator.shutdown();
+    }
+
+    @Test
+    void evaluate_RosterAboveThreshold_ShouldMatchSequentialVerdicts() {
+        // Arrange - every third carer lacks the required qualification
+        List<EligibilityRulesEngine.CarerProjection> carers = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            List<String> qualifications = i % 3 == 0 ? List.of("ACLS") : List.of("BLS");
+            carers.add(new EligibilityRulesEngine.CarerProjection(
+                    UUID.randomUUID(), "RN", qualifications, "London", "CITIZEN", 50
+            ));
+        }
+
+        EligibilityRulesEngine.BookingProjection booking = new EligibilityRulesEngine.BookingProjection(
+                UUID.randomUUID(), UUID.randomUUID(), "RN", List.of("BLS"), "London",
+                LocalDateTime.now().plusDays(1), LocalDateTime.now().plusDays(1).plusHours(8)
+        );
+
+        // Act
+        BitSet eligible = parallelEligibilityEvaluator.evaluate(booking, carers);
+
+        // Assert
+        for (int i = 0; i < carers.size(); i++) {
+            assertEquals(eligibilityRulesEngine.isCarerEligibleForBooking(carers.get(i), booking),
+                    eligible.get(i), "carer position " + i);
+        }
+        assertEquals(666, eligible.cardinality());
+    }
+}
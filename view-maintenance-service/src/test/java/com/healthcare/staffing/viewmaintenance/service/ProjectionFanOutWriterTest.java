@@ -0,0 +1,93 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.staffing.shared.dto.EligibleShiftDto;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.invocation.Invocation;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectionFanOutWriterTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisOperations<String, String> operations;
+
+    @Mock
+    private EligibilityGraph eligibilityGraph;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProjectionFanOutWriter projectionFanOutWriter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(redisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            invocation.<SessionCallback<?>>getArgument(0).execute(operations);
+            return List.of();
+        });
+        projectionFanOutWriter = new ProjectionFanOutWriter(redisTemplate, new ObjectMapper().findAndRegisterModules(),
+                new ViewMaintenanceProperties(), meterRegistry, eligibilityGraph);
+    }
+
+    @Test
+    void runInUnitOfWork_SeveralEntriesOfOneCarer_ShouldWriteTheHashInOneScriptCall() {
+        // Arrange
+        UUID carerId = UUID.randomUUID();
+        EligibleShiftDto added = shift(UUID.randomUUID());
+        EligibleShiftDto replaced = shift(UUID.randomUUID());
+        UUID removedBookingId = UUID.randomUUID();
+
+        // Act
+        projectionFanOutWriter.runInUnitOfWork("BookingBooked", () -> {
+            ProjectionFanOutWriter.Batch writes = projectionFanOutWriter.newBatch("BookingBooked");
+            writes.addShiftForCarer(carerId, added);
+            writes.removeShiftForCarer(carerId, replaced.getBookingId());
+            writes.addShiftForCarer(carerId, replaced);
+            writes.removeShiftForCarer(carerId, removedBookingId);
+            writes.flush();
+        });
+
+        // Assert
+        List<Invocation> calls = List.copyOf(mockingDetails(operations).getInvocations());
+        assertEquals(1, calls.size());
+        Object[] raw = calls.get(0).getRawArguments();
+        assertSame(ViewProjectionService.APPLY_ENTRIES_SCRIPT, raw[0]);
+        assertEquals(List.of("AvailableShiftsPerCarer:" + carerId,
+                ViewProjectionService.CARERS_WITH_SHIFT_PREFIX + added.getBookingId(),
+                ViewProjectionService.CARERS_WITH_SHIFT_PREFIX + replaced.getBookingId(),
+                ViewProjectionService.CARERS_WITH_SHIFT_PREFIX + removedBookingId), raw[1]);
+        List<Object> args = Arrays.asList((Object[]) raw[2]);
+        assertEquals(String.valueOf(ViewProjectionService.PROJECTION_TTL_HOURS * 3600), args.get(0));
+        assertEquals(List.of("put", added.getBookingId().toString()), args.subList(1, 3));
+        assertEquals(List.of("replace", replaced.getBookingId().toString()), args.subList(5, 7));
+        assertEquals(List.of("delete", removedBookingId.toString(), "", carerId.toString()), args.subList(9, 13));
+        assertEquals(3.0, meterRegistry.counter("viewmaintenance.fanout.writes.saved", "event", "BookingBooked").count());
+    }
+
+    private static EligibleShiftDto shift(UUID bookingId) {
+        LocalDateTime start = LocalDateTime.of(2026, 3, 2, 8, 0);
+        return new EligibleShiftDto(bookingId, UUID.randomUUID(), null, "Day", start, start.plusHours(8), "RN",
+                new BigDecimal("25.00"), "London", null, List.of("BLS"), "OPEN", 0.0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectionUnitOfWorkTest {
+
+    private ProjectionUnitOfWork projectionUnitOfWork;
+
+    @BeforeEach
+    void setUp() {
+        projectionUnitOfWork = ProjectionUnitOfWork.detached("BookingBooked", null);
+    }
+
+    @Test
+    void deleteEntry_AfterPutOfSameEntry_ShouldKeepOnlyFinalState() {
+        // Arrange
+        projectionUnitOfWork.putEntry("AvailableShiftsPerCarer:c1", "b1", "{}", "CarersWithAvailableShift:b1", "c1");
+        projectionUnitOfWork.putEntry("AvailableShiftsPerCarer:c1", "b2", "{}", "CarersWithAvailableShift:b2", "c1");
+
+        // Act
+        projectionUnitOfWork.deleteEntry("AvailableShiftsPerCarer:c1", "b1", "CarersWithAvailableShift:b1", "c1");
+
+        // Assert
+        assertEquals(3, projectionUnitOfWork.getRecordedMutations());
+        assertEquals(2, projectionUnitOfWork.getPendingEntryCount());
+        assertNull(projectionUnitOfWork.getPendingEntries().get("AvailableShiftsPerCarer:c1").get("b1"));
+        assertEquals(Boolean.FALSE, projectionUnitOfWork.getPendingMembers().get("CarersWithAvailableShift:b1").get("c1"));
+    }
+
+    @Test
+    void readFields_WithPendingMutations_ShouldOverlayThemAndLoadOnce() {
+        // Arrange
+        int[] loads = new int[1];
+        projectionUnitOfWork.deleteEntry("AvailableShiftsPerCarer:c1", "b1", "CarersWithAvailableShift:b1", "c1");
+        projectionUnitOfWork.putEntry("AvailableShiftsPerCarer:c1", "b3", "{}", "CarersWithAvailableShift:b3", "c1");
+
+        // Act
+        Set<String> first = projectionUnitOfWork.readFields("AvailableShiftsPerCarer:c1", () -> {
+            loads[0]++;
+            return Set.of("b1", "b2");
+        });
+        Map<String, String> entries = projectionUnitOfWork.readEntries("AvailableShiftsPerCarer:c2", () -> Map.of("b9", "{}"));
+        Set<String> second = projectionUnitOfWork.readFields("AvailableShiftsPerCarer:c1", () -> {
+            loads[0]++;
+            return Set.of();
+        });
+
+        // Assert
+        assertEquals(Set.of("b2", "b3"), first);
+        assertEquals(first, second);
+        assertEquals(1, loads[0]);
+        assertEquals(Set.of("b9"), entries.keySet());
+    }
+
+    @Test
+    void putEntry_OfPendingEntry_ShouldKeepFirstValueLikeHsetnx() {
+        // Arrange
+        projectionUnitOfWork.putEntry("AvailableShiftsPerCarer:c1", "b1", "{\"v\":1}", "CarersWithAvailableShift:b1", "c1");
+
+        // Act
+        projectionUnitOfWork.putEntry("AvailableShiftsPerCarer:c1", "b1", "{\"v\":2}", "CarersWithAvailableShift:b1", "c1");
+        Map<String, String> entries = projectionUnitOfWork.readEntries("AvailableShiftsPerCarer:c1",
+                () -> Map.of("b1", "{\"v\":0}"));
+
+        // Assert
+        assertEquals("{\"v\":1}", projectionUnitOfWork.getPendingEntries().get("AvailableShiftsPerCarer:c1").get("b1"));
+        assertFalse(projectionUnitOfWork.isReplaced("AvailableShiftsPerCarer:c1", "b1"));
+        assertEquals("{\"v\":0}", entries.get("b1"));
+    }
+
+    @Test
+    void putEntry_AfterDeleteOfSameEntry_ShouldReplaceStoredValue() {
+        // Arrange
+        projectionUnitOfWork.deleteEntry("AvailableShiftsPerCarer:c1", "b1", "CarersWithAvailableShift:b1", "c1");
+
+        // Act
+        projectionUnitOfWork.putEntry("AvailableShiftsPerCarer:c1", "b1", "{\"v\":2}", "CarersWithAvailableShift:b1", "c1");
+        Map<String, String> entries = projectionUnitOfWork.readEntries("AvailableShiftsPerCarer:c1",
+                () -> Map.of("b1", "{\"v\":0}"));
+
+        // Assert
+        assertTrue(projectionUnitOfWork.isReplaced("AvailableShiftsPerCarer:c1", "b1"));
+        assertEquals("{\"v\":2}", entries.get("b1"));
+        ProjectionUnitOfWork.EntryIndex index = projectionUnitOfWork.getIndex("AvailableShiftsPerCarer:c1", "b1");
+        assertEquals("CarersWithAvailableShift:b1", index.getKey());
+        assertEquals("c1", index.getMember());
+    }
+}
@@ -0,0 +1,109 @@
+package com.healthcare.staffing.viewmaintenance.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthcare.staffing.shared.dto.EligibleCarerDto;
+import com.healthcare.staffing.shared.projection.ProjectionKeys;
+import com.healthcare.staffing.viewmaintenance.config.ViewMaintenanceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ViewProjectionServiceTest {
+
+    @Mock
+    private RedisTemplate<String, String> redisTemplate;
+
+    @Mock
+    private RedisOperations<String, String> operations;
+
+    @Mock
+    private HashOperations<String, String, String> hashOperations;
+
+    @Mock
+    private EligibilityGraph eligibilityGraph;
+
+    @Mock
+    private ProjectionDataCache dataCache;
+
+    @Captor
+    private ArgumentCaptor<String> jsonCaptor;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private ViewProjectionService viewProjectionService;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.execute(any(SessionCallback.class))).thenAnswer(invocation ->
+            invocation.<SessionCallback<?>>getArgument(0).execute(operations));
+        when(operations.<String, String>opsForHash()).thenReturn(hashOperations);
+        viewProjectionService = new ViewProjectionService(redisTemplate, objectMapper,
+            new ViewMaintenanceProperties(), eligibilityGraph, dataCache);
+    }
+
+    @Test
+    void patchCarerForShift_ShouldKeepEmptyListsAsArraysAndDistanceAtFullPrecision() throws Exception {
+        // Arrange
+        UUID bookingId = UUID.randomUUID();
+        UUID carerId = UUID.randomUUID();
+        String key = ProjectionKeys.ELIGIBLE_CARERS_PREFIX + bookingId;
+        EligibleCarerDto stored = new EligibleCarerDto(carerId, "Jane", "Smith", "jane@example.com", "0123",
+            "London", "RN", List.of("BLS"), "CITIZEN", 25, 3.1415926535897931, true);
+        when(hashOperations.get(key, carerId.toString())).thenReturn(objectMapper.writeValueAsString(stored));
+        when(operations.exec()).thenReturn(List.of(Boolean.TRUE));
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put("lastName", "Jones");
+        attributes.put("phone", null);
+        attributes.put("qualifications", List.of());
+
+        // Act
+        boolean patched = viewProjectionService.patchCarerForShift(bookingId, carerId, attributes);
+
+        // Assert
+        assertTrue(patched);
+        verify(operations).watch(key);
+        verify(hashOperations).put(eq(key), eq(carerId.toString()), jsonCaptor.capture());
+        JsonNode written = objectMapper.readTree(jsonCaptor.getValue());
+        assertEquals("Jones", written.get("lastName").asText());
+        assertEquals("Jane", written.get("firstName").asText());
+        assertTrue(written.get("phone").isNull());
+        assertTrue(written.get("qualifications").isArray());
+        assertEquals(0, written.get("qualifications").size());
+        assertEquals(3.1415926535897931, written.get("distanceKm").doubleValue());
+    }
+
+    @Test
+    void patchCarerForShift_EntryMissing_ShouldWriteNothingAndReturnFalse() {
+        // Arrange
+        UUID bookingId = UUID.randomUUID();
+        UUID carerId = UUID.randomUUID();
+
+        // Act
+        boolean patched = viewProjectionService.patchCarerForShift(bookingId, carerId, Map.of("lastName", "Jones"));
+
+        // Assert
+        assertFalse(patched);
+        verify(operations).unwatch();
+        verify(hashOperations, never()).put(anyString(), anyString(), anyString());
+    }
+}